@@ -0,0 +1,110 @@
+package campuspaths.benchmarks;
+
+import campuspaths.utils.AdmissionController;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local overload run: 64 clients offer far more work than 4 workers can take, with a
+ * 50 ms deadline. The latency samples should stay within about twice the deadline at the
+ * 99th percentile, and the admitted rate should stay near the capacity of
+ * 1000 / serviceMillis per worker, with the rest refused.
+ *
+ * <p>A refused client backs off for one service time before it tries again, as a
+ * well-behaved client would, and that wait is part of its sample.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(64)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AdmissionBenchmark {
+
+    @Param({"4"})
+    public int workers;
+
+    @Param({"5"})
+    public long serviceMillis;
+
+    @Param({"50"})
+    public long deadlineMillis;
+
+    private AdmissionController admission;
+
+    /**
+     * How each client's requests turned out, reported per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+        public long admitted;
+        public long refused;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            admitted = 0;
+            refused = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        admission = new AdmissionController(workers, 4 * workers, deadlineMillis);
+    }
+
+    /**
+     * Makes one request, backing off if it is refused.
+     *
+     * @return whether the request was admitted.
+     */
+    private boolean request() throws Exception {
+        try {
+            admission.call(() -> {
+                Thread.sleep(serviceMillis);
+                return null;
+            });
+            return true;
+        } catch (AdmissionController.Overloaded e) {
+            Thread.sleep(serviceMillis);
+            return false;
+        }
+    }
+
+    /**
+     * Latency of each request, admitted or refused.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean latency() throws Exception {
+        return request();
+    }
+
+    /**
+     * Admitted and refused requests per second.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void outcomes(Outcomes outcomes) throws Exception {
+        if (request()) {
+            outcomes.admitted++;
+        } else {
+            outcomes.refused++;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package campuspaths.benchmarks;
+
+import campuspaths.utils.BuildingIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup time of {@link BuildingIndex} for campus-sized and much larger building lists, with
+ * queries that are prefixes of real names. The trie size and build time are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BuildingSearchBenchmark {
+
+    private static final String[] WORDS = {"Hall", "Center", "Building", "Library", "Gates",
+        "Allen", "Science", "Engineering", "Music", "Art", "Physics", "Chemistry", "Husky",
+        "Union", "Suzzallo", "Kane", "Mary", "Moore", "Padelford", "Savery"};
+
+    @Param({"60", "10000"})
+    public int buildings;
+
+    private BuildingIndex index;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(331);
+        Map<String, String> names = new HashMap<>();
+        while (names.size() < buildings) {
+            StringBuilder longName = new StringBuilder();
+            for (int w = 0; w < 2 + random.nextInt(3); w++) {
+                longName.append(w == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            names.put(String.format("B%05d", names.size()), longName + " " + names.size());
+        }
+        long start = System.nanoTime();
+        index = new BuildingIndex(names);
+        System.out.printf("%n%d buildings: %d trie nodes built in %.1f ms%n", buildings,
+                index.nodeCount(), (System.nanoTime() - start) / 1e6);
+
+        List<String> longNames = new ArrayList<>(names.values());
+        queries = new String[1024];
+        for (int i = 0; i < queries.length; i++) {
+            String name = longNames.get(random.nextInt(longNames.size())).toLowerCase();
+            queries[i] = name.substring(0, 1 + random.nextInt(Math.min(8, name.length())));
+        }
+    }
+
+    @Benchmark
+    public List<String> search() {
+        next = (next + 1) & (queries.length - 1);
+        return index.search(queries[next], BuildingIndex.MAX_RESULTS);
+    }
+
+    @Benchmark
+    public String resolve() {
+        next = (next + 1) & (queries.length - 1);
+        return index.resolve(queries[next]);
+    }
+}
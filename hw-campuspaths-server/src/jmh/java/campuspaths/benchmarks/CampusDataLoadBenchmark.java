@@ -0,0 +1,166 @@
+package campuspaths.benchmarks;
+
+import campuspaths.CampusData;
+import graph.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pathfinder.datastructures.Point;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time to go from campus data files to a graph on synthetic datasets 10x to 1000x the size of
+ * the real campus, comparing the chunked, memory-mapped parallel loader with reading and
+ * splitting the files line by line on one thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class CampusDataLoadBenchmark {
+
+    /**
+     * Approximate size of the real campus data.
+     */
+    static final int CAMPUS_BUILDINGS = 60;
+    static final int CAMPUS_PATHS = 4000;
+
+    /**
+     * Multiple of the campus size to generate.
+     */
+    @Param({"10", "100", "1000"})
+    public int scale;
+
+    private Path dir;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("campus-data");
+        writeSynthetic(dir, CAMPUS_BUILDINGS * scale, CAMPUS_PATHS * scale, 331);
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdown();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Graph<Point, Double> mappedParallel() {
+        return CampusData.load(dir.resolve(CampusData.BUILDINGS_FILE),
+                dir.resolve(CampusData.PATHS_FILE), executor).join().toGraph();
+    }
+
+    @Benchmark
+    public Graph<Point, Double> lineByLine() throws IOException {
+        Graph<Point, Double> graph = new Graph<>();
+        try (BufferedReader in = Files.newBufferedReader(dir.resolve(CampusData.BUILDINGS_FILE))) {
+            in.readLine();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] tokens = line.split(",");
+                graph.addNode(new Point(Double.parseDouble(tokens[2]), Double.parseDouble(tokens[3])));
+            }
+        }
+        try (BufferedReader in = Files.newBufferedReader(dir.resolve(CampusData.PATHS_FILE))) {
+            in.readLine();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] tokens = line.split(",");
+                Point from = new Point(Double.parseDouble(tokens[0]), Double.parseDouble(tokens[1]));
+                Point to = new Point(Double.parseDouble(tokens[2]), Double.parseDouble(tokens[3]));
+                graph.addNode(from);
+                graph.addNode(to);
+                graph.addEdge(new Graph.Edge<>(from, to, Double.parseDouble(tokens[4])));
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Writes campus-like data files: buildings scattered over a grid of footpaths, with every
+     * footpath listed in both directions.
+     *
+     * @param dir where to write the two files.
+     * @param buildings number of buildings to write.
+     * @param paths about how many path lines to write.
+     * @param seed seed for the coordinates.
+     * @throws IOException if the files cannot be written.
+     */
+    static void writeSynthetic(Path dir, int buildings, int paths, long seed) throws IOException {
+        Random random = new Random(seed);
+        int side = (int) Math.ceil(Math.sqrt(paths / 4.0)) + 1;
+        double step = 25;
+        try (BufferedWriter out = Files.newBufferedWriter(dir.resolve(CampusData.PATHS_FILE),
+                StandardCharsets.UTF_8)) {
+            out.write("x1,y1,x2,y2,distance\n");
+            int written = 0;
+            for (int i = 0; i < side && written < paths; i++) {
+                for (int j = 0; j < side && written < paths; j++) {
+                    double x = i * step + jitter(random, i, j);
+                    double y = j * step + jitter(random, j, i);
+                    if (i + 1 < side) {
+                        double nx = (i + 1) * step + jitter(random, i + 1, j);
+                        written += writeBothWays(out, x, y, nx, y);
+                    }
+                    if (j + 1 < side) {
+                        double ny = (j + 1) * step + jitter(random, j + 1, i);
+                        written += writeBothWays(out, x, y, x, ny);
+                    }
+                }
+            }
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(dir.resolve(CampusData.BUILDINGS_FILE),
+                StandardCharsets.UTF_8)) {
+            out.write("shortName,longName,x,y\n");
+            for (int b = 0; b < buildings; b++) {
+                int i = random.nextInt(side);
+                int j = random.nextInt(side);
+                out.write("B" + b + ",Building " + b + "," + (i * step) + "," + (j * step) + "\n");
+            }
+        }
+    }
+
+    /**
+     * Gives a fixed offset for a grid point, so both lines naming a point agree on it.
+     */
+    private static double jitter(Random random, int a, int b) {
+        return ((a * 31 + b * 17) % 100) / 10000.0;
+    }
+
+    private static int writeBothWays(BufferedWriter out, double x1, double y1, double x2, double y2)
+            throws IOException {
+        String d = String.format("%.4f", Math.hypot(x2 - x1, y2 - y1));
+        out.write(x1 + "," + y1 + "," + x2 + "," + y2 + "," + d + "\n");
+        out.write(x2 + "," + y2 + "," + x1 + "," + y1 + "," + d + "\n");
+        return 2;
+    }
+}
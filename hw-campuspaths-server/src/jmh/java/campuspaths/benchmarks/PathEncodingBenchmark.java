@@ -0,0 +1,80 @@
+package campuspaths.benchmarks;
+
+import campuspaths.utils.PathEncoding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode time of each {@link PathEncoding} against the Gson output for routes of several
+ * lengths. The payload size of each encoding is printed once per route length at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PathEncodingBenchmark {
+
+    /**
+     * Number of segments in the route.
+     */
+    @Param({"10", "100", "1000"})
+    public int segments;
+
+    @Param({"JSON", "POLYLINE", "BINARY"})
+    public PathEncoding encoding;
+
+    private Path<Point> path;
+
+    @Setup
+    public void setup() {
+        path = walk(segments, 331);
+        if (encoding == PathEncoding.JSON) {
+            int json = PathEncoding.JSON.encode(path).length;
+            System.out.printf("%n%d segments: json=%dB polyline=%dB binary=%dB%n", segments, json,
+                    PathEncoding.POLYLINE.encode(path).length, PathEncoding.BINARY.encode(path).length);
+        }
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return encoding.encode(path);
+    }
+
+    /**
+     * Makes a route that wanders around campus-sized coordinates like a real footpath.
+     *
+     * @param segments number of segments in the route.
+     * @param seed seed for the random walk.
+     * @return a route with the given number of segments.
+     */
+    static Path<Point> walk(int segments, long seed) {
+        Random random = new Random(seed);
+        double x = 1800 + random.nextDouble() * 400;
+        double y = 1200 + random.nextDouble() * 400;
+        Path<Point> path = new Path<>(new Point(x, y));
+        for (int i = 0; i < segments; i++) {
+            double dx = random.nextDouble() * 40 - 20;
+            double dy = random.nextDouble() * 40 - 20;
+            x += dx;
+            y += dy;
+            path = path.extend(new Point(x, y), Math.hypot(dx, dy));
+        }
+        return path;
+    }
+}
@@ -0,0 +1,89 @@
+package campuspaths.benchmarks;
+
+import campuspaths.utils.ConvexHull;
+import graph.Graph;
+import graph.ShortestPaths;
+import graph.SyntheticGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pathfinder.datastructures.Point;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work of a /reachable request on city-sized synthetic street grids, from a budget that
+ * covers a neighborhood to one that covers most of the city, against a search of the whole
+ * graph. Nodes are 10 apart on average, so a 200,000 node grid is about 4,500 across.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ReachableBenchmark {
+
+    @Param({"200000"})
+    public int nodes;
+
+    @Param({"500", "2000", "8000"})
+    public double budget;
+
+    private Graph<Point, Double> graph;
+
+    /**
+     * Searches cycle through these starts.
+     */
+    private Point[] starts;
+    private int next;
+
+    @Setup
+    public void setup() {
+        SyntheticGraph s = SyntheticGraph.generate(SyntheticGraph.Topology.GRID, nodes, 331);
+        graph = s.toGraph((i, x, y) -> new Point(x, y));
+        List<Point> points = new ArrayList<>(graph.getNodes());
+        Random random = new Random(331);
+        starts = new Point[16];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = points.get(random.nextInt(points.size()));
+        }
+    }
+
+    /**
+     * One search that stops at the budget.
+     */
+    @Benchmark
+    public Map<Point, Double> within() {
+        return ShortestPaths.within(graph, starts[next++ & 15], budget);
+    }
+
+    /**
+     * The bounded search and the outline of what it reached.
+     */
+    @Benchmark
+    public List<Point> withinBoundary() {
+        return ConvexHull.of(ShortestPaths.within(graph, starts[next++ & 15], budget).keySet());
+    }
+
+    /**
+     * One search of the whole graph, which is what finding the reachable nodes costs
+     * without a budget to stop at.
+     */
+    @Benchmark
+    public Map<Point, Double> unbounded() {
+        return ShortestPaths.within(graph, starts[next++ & 15], Double.POSITIVE_INFINITY);
+    }
+}
@@ -0,0 +1,70 @@
+package campuspaths.benchmarks;
+
+import campuspaths.utils.PathEncoding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pathfinder.CampusMap;
+import pathfinder.ModelAPI;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end route queries on the real campus data: the search alone, and the search plus
+ * the JSON encoding that /draw-path sends back. Building pairs are drawn at random, the same
+ * ones in every run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RouteQueryBenchmark {
+
+    private ModelAPI map;
+    private String[][] pairs;
+    private int next;
+
+    @Setup
+    public void setup() {
+        map = new CampusMap();
+        List<String> buildings = new ArrayList<>(map.buildingNames().keySet());
+        buildings.sort(null);
+        Random random = new Random(331);
+        pairs = new String[1024][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new String[] {buildings.get(random.nextInt(buildings.size())),
+                    buildings.get(random.nextInt(buildings.size()))};
+        }
+    }
+
+    private String[] nextPair() {
+        next = (next + 1) & (pairs.length - 1);
+        return pairs[next];
+    }
+
+    @Benchmark
+    public Path<Point> findShortestPath() {
+        String[] pair = nextPair();
+        return map.findShortestPath(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public byte[] drawPath() {
+        String[] pair = nextPair();
+        return PathEncoding.JSON.encode(map.findShortestPath(pair[0], pair[1]));
+    }
+}
@@ -0,0 +1,238 @@
+package campuspaths;
+
+import campuspaths.utils.MappedCsv;
+import graph.Graph;
+import graph.MemoryStats;
+import pathfinder.datastructures.Point;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * <b>CampusData</b> is the campus buildings and footpaths as read from the data files, kept in
+ * primitive column arrays, plus the step that turns them into a {@link Graph}.
+ *
+ * <p>The buildings file has the columns shortName,longName,x,y and the paths file has the
+ * columns x1,y1,x2,y2,distance, each with a header line. Every path line is one one-way edge.
+ */
+public class CampusData {
+
+    // Abstraction Function:
+    // building i is named shortNames[i] (long name longNames[i]) and sits at
+    // (buildingX[i], buildingY[i]). Path j goes from (x1[j], y1[j]) to (x2[j], y2[j])
+    // and is distance[j] long.
+    //
+    // Representation Invariant:
+    // no array is null &&
+    // the building arrays all have the same length &&
+    // the path arrays all have the same length
+
+    /**
+     * Name of the buildings file.
+     */
+    public static final String BUILDINGS_FILE = "campus_buildings.csv";
+
+    /**
+     * Name of the paths file.
+     */
+    public static final String PATHS_FILE = "campus_paths.csv";
+
+    public final String[] shortNames;
+    public final String[] longNames;
+    public final double[] buildingX;
+    public final double[] buildingY;
+
+    public final double[] x1;
+    public final double[] y1;
+    public final double[] x2;
+    public final double[] y2;
+    public final double[] distance;
+
+    /**
+     * Constructs the data from the columns of the two files.
+     *
+     * @param buildings columns of the buildings file.
+     * @param paths columns of the paths file.
+     */
+    private CampusData(MappedCsv.Table buildings, MappedCsv.Table paths) {
+        this.shortNames = buildings.strings[0];
+        this.longNames = buildings.strings[1];
+        this.buildingX = buildings.doubles[2];
+        this.buildingY = buildings.doubles[3];
+        this.x1 = paths.doubles[0];
+        this.y1 = paths.doubles[1];
+        this.x2 = paths.doubles[2];
+        this.y2 = paths.doubles[3];
+        this.distance = paths.doubles[4];
+        checkRep();
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (shortNames.length == longNames.length && shortNames.length == buildingX.length
+                && shortNames.length == buildingY.length) : "building columns differ in length";
+        assert (x1.length == y1.length && x1.length == x2.length && x1.length == y2.length
+                && x1.length == distance.length) : "path columns differ in length";
+    }
+
+    /**
+     * Gets the number of buildings.
+     *
+     * @return number of buildings read.
+     */
+    public int buildingCount() {
+        return shortNames.length;
+    }
+
+    /**
+     * Gets the number of paths.
+     *
+     * @return number of one-way path segments read.
+     */
+    public int pathCount() {
+        return x1.length;
+    }
+
+    /**
+     * Estimates how much heap the columns take, as {@link MemoryStats} estimates a graph.
+     *
+     * @return the estimated bytes of the column arrays and the building names.
+     */
+    public long memoryBytes() {
+        long bytes = MemoryStats.objectBytes(this)
+                + 2 * MemoryStats.arrayBytes(buildingCount(), 4)
+                + 2 * MemoryStats.arrayBytes(buildingCount(), 8)
+                + 5 * MemoryStats.arrayBytes(pathCount(), 8);
+        for (int i = 0; i < buildingCount(); i++) {
+            bytes += MemoryStats.objectBytes(shortNames[i]) + MemoryStats.objectBytes(longNames[i]);
+        }
+        return bytes;
+    }
+
+    /**
+     * Reads the campus data files found by {@link #dataFile(String)}.
+     *
+     * @spec.requires executor to not be null
+     * @param executor parses the files.
+     * @return a future for the campus data.
+     */
+    public static CompletableFuture<CampusData> load(Executor executor) {
+        try {
+            return load(dataFile(BUILDINGS_FILE), dataFile(PATHS_FILE), executor);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new UncheckedIOException(e));
+        }
+    }
+
+    /**
+     * Reads the two campus data files at the same time, each split into chunks that are
+     * parsed in parallel.
+     *
+     * @spec.requires buildings, paths and executor to not be null
+     * @param buildings the buildings file.
+     * @param paths the paths file.
+     * @param executor parses the files.
+     * @return a future for the campus data.
+     */
+    public static CompletableFuture<CampusData> load(Path buildings, Path paths,
+                                                     Executor executor) {
+        return MappedCsv.read(buildings, "SSDD", executor)
+                .thenCombine(MappedCsv.read(paths, "DDDDD", executor), CampusData::new);
+    }
+
+    /**
+     * Finds a campus data file. The directory in the "campuspaths.data.dir" system property is
+     * used if it is set; otherwise the file is looked up as the classpath resource
+     * "/data/name", the place CampusMap reads it from. A resource inside a jar is copied to a
+     * temporary file first so that it can be mapped.
+     *
+     * @spec.requires name to not be null
+     * @param name name of the data file.
+     * @return where the file is on disk.
+     * @throws IOException if the file cannot be found.
+     */
+    public static Path dataFile(String name) throws IOException {
+        String dir = System.getProperty("campuspaths.data.dir");
+        if (dir != null) {
+            return Paths.get(dir, name);
+        }
+        URL url = CampusData.class.getResource("/data/" + name);
+        if (url == null) {
+            throw new IOException("campus data file not found: " + name);
+        }
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return Paths.get(url.toURI());
+            } catch (URISyntaxException e) {
+                throw new IOException(e);
+            }
+        }
+        Path copy = Files.createTempFile("campuspaths-", "-" + name);
+        copy.toFile().deleteOnExit();
+        try (InputStream in = url.openStream()) {
+            Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return copy;
+    }
+
+    /**
+     * Finds the directory the campus data files are read from, if they are read straight
+     * from disk.
+     *
+     * @return the directory holding the data files, or null if they come from inside a jar
+     *         or cannot be found.
+     */
+    public static Path dataDirectory() {
+        String dir = System.getProperty("campuspaths.data.dir");
+        if (dir != null) {
+            return Paths.get(dir);
+        }
+        URL url = CampusData.class.getResource("/data/" + BUILDINGS_FILE);
+        if (url == null || !"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(url.toURI()).getParent();
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Builds the campus graph: one node per distinct point, one edge per path with the
+     * path's distance as its label. Buildings are nodes too, even if no path reaches them.
+     *
+     * @return a new graph of the campus.
+     */
+    public Graph<Point, Double> toGraph() {
+        List<Point> nodes = new ArrayList<>(2 * pathCount() + buildingCount());
+        List<Graph.Edge<Point, Double>> edges = new ArrayList<>(pathCount());
+        for (int i = 0; i < buildingCount(); i++) {
+            nodes.add(new Point(buildingX[i], buildingY[i]));
+        }
+        for (int i = 0; i < pathCount(); i++) {
+            Point from = new Point(x1[i], y1[i]);
+            Point to = new Point(x2[i], y2[i]);
+            nodes.add(from);
+            nodes.add(to);
+            edges.add(new Graph.Edge<>(from, to, distance[i]));
+        }
+        Graph<Point, Double> graph = new Graph<>(pathCount() + buildingCount());
+        graph.addNodes(nodes);
+        graph.addEdges(edges);
+        return graph;
+    }
+}
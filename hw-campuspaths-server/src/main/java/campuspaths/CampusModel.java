@@ -0,0 +1,710 @@
+package campuspaths;
+
+import campuspaths.utils.BuildingIndex;
+import com.google.gson.Gson;
+import graph.AlternativeRoutes;
+import graph.Components;
+import graph.EdgeWeight;
+import graph.Graph;
+import graph.KdTree;
+import graph.MemoryStats;
+import graph.ProfileGraph;
+import graph.ShortestPaths;
+import pathfinder.CampusMap;
+import pathfinder.ModelAPI;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <b>CampusModel</b> is an immutable snapshot of everything the Spark routes need to answer
+ * a request: the campus map itself plus anything that is precomputed from it at startup.
+ *
+ * <p>Snapshots are only ever built by {@link #load(Executor)}, so a route that holds a
+ * CampusModel never sees a half-built map.
+ *
+ * <p>A snapshot counts who is using it. Whoever publishes it holds the first reference, and
+ * each request {@link #retain()}s it for as long as it runs. Once the publisher and every
+ * request have called {@link #release()}, the snapshot is done with and {@link #released()}
+ * completes, so a replaced snapshot is only let go after its in-flight requests finish.
+ */
+public class CampusModel {
+
+    // Abstraction Function:
+    // a CampusModel is the campus "map" together with its "buildingsJson", the
+    // pre-serialized response of the /buildings route for that map, the "buildings" name
+    // index for searching it, and the campus
+    // "data" as read from the data files along with the "graph" built from it, the
+    // "nodes" index of the graph's points, the "routes" finder for alternatives on it, its
+    // strongly connected "components" and its routing "profiles".
+    //
+    // Representation Invariant:
+    // map != null && buildingsJson != null && buildings != null && data != null &&
+    // graph != null && nodes != null && routes != null && components != null &&
+    // profiles != null &&
+    // buildingsJson is the JSON of map.buildingNames() &&
+    // buildings indexes map.buildingNames() &&
+    // graph is data.toGraph() &&
+    // nodes indexes every node of graph && routes searches graph &&
+    // components is current for graph && profiles has the nodes and edges of graph &&
+    // refs >= 0 && refs never goes up again once it is 0 &&
+    // released is complete iff refs == 0 &&
+    // memoryStats, once set, holds the stats of graph and the estimated bytes of every
+    // structure above &&
+    // reachable holds at most MAX_CACHED_REACHABLE entries, and the entry for a start and
+    // budget bucket b is ShortestPaths.within(graph, start, b * REACHABLE_BUCKET) &&
+    // cachedPoints is the total size of the entries of reachable, at most
+    // MAX_CACHED_REACHABLE_POINTS
+
+    /**
+     * Most alternative routes a request may ask for.
+     */
+    public static final int MAX_ALTERNATIVES = 5;
+
+    /**
+     * Largest fraction of an alternative route's length that may run along a shorter route
+     * offered with it.
+     */
+    public static final double ALTERNATIVE_SIMILARITY = 0.6;
+
+    /**
+     * Budgets for reachable() are rounded up to a multiple of this distance, so requests
+     * with nearby budgets from the same start share one search.
+     */
+    public static final double REACHABLE_BUCKET = 250;
+
+    /**
+     * Most bounded searches kept by reachable(), least recently used dropped first.
+     */
+    private static final int MAX_CACHED_REACHABLE = 128;
+
+    /**
+     * Most points kept by reachable() across all its searches, about 32 MiB. A search with a
+     * large budget reaches most of the graph, so the number of searches alone does not
+     * bound the cache; a search reaching more than this is not kept at all.
+     */
+    private static final int MAX_CACHED_REACHABLE_POINTS = 1 << 19;
+
+    /**
+     * Most nodes outside the largest component listed in componentReport().
+     */
+    private static final int REPORTED_STRAYS = 20;
+
+    /**
+     * Hands out increasing version numbers, one per snapshot.
+     */
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    /**
+     * Version of this snapshot; later snapshots have larger versions.
+     */
+    public final long version = VERSIONS.incrementAndGet();
+
+    /**
+     * Building list and graph used to answer route queries by name. This is pathfinder's
+     * CampusMap, which reads its own copy of the data files from the classpath, so
+     * "campuspaths.data.dir" does not change it.
+     */
+    public final ModelAPI map;
+
+    /**
+     * JSON of map.buildingNames(), computed once instead of on every /buildings request.
+     */
+    public final String buildingsJson;
+
+    /**
+     * Search index over the names in map.buildingNames().
+     */
+    public final BuildingIndex buildings;
+
+    /**
+     * Buildings and paths read straight from the campus data files.
+     */
+    public final CampusData data;
+
+    /**
+     * Graph of campus footpaths built from data, for queries ModelAPI does not offer.
+     */
+    public final Graph<Point, Double> graph;
+
+    /**
+     * Spatial index over the nodes of graph, for snapping coordinates to the map.
+     */
+    public final KdTree<Point> nodes;
+
+    /**
+     * Finder of alternative routes over graph, holding its incoming edges.
+     */
+    public final AlternativeRoutes<Point, Double> routes;
+
+    /**
+     * Strongly connected components of graph, for rejecting routes that cannot exist.
+     */
+    public final Components<Point> components;
+
+    /**
+     * Compact copy of graph with a cost profile for each way of getting around campus.
+     */
+    public final ProfileGraph<Point> profiles;
+
+    /**
+     * Number of holders of this snapshot, starting with whoever publishes it.
+     */
+    private final AtomicInteger refs = new AtomicInteger(1);
+
+    /**
+     * Completes once the last holder lets go.
+     */
+    private final CompletableFuture<Void> released = new CompletableFuture<>();
+
+    /**
+     * Memory statistics of graph and estimates of every structure that never changes, null
+     * until they are first asked for.
+     */
+    private final AtomicReference<CompletableFuture<Map<String, Object>>> memoryStats =
+            new AtomicReference<>();
+
+    /**
+     * Recent bounded searches of reachable(), by start point and budget bucket, least
+     * recently used first. Guards itself and cachedPoints.
+     */
+    private final Map<String, Map<Point, Double>> reachable =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Number of points in all the searches in reachable.
+     */
+    private long cachedPoints;
+
+    /**
+     * Constructs a snapshot from already computed parts.
+     *
+     * @param map campus map for this snapshot.
+     * @param buildingsJson JSON of map.buildingNames().
+     * @param buildings search index over map.buildingNames().
+     * @param data campus data files for this snapshot.
+     * @param graph graph built from data.
+     * @param nodes spatial index over the nodes of graph.
+     * @param routes finder of alternative routes over graph.
+     * @param components strongly connected components of graph.
+     * @param profiles graph with its routing profiles.
+     */
+    private CampusModel(ModelAPI map, String buildingsJson, BuildingIndex buildings,
+                        CampusData data, Graph<Point, Double> graph, KdTree<Point> nodes,
+                        AlternativeRoutes<Point, Double> routes,
+                        Components<Point> components, ProfileGraph<Point> profiles) {
+        this.map = map;
+        this.buildingsJson = buildingsJson;
+        this.buildings = buildings;
+        this.data = data;
+        this.graph = graph;
+        this.nodes = nodes;
+        this.routes = routes;
+        this.components = components;
+        this.profiles = profiles;
+        checkRep();
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (map != null) : "null map";
+        assert (buildingsJson != null) : "null buildingsJson";
+        assert (buildings != null) : "null buildings";
+        assert (data != null) : "null data";
+        assert (graph != null) : "null graph";
+        assert (nodes != null) : "null nodes";
+        assert (routes != null) : "null routes";
+        assert (components != null) : "null components";
+        assert (profiles != null) : "null profiles";
+    }
+
+    /**
+     * Takes a reference to this snapshot, unless it has already been released.
+     *
+     * @spec.effects one more holder of this snapshot if it returns true.
+     * @return whether the reference was taken; if false, the caller must not use it.
+     */
+    public boolean retain() {
+        while (true) {
+            int n = refs.get();
+            if (n == 0) {
+                return false;
+            }
+            if (refs.compareAndSet(n, n + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a reference taken by retain(), or the publisher's first reference.
+     *
+     * @spec.requires the caller holds a reference
+     * @spec.effects one fewer holder; completes released() if it was the last one.
+     */
+    public void release() {
+        if (refs.decrementAndGet() == 0) {
+            released.complete(null);
+        }
+    }
+
+    /**
+     * Gets a future that completes when nobody holds this snapshot any more.
+     *
+     * @return a future that completes once the last reference is released.
+     */
+    public CompletableFuture<Void> released() {
+        return released;
+    }
+
+    /**
+     * Finds a shortest route over the footpath graph between two of its points, such as
+     * points found with nodes.nearest(x, y).
+     *
+     * @spec.requires start and end to not be null
+     * @param start point the route starts at.
+     * @param end point the route ends at.
+     * @return the shortest route from start to end.
+     * @throws IllegalArgumentException if either point is not on the graph or end cannot be
+     *         reached from start.
+     */
+    public Path<Point> findShortestPath(Point start, Point end) {
+        return findShortestPath(start, end, EdgeWeight.labels());
+    }
+
+    /**
+     * Finds a least-cost route over the footpath graph between two of its points, with costs
+     * given by a weight function, such as one that makes stairs costlier. The graph is not
+     * copied, so each request can use its own weights.
+     *
+     * @spec.requires start, end and weight to not be null
+     * @param start point the route starts at.
+     * @param end point the route ends at.
+     * @param weight gives the cost of each footpath; infinite for one that must not be used.
+     * @return the least-cost route from start to end, each segment costing its distance.
+     * @throws IllegalArgumentException if either point is not on the graph or end cannot be
+     *         reached from start.
+     */
+    public Path<Point> findShortestPath(Point start, Point end, EdgeWeight<Point, Double> weight) {
+        List<Graph.Edge<Point, Double>> edges = ShortestPaths.find(graph, start, end, weight);
+        if (edges == null) {
+            throw new IllegalArgumentException("no route from " + start + " to " + end);
+        }
+        return toPath(start, edges);
+    }
+
+    /**
+     * Finds a least-cost route over the footpath graph between two of its points under a
+     * routing profile, such as one that avoids stairs.
+     *
+     * @spec.requires profile to not be null
+     * @param start point the route starts at, or null if there is none.
+     * @param end point the route ends at, or null if there is none.
+     * @param profile name of one of profiles.profiles().
+     * @return the least-cost route from start to end under the profile, each segment costing
+     *         its distance.
+     * @throws IllegalArgumentException if the profile is unknown, either point is null or not
+     *         on the graph, or end cannot be reached from start without the paths the profile
+     *         blocks.
+     */
+    public Path<Point> findShortestPath(Point start, Point end, String profile) {
+        if (!profiles.hasProfile(profile)) {
+            throw new IllegalArgumentException("unknown profile " + profile);
+        }
+        List<Graph.Edge<Point, Double>> edges = start == null || end == null ? null
+                : profiles.find(profile, start, end);
+        if (edges == null) {
+            throw new IllegalArgumentException("no " + profile + " route from " + start
+                    + " to " + end);
+        }
+        return toPath(start, edges);
+    }
+
+    /**
+     * Turns the edges of a route into a Path.
+     *
+     * @param start point the route starts at.
+     * @param edges edges of the route in order, labeled with their distances.
+     * @return the route as a path.
+     */
+    private static Path<Point> toPath(Point start, List<Graph.Edge<Point, Double>> edges) {
+        Path<Point> path = new Path<>(start);
+        for (Graph.Edge<Point, Double> e : edges) {
+            path = path.extend(e.to, e.getLabel());
+        }
+        return path;
+    }
+
+    /**
+     * Asks whether two points are on the graph but no route can join them, in constant
+     * time, so that such a request can be turned away without searching.
+     *
+     * @param start point a route would start at, or null.
+     * @param end point a route would end at, or null.
+     * @return whether both points are on the graph and end cannot be reached from start;
+     *         false if either is null or not on the graph, since a search must decide then.
+     */
+    public boolean isUnreachable(Point start, Point end) {
+        return start != null && end != null && graph.containsNode(start)
+                && graph.containsNode(end) && !components.canReach(start, end);
+    }
+
+    /**
+     * Describes the strongly connected components of the graph, to help find data errors
+     * such as a footpath entered in one direction only. On a well-formed map nearly every
+     * point is in the largest component.
+     *
+     * @return a map with the "nodes" and "components" counts, the size of the "largest"
+     *         component, the number of "singletons", the count of "outsideLargest" points,
+     *         and "strays": up to a few of those points, each with its "x", "y", the
+     *         "componentSize" it is in and whether it "canReachLargest" and is
+     *         "reachableFromLargest".
+     */
+    public Map<String, Object> componentReport() {
+        int largest = components.largest();
+        int singletons = 0;
+        for (int c = 0; c < components.componentCount(); c++) {
+            if (components.size(c) == 1) {
+                singletons++;
+            }
+        }
+        int largestSize = largest < 0 ? 0 : components.size(largest);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("nodes", graph.size());
+        report.put("components", components.componentCount());
+        report.put("largest", largestSize);
+        report.put("singletons", singletons);
+        report.put("outsideLargest", graph.size() - largestSize);
+        List<Map<String, Object>> strays = new ArrayList<>();
+        if (largest >= 0) {
+            Point hub = components.members(largest).get(0);
+            for (int c = 0; c < components.componentCount() && strays.size() < REPORTED_STRAYS;
+                 c++) {
+                if (c == largest) {
+                    continue;
+                }
+                for (Point p : components.members(c)) {
+                    if (strays.size() == REPORTED_STRAYS) {
+                        break;
+                    }
+                    Map<String, Object> stray = new LinkedHashMap<>();
+                    stray.put("x", p.getX());
+                    stray.put("y", p.getY());
+                    stray.put("componentSize", components.size(c));
+                    stray.put("canReachLargest", components.canReach(p, hub));
+                    stray.put("reachableFromLargest", components.canReach(hub, p));
+                    strays.add(stray);
+                }
+            }
+        }
+        report.put("strays", strays);
+        return report;
+    }
+
+    /**
+     * Finds up to k routes over the footpath graph between two of its points that differ
+     * from each other, shortest first. Each shares at most ALTERNATIVE_SIMILARITY of its
+     * length with a shorter one, and is at most AlternativeRoutes.MAX_STRETCH times as long
+     * as the shortest, with lengths and similarity measured in the profile's costs.
+     *
+     * @spec.requires k > 0 && profile to not be null
+     * @param start point the routes start at, or null if there is none.
+     * @param end point the routes end at, or null if there is none.
+     * @param k most routes wanted.
+     * @param profile name of one of profiles.profiles().
+     * @return the routes, shortest first; at least one and at most k.
+     * @throws IllegalArgumentException if the profile is unknown, either point is null or not
+     *         on the graph, or end cannot be reached from start.
+     */
+    public List<Path<Point>> findAlternatives(Point start, Point end, int k, String profile) {
+        if (!profiles.hasProfile(profile)) {
+            throw new IllegalArgumentException("unknown profile " + profile);
+        }
+        // the labels are the shortest profile's costs, without looking each edge up
+        EdgeWeight<Point, Double> weight = profile.equals(ProfileGraph.SHORTEST)
+                ? EdgeWeight.labels() : profiles.weight(profile);
+        List<List<Graph.Edge<Point, Double>>> found = start == null || end == null
+                ? Collections.emptyList()
+                : routes.find(start, end, k, ALTERNATIVE_SIMILARITY, weight);
+        if (found.isEmpty()) {
+            throw new IllegalArgumentException("no route from " + start + " to " + end);
+        }
+        List<Path<Point>> paths = new ArrayList<>(found.size());
+        for (List<Graph.Edge<Point, Double>> edges : found) {
+            paths.add(toPath(start, edges));
+        }
+        return paths;
+    }
+
+    /**
+     * Finds every point of the footpath graph within a distance of a start point, walking
+     * along the footpaths, with one search bounded by the budget. The search is run for the
+     * budget rounded up to a multiple of REACHABLE_BUCKET and kept, so a later request from
+     * the same start with a budget in the same bucket does not search again.
+     *
+     * @param start point to measure from, or null if there is none.
+     * @param budget longest distance to walk.
+     * @return an unmodifiable map from each point reachable from start within budget to its
+     *         distance, iterating from the closest, start itself at 0.
+     * @throws IllegalArgumentException if start is null or not on the graph, or budget is
+     *         negative or not a number.
+     */
+    public Map<Point, Double> reachable(Point start, double budget) {
+        if (start == null || !graph.containsNode(start)) {
+            throw new IllegalArgumentException("not on the map: " + start);
+        }
+        if (!(budget >= 0)) {
+            throw new IllegalArgumentException("budget must not be negative");
+        }
+        double bucket = Math.ceil(budget / REACHABLE_BUCKET);
+        String key = start.getX() + "," + start.getY() + "\n" + bucket;
+        // searched outside the lock; two requests missing together both search, and the
+        // second result replaces an identical first
+        Map<Point, Double> costs;
+        synchronized (reachable) {
+            costs = reachable.get(key);
+        }
+        if (costs == null) {
+            costs = ShortestPaths.within(graph, start, bucket * REACHABLE_BUCKET);
+            cacheReachable(key, costs);
+        }
+        // in order of distance, so everything after the first point over budget is too
+        int within = 0;
+        for (double cost : costs.values()) {
+            if (cost > budget) {
+                break;
+            }
+            within++;
+        }
+        if (within == costs.size()) {
+            return Collections.unmodifiableMap(costs);
+        }
+        Map<Point, Double> found = new LinkedHashMap<>();
+        Iterator<Map.Entry<Point, Double>> entries = costs.entrySet().iterator();
+        for (int i = 0; i < within; i++) {
+            Map.Entry<Point, Double> e = entries.next();
+            found.put(e.getKey(), e.getValue());
+        }
+        return Collections.unmodifiableMap(found);
+    }
+
+    /**
+     * Keeps a bounded search for reachable(), dropping the least recently used ones until
+     * there are at most MAX_CACHED_REACHABLE searches and MAX_CACHED_REACHABLE_POINTS
+     * points.
+     *
+     * @param key start point and budget bucket of the search.
+     * @param costs what the search reached.
+     */
+    private void cacheReachable(String key, Map<Point, Double> costs) {
+        if (costs.size() > MAX_CACHED_REACHABLE_POINTS) {
+            return;
+        }
+        synchronized (reachable) {
+            Map<Point, Double> replaced = reachable.put(key, costs);
+            cachedPoints += costs.size() - (replaced == null ? 0 : replaced.size());
+            // the search just put is the most recently used, so it is the last to go
+            Iterator<Map<Point, Double>> eldest = reachable.values().iterator();
+            while (reachable.size() > MAX_CACHED_REACHABLE
+                    || cachedPoints > MAX_CACHED_REACHABLE_POINTS) {
+                cachedPoints -= eldest.next().size();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Picks out the buildings among some reached points.
+     *
+     * @spec.requires reached to not be null
+     * @param reached points with their distances, as given by reachable().
+     * @return a map from the short name of each building at one of the points to its
+     *         distance, closest first.
+     */
+    public Map<String, Double> buildingsAt(Map<Point, Double> reached) {
+        List<Map.Entry<String, Double>> found = new ArrayList<>();
+        for (int i = 0; i < data.buildingCount(); i++) {
+            Double cost = reached.get(new Point(data.buildingX[i], data.buildingY[i]));
+            if (cost != null) {
+                found.add(new AbstractMap.SimpleEntry<>(data.shortNames[i], cost));
+            }
+        }
+        found.sort(Map.Entry.comparingByValue());
+        Map<String, Double> buildings = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> e : found) {
+            buildings.put(e.getKey(), e.getValue());
+        }
+        return buildings;
+    }
+
+    /**
+     * Finds where a building is on the map.
+     *
+     * @spec.requires shortName to not be null
+     * @param shortName the building's short name.
+     * @return the building's location, or null if there is no such building.
+     */
+    public Point buildingLocation(String shortName) {
+        for (int i = 0; i < data.buildingCount(); i++) {
+            if (data.shortNames[i].equals(shortName)) {
+                return new Point(data.buildingX[i], data.buildingY[i]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the memory statistics of the graph and estimates of every structure built from
+     * it, computing them once in the background the first time they are asked for. These
+     * structures never change, so they stay valid; the reachable() cache does change and is
+     * measured by reachableCacheStats() instead. The map is left out, as ModelAPI does not
+     * expose what it holds.
+     *
+     * @spec.requires executor to not be null
+     * @param executor walks the structures if the statistics have not been started yet.
+     * @return a future for a map with the {@link MemoryStats} of the graph as "graph", and
+     *         the estimated bytes of each structure by field name as "bytes"; already
+     *         complete after the first computation.
+     */
+    public CompletableFuture<Map<String, Object>> memoryStats(Executor executor) {
+        CompletableFuture<Map<String, Object>> stats = memoryStats.get();
+        if (stats == null) {
+            CompletableFuture<Map<String, Object>> mine = new CompletableFuture<>();
+            if (memoryStats.compareAndSet(null, mine)) {
+                mine.completeAsync(this::measure, executor);
+            }
+            stats = memoryStats.get();
+        }
+        return stats;
+    }
+
+    /**
+     * Measures the graph and estimates the size of every structure that never changes.
+     *
+     * @return the map memoryStats() completes with.
+     */
+    private Map<String, Object> measure() {
+        MemoryStats graphStats = graph.memoryStats();
+        Map<String, Long> bytes = new LinkedHashMap<>();
+        bytes.put("data", data.memoryBytes());
+        bytes.put("graph", graphStats.totalBytes);
+        bytes.put("buildingsJson", MemoryStats.objectBytes(buildingsJson));
+        bytes.put("buildings", buildings.memoryBytes());
+        bytes.put("nodes", nodes.memoryBytes());
+        bytes.put("routes", routes.memoryBytes());
+        bytes.put("components", components.memoryBytes());
+        bytes.put("profiles", profiles.memoryBytes());
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("graph", graphStats);
+        stats.put("bytes", Collections.unmodifiableMap(bytes));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * Measures the searches kept by reachable() as they are now. The points are the graph's
+     * nodes and are not counted again.
+     *
+     * @return a map with the number of searches kept as "entries", the number of points
+     *         they hold altogether as "points", the most points kept as "maxPoints", and
+     *         their estimated size as "bytes".
+     */
+    public Map<String, Long> reachableCacheStats() {
+        long entries;
+        long points;
+        long bytes;
+        synchronized (reachable) {
+            entries = reachable.size();
+            points = cachedPoints;
+            bytes = MemoryStats.hashMapBytes(entries);
+            for (Map.Entry<String, Map<Point, Double>> e : reachable.entrySet()) {
+                bytes += MemoryStats.objectBytes(e.getKey())
+                        + MemoryStats.hashMapBytes(e.getValue().size());
+            }
+        }
+        // one boxed Double per point
+        bytes += points * MemoryStats.objectBytes(0.0);
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("entries", entries);
+        stats.put("points", points);
+        stats.put("maxPoints", (long) MAX_CACHED_REACHABLE_POINTS);
+        stats.put("bytes", bytes);
+        return stats;
+    }
+
+    /**
+     * Checks that this snapshot can serve requests, so that a bad data file is caught before
+     * the snapshot replaces a working one.
+     *
+     * @throws IllegalStateException if there are no buildings or paths, a path has a negative
+     *         or non-finite distance, or the map cannot route between two of its buildings.
+     */
+    public void validate() {
+        if (data.buildingCount() == 0 || data.pathCount() == 0) {
+            throw new IllegalStateException("campus data has no buildings or no paths");
+        }
+        for (int i = 0; i < data.pathCount(); i++) {
+            if (!(data.distance[i] >= 0) || Double.isInfinite(data.distance[i])) {
+                throw new IllegalStateException("path " + i + " has distance " + data.distance[i]);
+            }
+        }
+        Map<String, String> names = map.buildingNames();
+        if (names.isEmpty()) {
+            throw new IllegalStateException("campus map has no buildings");
+        }
+        Iterator<String> it = names.keySet().iterator();
+        String first = it.next();
+        String second = it.hasNext() ? it.next() : first;
+        if (map.findShortestPath(first, second) == null) {
+            throw new IllegalStateException("no route from " + first + " to " + second);
+        }
+    }
+
+    /**
+     * Builds a new snapshot without blocking the caller. The campus map is built at the same
+     * time as the data files are read in parallel chunks and turned into a graph. Every
+     * precomputation that depends on the map starts as soon as the map exists, and the
+     * snapshot completes once all of them are done.
+     *
+     * @spec.requires executor to not be null
+     * @param executor runs the map build, the file parsing and the precomputations.
+     * @return a future that completes with the new snapshot, or exceptionally if the
+     *         campus data could not be loaded.
+     */
+    public static CompletableFuture<CampusModel> load(Executor executor) {
+        CompletableFuture<ModelAPI> map = CompletableFuture.supplyAsync(CampusMap::new, executor);
+        CompletableFuture<String> buildingsJson = map.thenApplyAsync(
+                m -> new Gson().toJson(m.buildingNames()), executor);
+        CompletableFuture<BuildingIndex> buildings = map.thenApplyAsync(
+                m -> new BuildingIndex(m.buildingNames()), executor);
+        CompletableFuture<CampusData> data = CampusData.load(executor);
+        CompletableFuture<Graph<Point, Double>> graph =
+                data.thenApplyAsync(CampusData::toGraph, executor);
+        CompletableFuture<KdTree<Point>> nodes = graph.thenApplyAsync(
+                g -> new KdTree<>(g.getNodes(), Point::getX, Point::getY), executor);
+        CompletableFuture<AlternativeRoutes<Point, Double>> routes =
+                graph.thenApplyAsync(AlternativeRoutes::new, executor);
+        CompletableFuture<Components<Point>> components =
+                graph.thenApplyAsync(Components::of, executor);
+        CompletableFuture<ProfileGraph<Point>> profiles = PathAttributes.load(executor)
+                .thenCombineAsync(graph, PathAttributes::profiles, executor);
+        return CompletableFuture.allOf(map, buildingsJson, buildings, data, graph, nodes,
+                        routes, components, profiles)
+                .thenApply(done -> new CampusModel(map.join(), buildingsJson.join(),
+                        buildings.join(), data.join(), graph.join(), nodes.join(),
+                        routes.join(), components.join(), profiles.join()));
+    }
+}
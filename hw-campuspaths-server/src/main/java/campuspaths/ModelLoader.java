@@ -0,0 +1,602 @@
+package campuspaths;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import spark.Filter;
+import spark.Request;
+import spark.Response;
+import spark.Spark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.MemoryType;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <b>ModelLoader</b> builds the {@link CampusModel} on background threads so the Spark
+ * server can bind its port and answer health checks while the campus data is still loading.
+ *
+ * <p>Until the model is ready, {@link #readinessFilter()} turns away requests to the routes
+ * it guards with a 503, and {@link #current()} returns null. Once it is ready, the filter
+ * hands each request the current model, which stays the same for the whole request.
+ *
+ * <p>The model can be rebuilt with {@link #reload()}, or automatically whenever the data
+ * files change by calling {@link #watch(Path)}. A new model is built and validated in the
+ * background while requests keep using the old one, then swapped in atomically. The old
+ * model is released once the requests that were using it have finished.
+ *
+ * <p>The first model can be warmed up with a {@link Warmup} workload before it is made
+ * current, so the server is not reported ready until its hot paths are compiled. The loader
+ * also times the first requests that pass through {@link #timingFilter()}, to show how slow a
+ * freshly started server is with and without the warm-up.
+ */
+public class ModelLoader {
+
+    // Abstraction Function:
+    // "model" is the snapshot new requests should use, or null while the first one is still
+    // loading; the loader holds one reference to it. "firstByteMillis" and "readyMillis" are
+    // the JVM uptimes at which the server started listening and the first model became ready,
+    // or -1 if that has not happened yet. "lastReload" describes the latest reload and
+    // "warmupReport" the warm-up of the first model, if any. firstRequestMicros[i] is how
+    // long the i-th timed request took, for i < min(timed, FIRST_REQUESTS).
+    //
+    // Representation Invariant:
+    // executor != null && warmupQueries >= 0 &&
+    // firstRequestMicros.length == FIRST_REQUESTS &&
+    // readyMillis == -1 if model.get() == null
+
+    /**
+     * Seconds clients are told to wait before retrying a request turned away while loading.
+     */
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    /**
+     * Request attribute holding the model a request was given.
+     */
+    private static final String MODEL_ATTRIBUTE = "campuspaths.model";
+
+    /**
+     * Request attribute holding the System.nanoTime() at which a request was let through.
+     */
+    private static final String STARTED_ATTRIBUTE = "campuspaths.started";
+
+    /**
+     * Number of requests after startup whose latency is recorded.
+     */
+    public static final int FIRST_REQUESTS = 200;
+
+    /**
+     * How long the data files must stay unchanged before a reload starts, so that a
+     * half-written file is not loaded.
+     */
+    private static final long QUIET_MILLIS = 500;
+
+    private final Logger logger = LoggerFactory.getLogger("CampusPaths Server");
+
+    /**
+     * Runs the model build and its precomputations.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Number of warm-up queries to run on the first model before it is made current.
+     */
+    private final int warmupQueries;
+
+    /**
+     * Completes with the first model once it is current, or with the error loading it.
+     */
+    private final CompletableFuture<CampusModel> ready = new CompletableFuture<>();
+
+    /**
+     * Latency of each of the first timed requests, and how many have been timed.
+     */
+    private final long[] firstRequestMicros = new long[FIRST_REQUESTS];
+    private final AtomicInteger timed = new AtomicInteger();
+
+    /**
+     * Snapshot handed to new requests, null until loading finishes.
+     */
+    private final AtomicReference<CampusModel> model = new AtomicReference<>();
+
+    /**
+     * Whether a reload is running, and whether another one was asked for meanwhile.
+     */
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private final AtomicBoolean reloadPending = new AtomicBoolean();
+
+    private volatile long firstByteMillis = -1;
+    private volatile long readyMillis = -1;
+    private volatile Throwable failure;
+    private volatile Map<String, Object> lastReload;
+    private volatile Map<String, Object> warmupReport;
+
+    /**
+     * Constructs a loader that has not started loading yet and does not warm up.
+     *
+     * @spec.effects Constructs a new ModelLoader with a pool of daemon worker threads.
+     */
+    public ModelLoader() {
+        this(0);
+    }
+
+    /**
+     * Constructs a loader that has not started loading yet.
+     *
+     * @spec.requires warmupQueries >= 0
+     * @param warmupQueries number of warm-up queries to run on the first model before it is
+     *                      made current, or 0 to make it current as soon as it is built.
+     * @spec.effects Constructs a new ModelLoader with a pool of daemon worker threads.
+     */
+    public ModelLoader(int warmupQueries) {
+        this.warmupQueries = warmupQueries;
+        AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread t = new Thread(r, "model-loader-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Starts building the model in the background and returns immediately.
+     *
+     * @spec.effects the model becomes available from current() once it is built and
+     *               warmed up.
+     */
+    public void start() {
+        logger.info("Loading campus model in the background");
+        long start = System.nanoTime();
+        CampusModel.load(executor).thenApplyAsync(loaded -> {
+            loaded.validate();
+            if (warmupQueries > 0) {
+                warmupReport = Warmup.run(loaded, warmupQueries);
+                logger.info("Warmed up campus model " + warmupReport);
+            }
+            return loaded;
+        }, executor).whenComplete((loaded, e) -> {
+            if (e != null) {
+                failure = e;
+                logger.error("Failed to load campus model", e);
+                // a no-op if a reload has already made a model current
+                ready.completeExceptionally(e);
+            } else if (swap(loaded, true, start, System.nanoTime())) {
+                logger.info("Campus model ready: time-to-ready " + readyMillis + " ms");
+            } else {
+                // a reload finished first, and its model is at least as new
+                logger.info("Discarding the first campus model, a reload replaced it");
+                loaded.release();
+            }
+        });
+    }
+
+    /**
+     * Gets a future for the first model becoming current.
+     *
+     * @return a future that completes with the first model once current() returns it, or
+     *         exceptionally if it could not be loaded.
+     */
+    public CompletableFuture<CampusModel> ready() {
+        return ready;
+    }
+
+    /**
+     * Builds a new model in the background, validates it and, if it is valid, swaps it in
+     * for the current one. Requests are never paused: until the swap they use the old model,
+     * and the old model is released once the last of them finishes. A reload asked for while
+     * one is running starts again once that one finishes.
+     *
+     * @spec.effects replaces the current model if the new one is valid.
+     */
+    public void reload() {
+        reloadPending.set(true);
+        if (!reloading.compareAndSet(false, true)) {
+            return;
+        }
+        reloadPending.set(false);
+        resetPeakHeap();
+        long start = System.nanoTime();
+        CampusModel.load(executor).whenComplete((loaded, e) -> {
+            try {
+                if (e == null) {
+                    loaded.validate();
+                }
+            } catch (RuntimeException invalid) {
+                e = invalid;
+            }
+            long built = System.nanoTime();
+            if (e != null) {
+                logger.error("Reload failed, keeping the current campus model", e);
+            } else {
+                swap(loaded, false, start, built);
+            }
+            reloading.set(false);
+            if (reloadPending.get()) {
+                reload();
+            }
+        });
+    }
+
+    /**
+     * Puts a new model in place of the current one and arranges for the old one to be
+     * released once its requests finish. The first model to become current, whether from
+     * start() or a reload, completes ready().
+     *
+     * @param loaded the validated new model.
+     * @param first whether loaded is the model start() built, which only goes in if no
+     *              model is current yet, so it never replaces a newer one from a reload.
+     * @param start System.nanoTime() when the load started.
+     * @param built System.nanoTime() when the new model was built and validated.
+     * @return whether loaded was made current.
+     */
+    private boolean swap(CampusModel loaded, boolean first, long start, long built) {
+        CampusModel old;
+        if (first) {
+            if (!model.compareAndSet(null, loaded)) {
+                return false;
+            }
+            old = null;
+        } else {
+            old = model.getAndSet(loaded);
+        }
+        long swapped = System.nanoTime();
+        loaded.memoryStats(executor);
+        if (readyMillis == -1) {
+            readyMillis = uptimeMillis();
+            ready.complete(loaded);
+        }
+        if (first) {
+            return true;
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("version", loaded.version);
+        report.put("buildMillis", TimeUnit.NANOSECONDS.toMillis(built - start));
+        report.put("swapMicros", TimeUnit.NANOSECONDS.toMicros(swapped - built));
+        report.put("peakHeapBytes", peakHeap());
+        lastReload = report;
+        logger.info("Reloaded campus model " + report);
+
+        if (old != null) {
+            old.released().thenRun(() -> {
+                report.put("drainMillis",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - swapped));
+                logger.info("Released campus model version " + old.version
+                        + " after its requests finished");
+            });
+            old.release();
+        }
+        return true;
+    }
+
+    /**
+     * Reloads the model whenever a file in the data directory changes, once the directory
+     * has been quiet for a short while. Watching happens on its own daemon thread.
+     *
+     * @spec.requires dir to not be null
+     * @param dir directory holding the campus data files.
+     * @throws IOException if the directory cannot be watched.
+     */
+    public void watch(Path dir) throws IOException {
+        WatchService watcher = FileSystems.getDefault().newWatchService();
+        dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread t = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = watcher.take();
+                    drain(key);
+                    // wait for the writes to settle before reloading
+                    while ((key = watcher.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                        drain(key);
+                    }
+                    logger.info("Campus data changed in " + dir + ", reloading");
+                    reload();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // stop watching
+            }
+        }, "model-watcher");
+        t.setDaemon(true);
+        t.start();
+        logger.info("Watching " + dir + " for campus data changes");
+    }
+
+    /**
+     * Empties a watch key's events and re-arms it.
+     */
+    private static void drain(WatchKey key) {
+        for (WatchEvent<?> ignored : key.pollEvents()) {
+            // only the fact that something changed matters
+        }
+        key.reset();
+    }
+
+    /**
+     * Records that the server is now listening and can send its first byte.
+     *
+     * @spec.effects sets the time-to-first-byte to the current JVM uptime.
+     */
+    public void markListening() {
+        firstByteMillis = uptimeMillis();
+        logger.info("Listening: time-to-first-byte " + firstByteMillis + " ms");
+    }
+
+    /**
+     * Asks whether the model has finished loading.
+     *
+     * @return whether current() returns a model.
+     */
+    public boolean isReady() {
+        return model.get() != null;
+    }
+
+    /**
+     * Gets the model new requests would use. Routes behind readinessFilter() should use
+     * {@link #model(Request)} instead, which stays the same for the whole request.
+     *
+     * @return the loaded model, or null if it is not ready yet.
+     */
+    public CampusModel current() {
+        return model.get();
+    }
+
+    /**
+     * Takes a reference to the current model.
+     *
+     * @return the current model, retained for the caller, or null if it is not ready yet.
+     */
+    private CampusModel acquire() {
+        while (true) {
+            CampusModel m = model.get();
+            if (m == null || m.retain()) {
+                return m;
+            }
+            // it was swapped out and released between get and retain; try the new one
+        }
+    }
+
+    /**
+     * Gets the model a request was given by readinessFilter().
+     *
+     * @spec.requires the request passed through readinessFilter()
+     * @param request the request being handled.
+     * @return the model to use for the whole request.
+     */
+    public static CampusModel model(Request request) {
+        return request.attribute(MODEL_ATTRIBUTE);
+    }
+
+    /**
+     * Gets when readinessFilter() let a request through, which is as close as the server
+     * sees to when the request arrived.
+     *
+     * @spec.requires the request passed through readinessFilter()
+     * @param request the request being handled.
+     * @return the System.nanoTime() at which the request was let through.
+     */
+    public static long started(Request request) {
+        Long started = request.attribute(STARTED_ATTRIBUTE);
+        return started;
+    }
+
+    /**
+     * Gives the readiness and startup timings in a form that can be turned into JSON.
+     *
+     * @return a map with "ready", "timeToFirstByteMillis", "timeToReadyMillis", the
+     *         current "version", "warmup" and "lastReload" if any, "firstRequests" once a
+     *         request has been timed, and "error" if loading failed.
+     */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        CampusModel m = model.get();
+        status.put("ready", m != null);
+        status.put("timeToFirstByteMillis", firstByteMillis);
+        status.put("timeToReadyMillis", readyMillis);
+        if (m != null) {
+            status.put("version", m.version);
+        }
+        if (warmupReport != null) {
+            status.put("warmup", warmupReport);
+        }
+        if (lastReload != null) {
+            status.put("lastReload", lastReload);
+        }
+        Map<String, Object> firstRequests = firstRequests();
+        if (firstRequests != null) {
+            status.put("firstRequests", firstRequests);
+        }
+        if (failure != null) {
+            status.put("error", String.valueOf(failure.getMessage()));
+        }
+        return status;
+    }
+
+    /**
+     * Gives the memory statistics of the current model and the JVM heap in a form that can
+     * be turned into JSON. The statistics of the structures that never change are computed
+     * once per model on the loader's threads, started when the model is swapped in, so this
+     * never walks the graph itself and never forces a garbage collection.
+     *
+     * @return a map with the model "version"; "graph" holding the graph's statistics and
+     *         "bytes" the estimated size of every structure the model holds, including the
+     *         reachable cache, and their "totalBytes" ("computing" instead if they are not
+     *         ready yet, "error" if they failed); "reachableCache" with the size of the
+     *         cache; and "heap" with the JVM heap usage. Null if the model is not ready.
+     */
+    public Map<String, Object> memoryReport() {
+        CampusModel m = model.get();
+        if (m == null) {
+            return null;
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("version", m.version);
+        CompletableFuture<Map<String, Object>> stats = m.memoryStats(executor);
+        Map<String, Long> cache = m.reachableCacheStats();
+        if (!stats.isDone()) {
+            report.put("computing", true);
+        } else if (stats.isCompletedExceptionally()) {
+            report.put("error", "could not compute model statistics");
+        } else {
+            report.put("graph", stats.join().get("graph"));
+            @SuppressWarnings("unchecked")
+            Map<String, Long> bytes =
+                    new LinkedHashMap<>((Map<String, Long>) stats.join().get("bytes"));
+            bytes.put("reachableCache", cache.get("bytes"));
+            long total = 0;
+            for (long b : bytes.values()) {
+                total += b;
+            }
+            report.put("bytes", bytes);
+            report.put("totalBytes", total);
+        }
+        report.put("reachableCache", cache);
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        Map<String, Object> jvm = new LinkedHashMap<>();
+        jvm.put("usedBytes", heap.getUsed());
+        jvm.put("committedBytes", heap.getCommitted());
+        jvm.put("maxBytes", heap.getMax());
+        report.put("heap", jvm);
+        return report;
+    }
+
+    /**
+     * Makes a filter that halts with 503 and a Retry-After header while the model is not
+     * ready, and otherwise gives the request the current model for its whole duration.
+     * Every path it guards must also have releaseFilter() installed after it.
+     *
+     * @return a filter to install before the routes that need the model.
+     */
+    public Filter readinessFilter() {
+        return new Filter() {
+            @Override
+            public void handle(Request request, Response response) {
+                CampusModel m = acquire();
+                if (m == null) {
+                    response.header("Retry-After", RETRY_AFTER_SECONDS);
+                    Spark.halt(503, "campus model is still loading");
+                }
+                request.attribute(MODEL_ATTRIBUTE, m);
+                request.attribute(STARTED_ATTRIBUTE, System.nanoTime());
+            }
+        };
+    }
+
+    /**
+     * Makes a filter that records how long each of the first FIRST_REQUESTS requests it sees
+     * took, from when readinessFilter() let it through.
+     *
+     * @return a filter to install with Spark.afterAfter on paths guarded by
+     *         readinessFilter().
+     */
+    public Filter timingFilter() {
+        return new Filter() {
+            @Override
+            public void handle(Request request, Response response) {
+                Long started = request.attribute(STARTED_ATTRIBUTE);
+                if (started == null) {
+                    return;
+                }
+                int i = timed.getAndIncrement();
+                if (i < FIRST_REQUESTS) {
+                    firstRequestMicros[i] =
+                            TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started);
+                }
+            }
+        };
+    }
+
+    /**
+     * Summarizes the latency of the first timed requests.
+     *
+     * @return a map with the "count" timed so far, up to FIRST_REQUESTS, the "firstMicros"
+     *         of the first one and the "medianMicros" and "maxMicros" of all of them; or null
+     *         if none has been timed.
+     */
+    private Map<String, Object> firstRequests() {
+        int count = Math.min(timed.get(), FIRST_REQUESTS);
+        if (count == 0) {
+            return null;
+        }
+        // a request may still be writing its slot; its latency is then read as 0
+        long[] micros = Arrays.copyOf(firstRequestMicros, count);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", count);
+        summary.put("firstMicros", micros[0]);
+        summary.put("medianMicros", Warmup.median(micros.clone()));
+        summary.put("maxMicros", Arrays.stream(micros).max().getAsLong());
+        return summary;
+    }
+
+    /**
+     * Makes a filter that gives back the model readinessFilter() handed to a request.
+     *
+     * @return a filter to install with Spark.afterAfter on the same paths as
+     *         readinessFilter().
+     */
+    public Filter releaseFilter() {
+        return new Filter() {
+            @Override
+            public void handle(Request request, Response response) {
+                CampusModel m = model(request);
+                if (m != null) {
+                    request.attribute(MODEL_ATTRIBUTE, null);
+                    m.release();
+                }
+            }
+        };
+    }
+
+    /**
+     * Starts a new peak measurement on every heap memory pool.
+     */
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Adds up the peak usage of every heap memory pool since the last reset.
+     *
+     * @return peak heap bytes in use.
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Gets how long the JVM has been running.
+     *
+     * @return JVM uptime in milliseconds.
+     */
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
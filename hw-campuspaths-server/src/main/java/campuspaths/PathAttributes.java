@@ -0,0 +1,217 @@
+package campuspaths;
+
+import campuspaths.utils.MappedCsv;
+import graph.Graph;
+import graph.ProfileGraph;
+import pathfinder.datastructures.Point;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * <b>PathAttributes</b> is what the optional attributes file says about campus footpaths
+ * beyond their length: whether a path is a flight of stairs and how steep it is. It decides
+ * which paths each routing profile may use and what they cost.
+ *
+ * <p>The attributes file has the columns x1,y1,x2,y2,stairs,grade with a header line. Each
+ * line describes the one-way path from (x1, y1) to (x2, y2); stairs is 1 for stairs and 0
+ * otherwise, and grade is the percent rise along the path, negative going downhill. Paths
+ * the file does not mention are level and have no stairs, and without the file every
+ * profile routes like the shortest one.
+ */
+public class PathAttributes {
+
+    // Abstraction Function:
+    // the path from a to b is stairs if stairs contains new Segment(a, b), and rises
+    // grade.get(new Segment(a, b)) percent; a path in neither map is level without stairs.
+    //
+    // Representation Invariant:
+    // stairs and grade are not null and hold no nulls
+
+    /**
+     * Name of the attributes file.
+     */
+    public static final String ATTRIBUTES_FILE = "campus_path_attributes.csv";
+
+    /**
+     * Profile that avoids stairs.
+     */
+    public static final String NO_STAIRS = "no-stairs";
+
+    /**
+     * Profile that avoids stairs and paths too steep for a wheelchair, and counts steep
+     * paths as longer.
+     */
+    public static final String WHEELCHAIR = "wheelchair";
+
+    /**
+     * Steepest rise, in percent, a wheelchair profile route may take: the 1:12 ramp limit.
+     */
+    public static final double MAX_WHEELCHAIR_GRADE = 100.0 / 12;
+
+    private final Set<Segment> stairs;
+    private final Map<Segment, Double> grade;
+
+    /**
+     * Constructs attributes from the columns of the attributes file.
+     *
+     * @param table columns of the attributes file, or null if there is none.
+     */
+    private PathAttributes(MappedCsv.Table table) {
+        stairs = new HashSet<>();
+        grade = new HashMap<>();
+        if (table != null) {
+            double[][] c = table.doubles;
+            for (int i = 0; i < table.rows; i++) {
+                Segment s = new Segment(new Point(c[0][i], c[1][i]),
+                        new Point(c[2][i], c[3][i]));
+                if (c[4][i] != 0) {
+                    stairs.add(s);
+                }
+                if (c[5][i] != 0) {
+                    grade.put(s, c[5][i]);
+                }
+            }
+        }
+        checkRep();
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (stairs != null && grade != null) : "null map";
+    }
+
+    /**
+     * Reads the attributes file found by {@link CampusData#dataFile(String)}, if there is one.
+     *
+     * @spec.requires executor to not be null
+     * @param executor parses the file.
+     * @return a future for the attributes, which are empty if there is no attributes file.
+     */
+    public static CompletableFuture<PathAttributes> load(Executor executor) {
+        Path file;
+        try {
+            file = CampusData.dataFile(ATTRIBUTES_FILE);
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(new PathAttributes(null));
+        }
+        if (!Files.exists(file)) {
+            return CompletableFuture.completedFuture(new PathAttributes(null));
+        }
+        return load(file, executor);
+    }
+
+    /**
+     * Reads an attributes file.
+     *
+     * @spec.requires file and executor to not be null
+     * @param file the attributes file.
+     * @param executor parses the file.
+     * @return a future for the attributes, which completes exceptionally with an
+     *         UncheckedIOException if the file cannot be read.
+     */
+    public static CompletableFuture<PathAttributes> load(Path file, Executor executor) {
+        if (!Files.isReadable(file)) {
+            return CompletableFuture.failedFuture(
+                    new UncheckedIOException(new IOException("cannot read " + file)));
+        }
+        return MappedCsv.read(file, "DDDDDD", executor).thenApply(PathAttributes::new);
+    }
+
+    /**
+     * Gets the number of paths with an attribute.
+     *
+     * @return how many paths are stairs or not level.
+     */
+    public int size() {
+        Set<Segment> all = new HashSet<>(stairs);
+        all.addAll(grade.keySet());
+        return all.size();
+    }
+
+    /**
+     * Asks whether a path is a flight of stairs.
+     *
+     * @spec.requires from and to to not be null
+     * @param from point the path starts at.
+     * @param to point the path ends at.
+     * @return whether the path from from to to is stairs.
+     */
+    public boolean isStairs(Point from, Point to) {
+        return stairs.contains(new Segment(from, to));
+    }
+
+    /**
+     * Gets how steep a path is.
+     *
+     * @spec.requires from and to to not be null
+     * @param from point the path starts at.
+     * @param to point the path ends at.
+     * @return the percent rise from from to to, negative going downhill, 0 if level.
+     */
+    public double grade(Point from, Point to) {
+        Double g = grade.get(new Segment(from, to));
+        return g == null ? 0 : g;
+    }
+
+    /**
+     * Makes the routing profiles of the campus graph: ProfileGraph.SHORTEST, NO_STAIRS,
+     * which blocks stairs, and WHEELCHAIR, which also blocks paths rising more than
+     * MAX_WHEELCHAIR_GRADE and counts an uphill path as up to twice its length the steeper
+     * it is.
+     *
+     * @spec.requires graph to not be null
+     * @param graph the campus graph; it is not changed.
+     * @return the graph with its profiles.
+     */
+    public ProfileGraph<Point> profiles(Graph<Point, Double> graph) {
+        return ProfileGraph.of(graph)
+                .withProfile(NO_STAIRS, e -> isStairs(e.from, e.to) ? Double.POSITIVE_INFINITY
+                        : e.getLabel())
+                .withProfile(WHEELCHAIR, e -> {
+                    double rise = grade(e.from, e.to);
+                    if (isStairs(e.from, e.to) || rise > MAX_WHEELCHAIR_GRADE) {
+                        return Double.POSITIVE_INFINITY;
+                    }
+                    return e.getLabel() * (1 + Math.max(0, rise) / MAX_WHEELCHAIR_GRADE);
+                });
+    }
+
+    /**
+     * A one-way path between two points, as a map key.
+     */
+    private static class Segment {
+        final Point from;
+        final Point to;
+
+        Segment(Point from, Point to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Segment)) {
+                return false;
+            }
+            Segment s = (Segment) other;
+            return from.equals(s.from) && to.equals(s.to);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(from, to);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package campuspaths;
+
+import graph.Graph;
+import graph.PartitionedRouter;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <b>RegionRouter</b> finds routes over a campus graph whose regions are served by
+ * {@link RegionServer}s in other processes, holding only the overlay of boundary nodes
+ * and which region each node is in itself.
+ *
+ * <p>The overlay, and which region each node is in, are fetched from the servers the first
+ * time a route is asked for, so the servers may start after the router. If they cannot be
+ * reached, it is tried again on the next request.
+ *
+ * <p>This is a prototype of splitting the search across processes, not a way to lower the
+ * server's memory: SparkServer still loads the whole CampusModel next to the router, and
+ * the router itself keeps an entry for every node of the graph.
+ */
+public class RegionRouter implements Closeable {
+
+    // Abstraction Function:
+    // region i of the campus graph is served by regions.get(i); "overlay" holds the router
+    // searching the overlay built from them and the region of every node, or is null until
+    // it has been built.
+    //
+    // Representation Invariant:
+    // regions != null && no region is null
+
+    private final List<RemoteRegion> regions;
+    private volatile Overlay overlay;
+
+    /**
+     * Makes a router over region servers on some loopback ports, waiting up to
+     * {@link RemoteRegion#DEFAULT_TIMEOUT_MILLIS} for each.
+     *
+     * @spec.requires ports to not be null or empty
+     * @param ports port of the server for each region, in region order.
+     */
+    public RegionRouter(List<Integer> ports) {
+        this(ports, RemoteRegion.DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Makes a router over region servers on some loopback ports.
+     *
+     * @spec.requires ports to not be null or empty && timeoutMillis > 0
+     * @param ports port of the server for each region, in region order.
+     * @param timeoutMillis milliseconds to wait for a server to connect, and for each answer.
+     */
+    public RegionRouter(List<Integer> ports, int timeoutMillis) {
+        this.regions = new ArrayList<>();
+        for (int port : ports) {
+            regions.add(new RemoteRegion(port, timeoutMillis));
+        }
+        checkRep();
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (regions != null) : "null regions";
+    }
+
+    /**
+     * Makes a router from the "campuspaths.regions" system property, a comma separated list
+     * of region server ports in region order. "campuspaths.regions.timeoutMillis" sets how
+     * long to wait for a server.
+     *
+     * @return the router, or null if the property is not set.
+     */
+    public static RegionRouter fromProperty() {
+        String property = System.getProperty("campuspaths.regions");
+        if (property == null || property.trim().isEmpty()) {
+            return null;
+        }
+        List<Integer> ports = new ArrayList<>();
+        for (String port : property.split(",")) {
+            ports.add(Integer.parseInt(port.trim()));
+        }
+        return new RegionRouter(ports, Integer.getInteger("campuspaths.regions.timeoutMillis",
+                RemoteRegion.DEFAULT_TIMEOUT_MILLIS));
+    }
+
+    /**
+     * Finds the region a point of the campus graph is in.
+     *
+     * @spec.requires p to not be null
+     * @param p a point of the graph.
+     * @return the index of the region holding p, or -1 if no region has it.
+     * @throws java.io.UncheckedIOException if a region server cannot be reached.
+     */
+    public int regionOf(Point p) {
+        Integer r = overlay().regionOf.get(p);
+        return r == null ? -1 : r;
+    }
+
+    /**
+     * Finds a shortest route between two points of the campus graph.
+     *
+     * @spec.requires start and end to not be null
+     * @param start point the route starts at.
+     * @param end point the route ends at.
+     * @return the shortest route from start to end.
+     * @throws IllegalArgumentException if either point is not on the graph or end cannot be
+     *         reached from start.
+     * @throws java.io.UncheckedIOException if a region server cannot be reached.
+     */
+    public Path<Point> findShortestPath(Point start, Point end) {
+        int startRegion = regionOf(start);
+        int endRegion = regionOf(end);
+        if (startRegion < 0 || endRegion < 0) {
+            throw new IllegalArgumentException(start + " or " + end + " is not on the map");
+        }
+        List<Graph.Edge<Point, Double>> edges =
+                overlay().router.find(start, startRegion, end, endRegion);
+        if (edges == null) {
+            throw new IllegalArgumentException("no route from " + start + " to " + end);
+        }
+        Path<Point> path = new Path<>(start);
+        for (Graph.Edge<Point, Double> e : edges) {
+            path = path.extend(e.to, e.getLabel());
+        }
+        return path;
+    }
+
+    /**
+     * Gets the overlay, fetching it from the servers the first time.
+     */
+    private Overlay overlay() {
+        Overlay o = overlay;
+        if (o == null) {
+            synchronized (this) {
+                o = overlay;
+                if (o == null) {
+                    List<Graph.Edge<Point, Double>> cutEdges = new ArrayList<>();
+                    Map<Point, Integer> regionOf = new HashMap<>();
+                    for (int r = 0; r < regions.size(); r++) {
+                        cutEdges.addAll(regions.get(r).cutEdges());
+                        for (Point p : regions.get(r).nodes()) {
+                            regionOf.put(p, r);
+                        }
+                    }
+                    o = new Overlay(new PartitionedRouter<>(regions, cutEdges), regionOf);
+                    overlay = o;
+                }
+            }
+        }
+        return o;
+    }
+
+    @Override
+    public void close() {
+        for (RemoteRegion region : regions) {
+            region.close();
+        }
+    }
+
+    /**
+     * The overlay router and the region of every node, fetched together so that finding a
+     * route's regions needs no call to the servers.
+     */
+    private static class Overlay {
+        final PartitionedRouter<Point> router;
+        final Map<Point, Integer> regionOf;
+
+        Overlay(PartitionedRouter<Point> router, Map<Point, Integer> regionOf) {
+            this.router = router;
+            this.regionOf = regionOf;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package campuspaths;
+
+import graph.Graph;
+import graph.KdTree;
+import graph.LocalRegion;
+import graph.Partition;
+import pathfinder.datastructures.Point;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <b>RegionServer</b> serves one region of the campus graph to a {@link RegionRouter} in
+ * another process, over a loopback socket.
+ *
+ * <p>The graph is split with {@link Partition#bisect}, which gives the same regions in every
+ * process that splits the same data into the same number of regions. Each server keeps only
+ * its own region's subgraph. The {@link SparkServer} routing through them still holds the
+ * whole model, so as it stands this spreads the search work, not the memory.
+ *
+ * <p>The protocol is one request per line and is answered in plain text, with numbers
+ * written by {@link Double#toString(double)} so that points read back exactly:
+ * <pre>
+ *   NODES                    every node of the region
+ *   BOUNDARY                 the region's boundary nodes
+ *   CUT                      the cut edges leaving the region
+ *   SHORTCUTS                the region's boundary-to-boundary shortcuts
+ *   NEAREST x y              the region's node nearest (x, y)
+ *   FROM x y                 costs from node (x, y) to the boundary
+ *   TO x y                   costs from the boundary to node (x, y)
+ *   PATH x1 y1 x2 y2         a path inside the region
+ * </pre>
+ * Each answer is a line with the number of lines that follow, then those lines: "x y" for a
+ * node, "x y cost" for a cost and "x1 y1 x2 y2 cost" for an edge. PATH answers -1 if there
+ * is no path, and a request that cannot be understood is answered "ERROR message".
+ */
+public class RegionServer implements Closeable {
+
+    // Abstraction Function:
+    // the server answers for region "index" of the campus graph: "subgraph" is its
+    // subgraph, "region" searches subgraph within the region's boundary, "nodes" indexes the
+    // subgraph's points, and "cutEdges" are the cut edges that start in the region. Requests
+    // arrive on "socket".
+    //
+    // Representation Invariant:
+    // subgraph, region, nodes, cutEdges and socket are not null &&
+    // nodes indexes exactly the nodes of subgraph
+
+    private final int index;
+    private final Graph<Point, Double> subgraph;
+    private final LocalRegion<Point> region;
+    private final KdTree<Point> nodes;
+    private final List<Graph.Edge<Point, Double>> cutEdges;
+    private final ServerSocket socket;
+
+    /**
+     * Opens a server for one region of a partition.
+     *
+     * @spec.requires partition to not be null && 0 <= index < partition.regionCount()
+     * @param partition the partitioned campus graph.
+     * @param index the region to serve.
+     * @param port loopback port to listen on, or 0 for any free port.
+     * @throws IOException if the port cannot be bound.
+     */
+    public RegionServer(Partition<Point> partition, int index, int port) throws IOException {
+        this.index = index;
+        this.subgraph = partition.region(index);
+        this.region = new LocalRegion<>(subgraph, partition.boundary(index));
+        this.nodes = new KdTree<>(subgraph.getNodes(), Point::getX, Point::getY);
+        this.cutEdges = new ArrayList<>();
+        for (Graph.Edge<Point, Double> e : partition.cutEdges()) {
+            if (partition.regionOf(e.from) == index) {
+                cutEdges.add(e);
+            }
+        }
+        this.socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        checkRep();
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (subgraph != null && region != null && nodes != null && cutEdges != null
+                && socket != null) : "null field";
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the bound loopback port.
+     */
+    public int port() {
+        return socket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections on a background thread until the server is closed.
+     *
+     * @spec.effects starts a daemon thread running {@link #serve()}.
+     */
+    public void start() {
+        Thread accept = new Thread(this::serve, "region-" + index + "-accept");
+        accept.setDaemon(true);
+        accept.start();
+    }
+
+    /**
+     * Accepts connections until the server is closed, answering each on its own thread.
+     */
+    public void serve() {
+        while (!socket.isClosed()) {
+            Socket client;
+            try {
+                client = socket.accept();
+            } catch (IOException e) {
+                // closed, or the connection failed before it was accepted
+                continue;
+            }
+            Thread t = new Thread(() -> answer(client), "region-" + index + "-client");
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    /**
+     * Answers requests on one connection until the other end closes it.
+     */
+    private void answer(Socket client) {
+        try (Socket s = client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(
+                     s.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(new OutputStreamWriter(
+                     s.getOutputStream(), StandardCharsets.US_ASCII))) {
+            s.setTcpNoDelay(true);
+            String line;
+            while ((line = in.readLine()) != null) {
+                try {
+                    answer(line.trim().split(" +"), out);
+                } catch (RuntimeException e) {
+                    out.write("ERROR " + e + "\n");
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // the other end went away; nothing to answer
+        }
+    }
+
+    /**
+     * Writes the answer to one request.
+     */
+    private void answer(String[] request, Writer out) throws IOException {
+        switch (request[0]) {
+            case "NODES":
+                writePoints(subgraph.getNodes(), out);
+                break;
+            case "BOUNDARY":
+                writePoints(region.boundary(), out);
+                break;
+            case "CUT":
+                writeEdges(cutEdges, out);
+                break;
+            case "SHORTCUTS":
+                writeEdges(region.shortcuts(), out);
+                break;
+            case "NEAREST":
+                Point nearest = nodes.nearest(number(request, 1), number(request, 2));
+                List<Point> found = new ArrayList<>();
+                if (nearest != null) {
+                    found.add(nearest);
+                }
+                writePoints(found, out);
+                break;
+            case "FROM":
+                writeCosts(region.costsFrom(point(request, 1)), out);
+                break;
+            case "TO":
+                writeCosts(region.costsTo(point(request, 1)), out);
+                break;
+            case "PATH":
+                List<Graph.Edge<Point, Double>> path =
+                        region.path(point(request, 1), point(request, 3));
+                if (path == null) {
+                    out.write("-1\n");
+                } else {
+                    writeEdges(path, out);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unknown request " + request[0]);
+        }
+    }
+
+    private static double number(String[] request, int i) {
+        if (i >= request.length) {
+            throw new IllegalArgumentException(request[0] + " needs " + i + " numbers");
+        }
+        return Double.parseDouble(request[i]);
+    }
+
+    private static Point point(String[] request, int i) {
+        return new Point(number(request, i), number(request, i + 1));
+    }
+
+    private static void writePoints(Collection<Point> points, Writer out) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(points.size()).append('\n');
+        for (Point p : points) {
+            sb.append(p.getX()).append(' ').append(p.getY()).append('\n');
+        }
+        out.write(sb.toString());
+    }
+
+    private static void writeCosts(Map<Point, Double> costs, Writer out) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(costs.size()).append('\n');
+        for (Map.Entry<Point, Double> c : costs.entrySet()) {
+            sb.append(c.getKey().getX()).append(' ').append(c.getKey().getY()).append(' ')
+                    .append(c.getValue().doubleValue()).append('\n');
+        }
+        out.write(sb.toString());
+    }
+
+    private static void writeEdges(List<Graph.Edge<Point, Double>> edges, Writer out)
+            throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(edges.size()).append('\n');
+        for (Graph.Edge<Point, Double> e : edges) {
+            sb.append(e.from.getX()).append(' ').append(e.from.getY()).append(' ')
+                    .append(e.to.getX()).append(' ').append(e.to.getY()).append(' ')
+                    .append(e.getLabel().doubleValue()).append('\n');
+        }
+        out.write(sb.toString());
+    }
+
+    /**
+     * Serves one region of the campus data, read as {@link CampusData#load(
+     * java.util.concurrent.Executor)} reads it, until the process is killed. Prints
+     * "listening port" once it is ready for connections.
+     *
+     * @param args the number of regions, the region to serve, and optionally the loopback
+     *             port to listen on (any free port if left out).
+     * @throws IOException if the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: RegionServer regions index [port]");
+            System.exit(2);
+        }
+        int regions = Integer.parseInt(args[0]);
+        int index = Integer.parseInt(args[1]);
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        RegionServer server = open(regions, index, port);
+        System.out.println("listening " + server.port());
+        System.out.flush();
+        server.serve();
+    }
+
+    /**
+     * Reads the campus data and opens a server for one region of it. The whole graph and the
+     * other regions are only needed to cut this region out, so nothing refers to them once
+     * this returns and the process keeps just its own region while it serves.
+     *
+     * @spec.requires regions > 0 && 0 <= index < regions
+     * @param regions number of regions the campus is split into.
+     * @param index the region to serve.
+     * @param port loopback port to listen on, or 0 for any free port.
+     * @return the server, not yet accepting connections.
+     * @throws IOException if the port cannot be bound.
+     */
+    static RegionServer open(int regions, int index, int port) throws IOException {
+        Graph<Point, Double> graph = CampusData.load(ForkJoinPool.commonPool()).join().toGraph();
+        Partition<Point> partition = Partition.bisect(graph, Point::getX, Point::getY, regions);
+        return new RegionServer(partition, index, port);
+    }
+}
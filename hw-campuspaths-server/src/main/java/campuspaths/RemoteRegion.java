@@ -0,0 +1,268 @@
+package campuspaths;
+
+import graph.Graph;
+import graph.Region;
+import pathfinder.datastructures.Point;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * <b>RemoteRegion</b> is a {@link Region} of the campus graph held by a {@link RegionServer}
+ * on a loopback port. It is safe to use from many threads: each call borrows a connection,
+ * opening another one if every open connection is busy.
+ *
+ * <p>A failure to reach the server is thrown as an UncheckedIOException, since the Region
+ * interface does not throw checked exceptions. So is a server that does not connect or
+ * answer within the timeout, so that a stalled region fails the request using it rather
+ * than holding its thread forever.
+ */
+public class RemoteRegion implements Region<Point>, Closeable {
+
+    // Abstraction Function:
+    // the region is the one served on loopback "port". "idle" holds open connections not in
+    // use, and "boundary" is the region's boundary once it has been fetched, or null.
+    // Connecting and waiting for each answer give up after "timeoutMillis".
+    //
+    // Representation Invariant:
+    // idle != null && timeoutMillis > 0
+
+    /**
+     * Milliseconds to wait for a connection or an answer unless told otherwise. Answering
+     * SHORTCUTS searches the whole region from every boundary node, so it is generous.
+     */
+    public static final int DEFAULT_TIMEOUT_MILLIS = 10000;
+
+    private final int port;
+    private final int timeoutMillis;
+    private final Queue<Connection> idle = new ConcurrentLinkedQueue<>();
+    private volatile Set<Point> boundary;
+
+    /**
+     * Makes a region served on a loopback port, waiting up to
+     * {@link #DEFAULT_TIMEOUT_MILLIS} for the server. No connection is made until it is used.
+     *
+     * @param port port the region's server listens on.
+     */
+    public RemoteRegion(int port) {
+        this(port, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Makes a region served on a loopback port. No connection is made until it is used.
+     *
+     * @spec.requires timeoutMillis > 0
+     * @param port port the region's server listens on.
+     * @param timeoutMillis milliseconds to wait for a connection, and for each answer.
+     */
+    public RemoteRegion(int port, int timeoutMillis) {
+        this.port = port;
+        this.timeoutMillis = timeoutMillis;
+        checkRep();
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (idle != null) : "null idle";
+        assert (timeoutMillis > 0) : "timeout " + timeoutMillis;
+    }
+
+    /**
+     * Gets every node of this region.
+     *
+     * @return the region's nodes.
+     */
+    public Set<Point> nodes() {
+        List<String> lines = call("NODES");
+        Set<Point> nodes = new LinkedHashSet<>(lines.size() * 4 / 3 + 1);
+        for (String line : lines) {
+            nodes.add(point(line.split(" "), 0));
+        }
+        return nodes;
+    }
+
+    @Override
+    public Set<Point> boundary() {
+        Set<Point> b = boundary;
+        if (b == null) {
+            b = new HashSet<>();
+            for (String line : call("BOUNDARY")) {
+                b.add(point(line.split(" "), 0));
+            }
+            b = Collections.unmodifiableSet(b);
+            boundary = b;
+        }
+        return b;
+    }
+
+    /**
+     * Gets the cut edges that start in this region.
+     *
+     * @return the edges from this region to others.
+     */
+    public List<Graph.Edge<Point, Double>> cutEdges() {
+        return edges(call("CUT"));
+    }
+
+    /**
+     * Finds the node of this region nearest to a point.
+     *
+     * @param x x coordinate of the point.
+     * @param y y coordinate of the point.
+     * @return the region's nearest node, or null if the region is empty.
+     */
+    public Point nearest(double x, double y) {
+        List<String> found = call("NEAREST " + x + " " + y);
+        return found.isEmpty() ? null : point(found.get(0).split(" "), 0);
+    }
+
+    @Override
+    public Map<Point, Double> costsFrom(Point node) {
+        return costs(call("FROM " + node.getX() + " " + node.getY()));
+    }
+
+    @Override
+    public Map<Point, Double> costsTo(Point node) {
+        return costs(call("TO " + node.getX() + " " + node.getY()));
+    }
+
+    @Override
+    public List<Graph.Edge<Point, Double>> path(Point from, Point to) {
+        List<String> lines = call("PATH " + from.getX() + " " + from.getY() + " "
+                + to.getX() + " " + to.getY());
+        return lines == null ? null : edges(lines);
+    }
+
+    @Override
+    public List<Graph.Edge<Point, Double>> shortcuts() {
+        return edges(call("SHORTCUTS"));
+    }
+
+    @Override
+    public void close() {
+        Connection c;
+        while ((c = idle.poll()) != null) {
+            c.close();
+        }
+    }
+
+    /**
+     * Sends one request and reads its answer.
+     *
+     * @return the lines of the answer, or null if the server answered -1.
+     * @throws UncheckedIOException if the server cannot be reached or answers an error.
+     */
+    private List<String> call(String request) {
+        Connection c = idle.poll();
+        try {
+            if (c == null) {
+                c = new Connection(port, timeoutMillis);
+            }
+            c.out.write(request);
+            c.out.write('\n');
+            c.out.flush();
+            String head = c.in.readLine();
+            if (head == null) {
+                throw new IOException("region server on port " + port + " closed");
+            }
+            if (head.startsWith("ERROR")) {
+                throw new IOException("region server on port " + port + ": " + head);
+            }
+            int count = Integer.parseInt(head);
+            List<String> lines = null;
+            if (count >= 0) {
+                lines = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    lines.add(c.in.readLine());
+                }
+            }
+            idle.add(c);
+            return lines;
+        } catch (IOException | RuntimeException e) {
+            if (c != null) {
+                c.close();
+            }
+            throw e instanceof IOException ? new UncheckedIOException((IOException) e)
+                    : new UncheckedIOException(new IOException(e));
+        }
+    }
+
+    private static Point point(String[] fields, int i) {
+        return new Point(Double.parseDouble(fields[i]), Double.parseDouble(fields[i + 1]));
+    }
+
+    private static Map<Point, Double> costs(List<String> lines) {
+        Map<Point, Double> costs = new HashMap<>();
+        for (String line : lines) {
+            String[] f = line.split(" ");
+            costs.put(point(f, 0), Double.parseDouble(f[2]));
+        }
+        return costs;
+    }
+
+    private static List<Graph.Edge<Point, Double>> edges(List<String> lines) {
+        List<Graph.Edge<Point, Double>> edges = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            String[] f = line.split(" ");
+            edges.add(new Graph.Edge<>(point(f, 0), point(f, 2), Double.parseDouble(f[4])));
+        }
+        return edges;
+    }
+
+    /**
+     * One open connection to the server. A read that times out leaves the rest of its answer
+     * unread, so the connection is closed rather than reused.
+     */
+    private static class Connection {
+        final Socket socket;
+        final BufferedReader in;
+        final Writer out;
+
+        Connection(int port, int timeoutMillis) throws IOException {
+            socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                        timeoutMillis);
+                socket.setSoTimeout(timeoutMillis);
+                socket.setTcpNoDelay(true);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.US_ASCII));
+            out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+                    StandardCharsets.US_ASCII));
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // already unusable
+            }
+        }
+    }
+}
@@ -20,9 +20,17 @@
 
 package campuspaths;
 
+import campuspaths.utils.AdmissionController;
+import campuspaths.utils.BuildingIndex;
 import campuspaths.utils.CORSFilter;
+import campuspaths.utils.ConvexHull;
+import campuspaths.utils.PathEncoding;
+import campuspaths.utils.PathSimplifier;
+import campuspaths.utils.SingleFlight;
 import com.google.gson.Gson;
-import pathfinder.CampusMap;
+import graph.KdTree;
+import graph.ProfileGraph;
+import org.slf4j.LoggerFactory;
 import pathfinder.ModelAPI;
 import pathfinder.datastructures.Path;
 import pathfinder.datastructures.Point;
@@ -31,6 +39,17 @@ import spark.Response;
 import spark.Route;
 import spark.Spark;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
+
 public class SparkServer {
 
 
@@ -44,7 +63,116 @@ public class SparkServer {
         // comes from a different server.
         // You should leave these two lines at the very beginning of main().
 
-        ModelAPI map = new CampusMap(); // builds building list and graph
+        // builds building list and graph in the background so the port is bound right away;
+        // with -Dcampuspaths.warmup=n, runs n synthetic route queries on it before it is
+        // reported ready, so the first real requests find the code already compiled
+        ModelLoader loader = new ModelLoader(Integer.getInteger("campuspaths.warmup", 0));
+        loader.start();
+
+        // rebuilds and swaps in the model when the campus data files change
+        java.nio.file.Path dataDir = CampusData.dataDirectory();
+        if (dataDir != null && Boolean.parseBoolean(System.getProperty("campuspaths.reload", "true"))) {
+            try {
+                loader.watch(dataDir);
+            } catch (IOException e) {
+                LoggerFactory.getLogger("CampusPaths Server").warn("Cannot watch " + dataDir, e);
+            }
+        }
+
+        // routes that need the campus model answer 503 until it has loaded, and otherwise
+        // keep the model they started with until they finish
+        for (String route : new String[] {"/buildings", "/buildings/search", "/nearest",
+                "/draw-path", "/reachable", "/admin/components"}) {
+            Spark.before(route, loader.readinessFilter());
+            Spark.afterAfter(route, loader.releaseFilter());
+        }
+        // times the first route requests, reported by /health/ready
+        Spark.afterAfter("/draw-path", loader.timingFilter());
+
+        // bounds how many route searches run and wait at once, so a spike fails fast
+        // instead of making every request slow
+        AdmissionController admission = new AdmissionController(
+                Integer.getInteger("campuspaths.admission.maxConcurrent",
+                        Runtime.getRuntime().availableProcessors()),
+                Integer.getInteger("campuspaths.admission.maxQueue",
+                        4 * Runtime.getRuntime().availableProcessors()),
+                Long.getLong("campuspaths.admission.deadlineMillis", 1000));
+
+        // concurrent /draw-path and /reachable requests for the same answer wait on one search
+        SingleFlight<String, byte[]> routes = new SingleFlight<>();
+
+        // with -Dcampuspaths.regions=port,port,..., shortest routes between coordinates are
+        // searched by RegionServer processes on those loopback ports instead of in this
+        // process. This is a prototype: this process still loads the whole model, and
+        // routes by name, profiles, alternatives, /nearest and /reachable still use it, so
+        // its memory footprint is unchanged
+        RegionRouter regions = RegionRouter.fromProperty();
+
+
+        // tells an orchestrator whether this server can take routing traffic yet,
+        // along with how long startup took
+        Spark.get("/health/ready", new Route() {
+            @Override
+            public Object handle(Request request, Response response) throws Exception {
+                if (!loader.isReady()) {
+                    response.status(503);
+                }
+                Gson gson = new Gson();
+                return gson.toJson(loader.status());
+            }
+        });
+
+
+        // the /admin routes have no authentication, so they exist only when an operator
+        // asks for them with -Dcampuspaths.admin=true
+        boolean admin = Boolean.getBoolean("campuspaths.admin");
+
+        // rebuilds the model from the data files and swaps it in without pausing requests
+        if (admin) {
+            Spark.post("/admin/reload", new Route() {
+                @Override
+                public Object handle(Request request, Response response) throws Exception {
+                    loader.reload();
+                    response.status(202);
+                    return "reload started";
+                }
+            });
+        }
+
+
+        // reports the campus graph's size and degree spread and the estimated heap footprint
+        // of every structure in the model, 202 while the statistics for a newly loaded model
+        // are still being computed
+        if (admin) {
+            Spark.get("/admin/memory", new Route() {
+                @Override
+                public Object handle(Request request, Response response) throws Exception {
+                    Map<String, Object> report = loader.memoryReport();
+                    if (report == null) {
+                        response.header("Retry-After", "1");
+                        Spark.halt(503, "campus model is still loading");
+                    }
+                    if (report.containsKey("computing")) {
+                        response.status(202);
+                    }
+                    Gson gson = new Gson();
+                    return gson.toJson(report);
+                }
+            });
+        }
+
+
+        // reports how the footpath graph splits into strongly connected components, listing
+        // some points outside the largest one, which usually point to a data error
+        if (admin) {
+            Spark.get("/admin/components", new Route() {
+                @Override
+                public Object handle(Request request, Response response) throws Exception {
+                    Gson gson = new Gson();
+                    return gson.toJson(ModelLoader.model(request).componentReport());
+                }
+            });
+        }
 
 
         // gives all the building names and respective key names (which are used to
@@ -52,35 +180,368 @@ public class SparkServer {
         Spark.get("/buildings", new Route() {
             @Override
             public Object handle(Request request, Response response) throws Exception {
+                return ModelLoader.model(request).buildingsJson;
+            }
+        });
+
+
+
+        // autocompletes a building name: the best k buildings whose short name, long name or
+        // a word of the long name starts with q, ignoring case and punctuation, as a JSON
+        // list of {"shortName", "longName"}
+        Spark.get("/buildings/search", new Route() {
+            @Override
+            public Object handle(Request request, Response response) throws Exception {
+                String q = request.queryParams("q");
+                if (q == null) {
+                    Spark.halt(400, "must have a query q");
+                }
+                int k = BuildingIndex.MAX_RESULTS;
+                String kParam = request.queryParams("k");
+                if (kParam != null) {
+                    try {
+                        k = Integer.parseInt(kParam);
+                    } catch (NumberFormatException e) {
+                        Spark.halt(400, "k must be a number");
+                    }
+                }
+                BuildingIndex index = ModelLoader.model(request).buildings;
+                List<Map<String, String>> results = new ArrayList<>();
+                for (String shortName : index.search(q, k)) {
+                    Map<String, String> building = new LinkedHashMap<>();
+                    building.put("shortName", shortName);
+                    building.put("longName", index.longName(shortName));
+                    results.add(building);
+                }
                 Gson gson = new Gson();
-                return gson.toJson(map.buildingNames());
+                return gson.toJson(results);
             }
         });
 
 
+        // snaps a coordinate to the closest point on the footpath map, with its distance;
+        // with a radius, gives every map point within that distance, closest first
+        Spark.get("/nearest", new Route() {
+            @Override
+            public Object handle(Request request, Response response) throws Exception {
+                double x = coordinate(request, "x");
+                double y = coordinate(request, "y");
+                KdTree<Point> nodes = ModelLoader.model(request).nodes;
+                Gson gson = new Gson();
+                if (request.queryParams("radius") == null) {
+                    Point nearest = nodes.nearest(x, y);
+                    if (nearest == null) {
+                        Spark.halt(404, "the map has no points");
+                    }
+                    return gson.toJson(located(nearest, x, y));
+                }
+                List<Map<String, Double>> found = new ArrayList<>();
+                for (Point p : nodes.withinRadius(x, y, coordinate(request, "radius"))) {
+                    found.add(located(p, x, y));
+                }
+                found.sort(Comparator.comparing(p -> p.get("distance")));
+                return gson.toJson(found);
+            }
+        });
+
 
         // takes 2 buildings as starting and destinations and makes a path between them
-        // then returns it as a JSON string.
+        // then returns it as a JSON string, or in the compact encoding the client accepts.
+        // Instead of buildings, StartX, StartY, DestX and DestY give a route between the
+        // map points closest to those coordinates, such as a phone's location. With a
+        // tolerance, points within that distance of a straighter route are left out. With
+        // alternatives=k, it returns a JSON list of up to k routes that differ from each
+        // other, shortest first. With a profile such as no-stairs or wheelchair, routes
+        // avoid the paths that profile cannot take.
         Spark.get("/draw-path", new Route() {
             @Override
             public Object handle(Request request, Response response) throws Exception {
                 String start = request.queryParams("Start");
                 String dest = request.queryParams("Dest");
-                if(start == null || dest == null) {
+                boolean byName = start != null && dest != null;
+                if(!byName && request.queryParams("StartX") == null) {
                     Spark.halt(400, "must have start and destination");
                 }
-                // path that was found
-                Path<Point> path = new Path<>(new Point(0,0));
+                CampusModel model = ModelLoader.model(request);
+                // the deadline counts from arrival, not from when the search asks for a turn
+                long arrived = ModelLoader.started(request);
+                ModelAPI map = model.map;
+
+                // how many different routes to offer, or 0 for just the shortest in any encoding
+                int alternatives = 0;
+                String alternativesParam = request.queryParams("alternatives");
+                if (alternativesParam != null) {
+                    try {
+                        alternatives = Integer.parseInt(alternativesParam);
+                    } catch (NumberFormatException e) {
+                        Spark.halt(400, "alternatives must be a number");
+                    }
+                    if (alternatives < 1 || alternatives > CampusModel.MAX_ALTERNATIVES) {
+                        Spark.halt(400, "alternatives must be from 1 to "
+                                + CampusModel.MAX_ALTERNATIVES);
+                    }
+                }
+                int k = alternatives;
+
+                // which paths the route may take and what they cost; null for the shortest
+                String profile = request.queryParams("profile");
+                if (profile != null && !model.profiles.hasProfile(profile)) {
+                    Spark.halt(400, "profile must be one of " + model.profiles.profiles());
+                }
+                String routing = profile != null ? profile : ProfileGraph.SHORTEST;
+
+                // the route to search for, and what identifies it among concurrent requests
+                String key;
+                Callable<Path<Point>> search;
+                Callable<List<Path<Point>>> searchAlternatives;
+                // the points the route would join, if known before searching
+                Point startPoint;
+                Point destPoint;
+                if (byName) {
+                    // accept any spelling of a short or long name, not just the exact key
+                    String startName = model.buildings.resolve(start);
+                    String destName = model.buildings.resolve(dest);
+                    String from = startName != null ? startName : start;
+                    String to = destName != null ? destName : dest;
+                    key = from + "\n" + to;
+                    startPoint = model.buildingLocation(from);
+                    destPoint = model.buildingLocation(to);
+                    search = profile == null ? () -> map.findShortestPath(from, to)
+                            : () -> model.findShortestPath(startPoint, destPoint, profile);
+                    searchAlternatives = () -> model.findAlternatives(startPoint, destPoint, k,
+                            routing);
+                } else {
+                    Point from = model.nodes.nearest(coordinate(request, "StartX"),
+                            coordinate(request, "StartY"));
+                    Point to = model.nodes.nearest(coordinate(request, "DestX"),
+                            coordinate(request, "DestY"));
+                    if (from == null || to == null) {
+                        Spark.halt(404, "the map has no points");
+                    }
+                    key = from.getX() + "," + from.getY() + "\n" + to.getX() + "," + to.getY();
+                    // region servers only know the shortest routes
+                    if (profile != null) {
+                        search = () -> model.findShortestPath(from, to, profile);
+                    } else if (regions != null) {
+                        search = () -> regions.findShortestPath(from, to);
+                    } else {
+                        search = () -> model.findShortestPath(from, to);
+                    }
+                    searchAlternatives = () -> model.findAlternatives(from, to, k, routing);
+                    startPoint = from;
+                    destPoint = to;
+                }
+
+                // one-way footpaths leave some pairs with no route at all; those are turned
+                // away before taking a search slot. A profile only blocks paths, so a pair
+                // with no route leaves none for any profile either
+                if (model.isUnreachable(startPoint, destPoint)) {
+                    Spark.halt(400, "no route from start to dest");
+                }
+
+                // JSON unless the client's Accept header asks for a compact encoding, which
+                // only a single route can be written in
+                PathEncoding encoding = alternatives > 0 ? PathEncoding.JSON
+                        : PathEncoding.negotiate(request.headers("Accept"));
+
+                // how far simplifying may move the drawn route; -1 leaves every point in
+                boolean simplify = request.queryParams("tolerance") != null;
+                double tolerance = simplify ? coordinate(request, "tolerance") : -1;
+                if (simplify && tolerance < 0) {
+                    Spark.halt(400, "tolerance must not be negative");
+                }
+
+                Callable<byte[]> work;
+                if (alternatives > 0) {
+                    work = () -> {
+                        List<Path<Point>> found = new ArrayList<>();
+                        for (Path<Point> p : searchAlternatives.call()) {
+                            found.add(PathSimplifier.simplify(p, tolerance));
+                        }
+                        Gson gson = new Gson();
+                        return gson.toJson(found).getBytes(StandardCharsets.UTF_8);
+                    };
+                } else {
+                    work = () -> encoding.encode(PathSimplifier.simplify(search.call(), tolerance));
+                }
+
+                // encoded path that was found; identical requests arriving together share it
+                byte[] path = null;
                 try {
-                    path = map.findShortestPath(start, dest);
+                    path = shared(routes, model.version + "\n" + key + "\n" + encoding + "\n"
+                                    + tolerance + "\n" + alternatives + "\n" + routing,
+                            admission, work, arrived);
                 } catch(IllegalArgumentException e) {
-                    Spark.halt(400, "start and dest must be buildings");
+                    Spark.halt(400, byName ? "start and dest must be buildings"
+                            : "no route between those points");
+                } catch(UncheckedIOException e) {
+                    Spark.halt(503, "region servers are unavailable");
+                } catch(AdmissionController.Overloaded e) {
+                    response.header("Retry-After", String.valueOf(e.retryAfterSeconds));
+                    Spark.halt(503, "server is busy, try again shortly");
                 }
 
-                Gson gson = new Gson();
-                return gson.toJson(path);
+                if (encoding != PathEncoding.JSON) {
+                    response.type(encoding.mediaType);
+                }
+                return path;
             }
         });
+
+        // everything within walking distance budget of a building Start, or of the map point
+        // closest to StartX and StartY, as a JSON object with the "nodes" and "buildings"
+        // reached, each with its "cost", closest first. With boundary=true it also has a
+        // "boundary" polygon: the convex hull of the nodes reached.
+        Spark.get("/reachable", new Route() {
+            @Override
+            public Object handle(Request request, Response response) throws Exception {
+                String start = request.queryParams("Start");
+                if (start == null && request.queryParams("StartX") == null) {
+                    Spark.halt(400, "must have a start");
+                }
+                double budget = coordinate(request, "budget");
+                if (budget < 0) {
+                    Spark.halt(400, "budget must not be negative");
+                }
+                boolean boundary = Boolean.parseBoolean(request.queryParams("boundary"));
+                CampusModel model = ModelLoader.model(request);
+                long arrived = ModelLoader.started(request);
+
+                Point from;
+                if (start != null) {
+                    String name = model.buildings.resolve(start);
+                    from = model.buildingLocation(name != null ? name : start);
+                    if (from == null) {
+                        Spark.halt(400, "Start must be a building");
+                    }
+                } else {
+                    from = model.nodes.nearest(coordinate(request, "StartX"),
+                            coordinate(request, "StartY"));
+                    if (from == null) {
+                        Spark.halt(404, "the map has no points");
+                    }
+                }
+
+                Callable<byte[]> work = () -> {
+                    Map<Point, Double> reached = model.reachable(from, budget);
+                    List<Map<String, Double>> nodes = new ArrayList<>(reached.size());
+                    for (Map.Entry<Point, Double> e : reached.entrySet()) {
+                        Map<String, Double> node = new LinkedHashMap<>();
+                        node.put("x", e.getKey().getX());
+                        node.put("y", e.getKey().getY());
+                        node.put("cost", e.getValue());
+                        nodes.add(node);
+                    }
+                    List<Map<String, Object>> buildings = new ArrayList<>();
+                    for (Map.Entry<String, Double> e : model.buildingsAt(reached).entrySet()) {
+                        Map<String, Object> building = new LinkedHashMap<>();
+                        building.put("shortName", e.getKey());
+                        building.put("longName", model.buildings.longName(e.getKey()));
+                        building.put("cost", e.getValue());
+                        buildings.add(building);
+                    }
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("budget", budget);
+                    result.put("nodes", nodes);
+                    result.put("buildings", buildings);
+                    if (boundary) {
+                        result.put("boundary", ConvexHull.of(reached.keySet()));
+                    }
+                    Gson gson = new Gson();
+                    return gson.toJson(result).getBytes(StandardCharsets.UTF_8);
+                };
+
+                byte[] result = null;
+                try {
+                    result = shared(routes, model.version + "\nreachable\n" + from.getX() + ","
+                                    + from.getY() + "\n" + budget + "\n" + boundary,
+                            admission, work, arrived);
+                } catch(IllegalArgumentException e) {
+                    Spark.halt(400, "start is not on the map");
+                } catch(AdmissionController.Overloaded e) {
+                    response.header("Retry-After", String.valueOf(e.retryAfterSeconds));
+                    Spark.halt(503, "server is busy, try again shortly");
+                }
+                return result;
+            }
+        });
+
+        Spark.awaitInitialization();
+        loader.markListening();
+
+        // a training run for the class data sharing archive: the JVM writes the archive
+        // when it exits, once startup and the warm-up have loaded every class they need
+        if (Boolean.getBoolean("campuspaths.exitWhenReady")) {
+            loader.ready().whenComplete((model, e) -> {
+                Spark.stop();
+                System.exit(e == null ? 0 : 1);
+            });
+        }
+    }
+
+    /**
+     * Runs a request's work through admission control, sharing it with identical requests
+     * already in flight. A request waiting on another's work is refused once its own
+     * deadline passes, just as it would be while queued for a turn.
+     *
+     * @param routes the work currently in flight, by key.
+     * @param key identifies the answer the request wants.
+     * @param admission decides whether the work may run.
+     * @param work computes the answer if no identical request is already doing so.
+     * @param arrived System.nanoTime() when the request arrived.
+     * @return the answer, possibly computed for another request.
+     * @throws AdmissionController.Overloaded if the request could not be answered in time.
+     * @throws Exception anything thrown by the work itself.
+     */
+    private static byte[] shared(SingleFlight<String, byte[]> routes, String key,
+                                 AdmissionController admission, Callable<byte[]> work,
+                                 long arrived) throws Exception {
+        try {
+            return routes.get(key, () -> admission.call(work, arrived),
+                    admission.deadline(arrived));
+        } catch (TimeoutException e) {
+            throw admission.refuse();
+        }
+    }
+
+    /**
+     * Reads a number from a query parameter, halting with 400 if it is missing or not a
+     * finite number.
+     *
+     * @param request the request being handled.
+     * @param name name of the query parameter.
+     * @return the parameter's value.
+     */
+    private static double coordinate(Request request, String name) {
+        String value = request.queryParams(name);
+        double d = Double.NaN;
+        if (value != null) {
+            try {
+                d = Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+        }
+        if (Double.isNaN(d) || Double.isInfinite(d)) {
+            Spark.halt(400, name + " must be a number");
+        }
+        return d;
+    }
+
+    /**
+     * Describes a map point and how far it is from a coordinate.
+     *
+     * @param p the map point.
+     * @param x x coordinate asked about.
+     * @param y y coordinate asked about.
+     * @return a map with the point's "x" and "y" and its "distance" from (x, y).
+     */
+    private static Map<String, Double> located(Point p, double x, double y) {
+        Map<String, Double> m = new LinkedHashMap<>();
+        m.put("x", p.getX());
+        m.put("y", p.getY());
+        m.put("distance", Math.hypot(p.getX() - x, p.getY() - y));
+        return m;
     }
 
 }
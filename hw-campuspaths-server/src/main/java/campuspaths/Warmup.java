@@ -0,0 +1,117 @@
+package campuspaths;
+
+import campuspaths.utils.PathEncoding;
+import campuspaths.utils.PathSimplifier;
+import com.google.gson.Gson;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <b>Warmup</b> runs a synthetic workload over a {@link CampusModel} before the server takes
+ * traffic, so that the classes a request needs are loaded and the JIT has compiled the route
+ * search and serialization code by the time the first real request arrives.
+ *
+ * <p>Each query does what a /draw-path request does without going through HTTP: it finds the
+ * shortest route between two buildings by name or between two map points, simplifies it,
+ * encodes it in every {@link PathEncoding} and as JSON with Gson, and autocompletes a
+ * building name. Queries are drawn from a fixed seed, so every run does the same work.
+ */
+public final class Warmup {
+
+    /**
+     * Seed for choosing the queries.
+     */
+    private static final long SEED = 331;
+
+    /**
+     * Number of queries at each end of the run whose median is reported as the cold and
+     * warm latency.
+     */
+    private static final int SAMPLE = 10;
+
+    private Warmup() {
+    }
+
+    /**
+     * Runs queries against a model.
+     *
+     * @spec.requires model to not be null && queries > 0
+     * @param model the model to warm up on; it is only read.
+     * @param queries number of queries to run.
+     * @return a map with the number of "queries", the total "millis", the "firstMicros" of
+     *         the first query and the "coldMicros" and "warmMicros" medians of the first and
+     *         last few, and a "checksum" of the results that keeps the work from being
+     *         optimized away.
+     */
+    public static Map<String, Object> run(CampusModel model, int queries) {
+        Random random = new Random(SEED);
+        String[] names = model.data.shortNames;
+        List<Point> points = new ArrayList<>(model.graph.getNodes());
+        Gson gson = new Gson();
+        long[] micros = new long[queries];
+        // results are folded in here so the JIT cannot drop the work as unused
+        long sink = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            long begin = System.nanoTime();
+            Path<Point> path = null;
+            try {
+                if (i % 2 == 0 && names.length > 0) {
+                    path = model.map.findShortestPath(names[random.nextInt(names.length)],
+                            names[random.nextInt(names.length)]);
+                } else if (!points.isEmpty()) {
+                    path = model.findShortestPath(points.get(random.nextInt(points.size())),
+                            points.get(random.nextInt(points.size())));
+                }
+            } catch (IllegalArgumentException e) {
+                // some pairs of the campus are not connected
+            }
+            if (path != null) {
+                Path<Point> simplified = PathSimplifier.simplify(path, random.nextInt(3) - 1);
+                for (PathEncoding encoding : PathEncoding.values()) {
+                    sink += encoding.encode(simplified).length;
+                }
+                sink += gson.toJson(path).length();
+            }
+            if (names.length > 0) {
+                String name = names[random.nextInt(names.length)];
+                sink += model.buildings.search(name.substring(0, Math.min(2, name.length())),
+                        5).size();
+            }
+            micros[i] = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin);
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("queries", queries);
+        report.put("millis", millis);
+        report.put("firstMicros", micros[0]);
+        report.put("coldMicros",
+                median(Arrays.copyOfRange(micros, 0, Math.min(SAMPLE, queries))));
+        report.put("warmMicros", median(Arrays.copyOfRange(micros,
+                Math.max(0, queries - SAMPLE), queries)));
+        report.put("checksum", sink);
+        return report;
+    }
+
+    /**
+     * Finds the median of some values, sorting them in place.
+     *
+     * @spec.requires values to not be null or empty
+     * @param values values to take the median of.
+     * @return the middle value, or the upper of the two middle values.
+     */
+    static long median(long[] values) {
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+}
@@ -0,0 +1,199 @@
+package campuspaths.utils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <b>AdmissionController</b> limits how many requests may run a piece of work at the same
+ * time, with a bounded number of requests allowed to wait for a turn.
+ *
+ * <p>Every request has a deadline, counted from when it arrived. A request is turned away
+ * with {@link Overloaded} as soon as the wait queue is full, or when the time it would spend
+ * waiting plus the usual service time would go past its deadline, instead of queueing until
+ * it is too late to be useful.
+ *
+ * <p>Requests are let in first come, first served: a request that arrives while others are
+ * waiting queues behind them, even if a permit has just been given back.
+ */
+public class AdmissionController {
+
+    // Abstraction Function:
+    // "permits" holds one permit for each request that may run right now (at most
+    // maxConcurrent). "waiting" is how many requests are currently queued for a permit.
+    // "avgServiceNanos" is a moving average of how long admitted work takes.
+    //
+    // Representation Invariant:
+    // maxConcurrent > 0 && maxQueue >= 0 && deadlineNanos > 0 &&
+    // 0 <= waiting <= maxQueue (outside of tryAcquire) && avgServiceNanos >= 0
+
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long deadlineNanos;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong avgServiceNanos = new AtomicLong();
+
+    /**
+     * Constructs a controller.
+     *
+     * @spec.requires maxConcurrent > 0 && maxQueue >= 0 && deadlineMillis > 0
+     * @param maxConcurrent how many requests may run the work at the same time.
+     * @param maxQueue how many more requests may wait for a turn.
+     * @param deadlineMillis how long a request may take, waiting included, before it is
+     *                       no longer worth serving.
+     */
+    public AdmissionController(int maxConcurrent, int maxQueue, long deadlineMillis) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        this.permits = new Semaphore(maxConcurrent, true);
+        checkRep();
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (maxConcurrent > 0) : "no permits";
+        assert (maxQueue >= 0) : "negative queue";
+        assert (deadlineNanos > 0) : "non-positive deadline";
+    }
+
+    /**
+     * Runs work for a request arriving now once there is room for it, or refuses it if it
+     * could not finish in time.
+     *
+     * @spec.requires work to not be null
+     * @param work what the request wants to do.
+     * @param <T> type of result the work produces.
+     * @return the result of the work.
+     * @throws Overloaded if the request was turned away without running the work.
+     * @throws Exception anything thrown by the work itself.
+     */
+    public <T> T call(Callable<T> work) throws Exception {
+        return call(work, System.nanoTime());
+    }
+
+    /**
+     * Runs work once there is room for it, or refuses it if it could not finish in time.
+     *
+     * @spec.requires work to not be null
+     * @param work what the request wants to do.
+     * @param arrivedNanos System.nanoTime() when the request arrived; the time it has
+     *                     already spent counts against its deadline.
+     * @param <T> type of result the work produces.
+     * @return the result of the work.
+     * @throws Overloaded if the request was turned away without running the work.
+     * @throws Exception anything thrown by the work itself.
+     */
+    public <T> T call(Callable<T> work, long arrivedNanos) throws Exception {
+        acquire(arrivedNanos);
+        long start = System.nanoTime();
+        try {
+            return work.call();
+        } finally {
+            record(System.nanoTime() - start);
+            permits.release();
+        }
+    }
+
+    /**
+     * Takes a permit, waiting for one only if the wait can still meet the deadline.
+     *
+     * @param arrivedNanos System.nanoTime() when the request arrived.
+     * @throws Overloaded if no permit can be had in time.
+     */
+    private void acquire(long arrivedNanos) throws InterruptedException {
+        // unlike the untimed tryAcquire, the timed one keeps the semaphore's fairness and
+        // fails if anyone is queued, so a newcomer cannot take a permit meant for them
+        if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+            return;
+        }
+        int position = waiting.incrementAndGet();
+        try {
+            if (position > maxQueue) {
+                throw new Overloaded(retryAfterSeconds(position));
+            }
+            long service = avgServiceNanos.get();
+            long expectedWait = ((position + maxConcurrent - 1) / maxConcurrent) * service;
+            long budget = deadlineNanos - (System.nanoTime() - arrivedNanos) - service;
+            if (expectedWait > budget || budget <= 0
+                    || !permits.tryAcquire(budget, TimeUnit.NANOSECONDS)) {
+                throw new Overloaded(retryAfterSeconds(position));
+            }
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Folds a new service time into the moving average.
+     *
+     * @param nanos how long one admitted piece of work took.
+     */
+    private void record(long nanos) {
+        avgServiceNanos.getAndUpdate(avg -> avg == 0 ? nanos : avg + (nanos - avg) / 8);
+    }
+
+    /**
+     * Guesses how long a client should wait before it retries.
+     *
+     * @param position place in the queue the request would have had.
+     * @return whole seconds until the current queue is likely to drain, at least 1.
+     */
+    private long retryAfterSeconds(int position) {
+        long drainNanos = ((long) position * avgServiceNanos.get()) / maxConcurrent;
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(drainNanos) + 1);
+    }
+
+    /**
+     * Gets when a request's deadline runs out.
+     *
+     * @param arrivedNanos System.nanoTime() when the request arrived.
+     * @return System.nanoTime() at which the request is no longer worth serving.
+     */
+    public long deadline(long arrivedNanos) {
+        return arrivedNanos + deadlineNanos;
+    }
+
+    /**
+     * Makes the exception for a request that ran out of time outside the controller, such
+     * as while waiting for another request's identical work.
+     *
+     * @return an Overloaded with a retry time based on the current queue.
+     */
+    public Overloaded refuse() {
+        return new Overloaded(retryAfterSeconds(waiting.get() + 1));
+    }
+
+    /**
+     * Gets how many requests are waiting for a permit.
+     *
+     * @return number of queued requests.
+     */
+    public int queued() {
+        return waiting.get();
+    }
+
+
+    /**
+     * This exception results when a request is turned away to protect the others
+     **/
+    public static class Overloaded extends RuntimeException {
+
+        /**
+         * Seconds the client should wait before retrying.
+         */
+        public final long retryAfterSeconds;
+
+        public Overloaded(long retryAfterSeconds) {
+            super("server is overloaded, retry after " + retryAfterSeconds + "s");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public static final long serialVersionUID = 3496;
+    }
+}
@@ -0,0 +1,337 @@
+package campuspaths.utils;
+
+import graph.MemoryStats;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <b>BuildingIndex</b> is an immutable prefix trie over building short and long names, for
+ * autocomplete and for resolving a name the user typed to a building's short name.
+ *
+ * <p>Names are matched ignoring case, accents, spaces and punctuation, so "kane hall", "KNE"
+ * and "Kane-Hall" all find Kane Hall. A query may also start at any word of a long name, so
+ * "hall" finds every hall.
+ *
+ * <p>The trie is flattened into arrays once at construction, and every node stores its best
+ * {@link #MAX_RESULTS} buildings ahead of time, so a search only walks the query's characters
+ * and copies out the stored results.
+ */
+public class BuildingIndex {
+
+    // Abstraction Function:
+    // building b is named shortNames[b] (long name longNames[b]). Trie node 0 is the root;
+    // node n's children are nodes childStart[n] to childStart[n] + childCount[n] - 1, reached
+    // by the sorted characters label[child]. The normalized text spelled from the root to n
+    // is a prefix of a name or of a word-start suffix of a long name. top[topStart[n]] to
+    // top[topStart[n + 1] - 1] are the best buildings with such a name, best first, and
+    // exact[n] is the building whose whole short or long name is spelled by n, or -1.
+    //
+    // Representation Invariant:
+    // no array is null && shortNames.length == longNames.length &&
+    // childStart, childCount, label and exact have one entry per node &&
+    // topStart has one more entry than there are nodes and never decreases &&
+    // children of each node have strictly increasing labels
+
+    /**
+     * Most results a search returns, and how many are stored at each node.
+     */
+    public static final int MAX_RESULTS = 10;
+
+    private final String[] shortNames;
+    private final String[] longNames;
+
+    private final int[] childStart;
+    private final int[] childCount;
+    private final char[] label;
+    private final int[] exact;
+    private final int[] topStart;
+    private final int[] top;
+
+    /**
+     * Builds the index.
+     *
+     * @spec.requires buildings and its keys and values to not be null
+     * @param buildings map from each building's short name to its long name.
+     */
+    public BuildingIndex(Map<String, String> buildings) {
+        int count = buildings.size();
+        shortNames = new String[count];
+        longNames = new String[count];
+        // sorted by short name so that ties in rank are broken the same way every time
+        int b = 0;
+        for (Map.Entry<String, String> e : new TreeMap<>(buildings).entrySet()) {
+            shortNames[b] = e.getKey();
+            longNames[b] = e.getValue();
+            b++;
+        }
+
+        Builder root = new Builder();
+        for (b = 0; b < count; b++) {
+            String shortName = normalize(shortNames[b]);
+            insert(root, shortName, b, 0, shortName.length());
+            String longName = normalize(longNames[b]);
+            insert(root, longName, b, 0, longName.length());
+            // every later word of the long name is a place a query may start
+            for (int start : wordStarts(longNames[b])) {
+                insert(root, longName.substring(start), b, 1, longName.length());
+            }
+        }
+
+        // flatten breadth first, so each node's children sit next to each other
+        List<Builder> order = new ArrayList<>();
+        order.add(root);
+        for (int i = 0; i < order.size(); i++) {
+            order.get(i).index = i;
+            order.addAll(order.get(i).children.values());
+        }
+        int nodes = order.size();
+        childStart = new int[nodes];
+        childCount = new int[nodes];
+        label = new char[nodes];
+        exact = new int[nodes];
+        topStart = new int[nodes + 1];
+        int results = 0;
+        for (Builder n : order) {
+            results += Math.min(MAX_RESULTS, n.candidates.size());
+        }
+        top = new int[results];
+        for (Builder n : order) {
+            int i = n.index;
+            label[i] = n.label;
+            exact[i] = n.exact;
+            childCount[i] = n.children.size();
+            childStart[i] = n.children.isEmpty() ? 0 : n.children.firstEntry().getValue().index;
+            n.candidates.sort(Comparator.comparingLong(c -> c[1]));
+            int k = Math.min(MAX_RESULTS, n.candidates.size());
+            topStart[i + 1] = topStart[i] + k;
+            for (int j = 0; j < k; j++) {
+                top[topStart[i] + j] = (int) n.candidates.get(j)[0];
+            }
+        }
+        checkRep();
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (shortNames.length == longNames.length) : "name arrays differ in length";
+        assert (childStart.length == label.length && childCount.length == label.length
+                && exact.length == label.length) : "node arrays differ in length";
+        assert (topStart.length == label.length + 1) : "wrong number of result offsets";
+    }
+
+    /**
+     * Finds the best buildings whose short name, long name, or a word of the long name starts
+     * with the query. Buildings whose name starts with the query rank before those matched by
+     * a later word, then shorter names rank first, then short names in order.
+     *
+     * @spec.requires query to not be null
+     * @param query text typed so far; matched ignoring case, accents and punctuation.
+     * @param k most results wanted.
+     * @return the short names of up to min(k, MAX_RESULTS) matching buildings, best first.
+     */
+    public List<String> search(String query, int k) {
+        int node = find(normalize(query));
+        if (node < 0 || k <= 0) {
+            return Collections.emptyList();
+        }
+        int n = Math.min(k, topStart[node + 1] - topStart[node]);
+        String[] results = new String[n];
+        for (int i = 0; i < n; i++) {
+            results[i] = shortNames[top[topStart[node] + i]];
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Finds the building a name refers to, ignoring case, accents and punctuation.
+     *
+     * @spec.requires name to not be null
+     * @param name a building's short or long name, as the user may have typed it.
+     * @return that building's short name, or null if no building has that name.
+     */
+    public String resolve(String name) {
+        int node = find(normalize(name));
+        if (node < 0 || exact[node] < 0) {
+            return null;
+        }
+        return shortNames[exact[node]];
+    }
+
+    /**
+     * Gets the long name of a building.
+     *
+     * @spec.requires shortName to not be null
+     * @param shortName the building's short name, exactly as it is keyed.
+     * @return the building's long name, or null if there is no such building.
+     */
+    public String longName(String shortName) {
+        int b = Arrays.binarySearch(shortNames, shortName);
+        return b < 0 ? null : longNames[b];
+    }
+
+    /**
+     * Gets the number of trie nodes, a measure of the index's size.
+     *
+     * @return number of nodes including the root.
+     */
+    public int nodeCount() {
+        return label.length;
+    }
+
+    /**
+     * Estimates how much heap the index takes, as {@link MemoryStats} estimates a graph, not
+     * counting the names themselves, which belong to the map.
+     *
+     * @return the estimated bytes of the index's arrays.
+     */
+    public long memoryBytes() {
+        return MemoryStats.objectBytes(this) + 2 * MemoryStats.arrayBytes(shortNames.length, 4)
+                + 3 * MemoryStats.arrayBytes(label.length, 4)
+                + MemoryStats.arrayBytes(label.length, 2)
+                + MemoryStats.arrayBytes(topStart.length, 4)
+                + MemoryStats.arrayBytes(top.length, 4);
+    }
+
+    /**
+     * Reduces a name to the characters that matter for matching: letters and digits, in
+     * lower case and without accents.
+     *
+     * @spec.requires s to not be null
+     * @param s text to normalize.
+     * @return the normalized text.
+     */
+    public static String normalize(String s) {
+        String decomposed = Normalizer.normalize(s, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Walks the trie along a normalized key.
+     *
+     * @return the node the key leads to, or -1 if it leaves the trie.
+     */
+    private int find(String key) {
+        int node = 0;
+        for (int i = 0; i < key.length() && node >= 0; i++) {
+            node = child(node, key.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Binary searches a node's sorted children for a character.
+     *
+     * @return the child reached by c, or -1 if there is none.
+     */
+    private int child(int node, char c) {
+        int lo = childStart[node];
+        int hi = lo + childCount[node] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (label[mid] < c) {
+                lo = mid + 1;
+            } else if (label[mid] > c) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds where each word after the first starts in the normalized form of a name.
+     *
+     * @return offsets into normalize(name) of the second and later words.
+     */
+    private static List<Integer> wordStarts(String name) {
+        List<Integer> starts = new ArrayList<>();
+        int normalized = 0;
+        boolean inWord = false;
+        for (String word : name.split("[^\\p{L}\\p{N}]+")) {
+            int length = normalize(word).length();
+            if (length > 0) {
+                if (inWord) {
+                    starts.add(normalized);
+                }
+                inWord = true;
+                normalized += length;
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * Adds a normalized name for a building along its path from the root, offering the
+     * building as a result at every node on the way.
+     *
+     * @param penalty 0 if key is the start of a name, 1 if it starts at a later word.
+     * @param nameLength length of the whole normalized name key comes from.
+     */
+    private static void insert(Builder root, String key, int building, int penalty,
+                               int nameLength) {
+        // rank by penalty, then by the length of the name, then by building
+        long rank = ((long) penalty << 48) | ((long) nameLength << 24) | building;
+        Builder node = root;
+        node.offer(building, rank);
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            Builder next = node.children.get(c);
+            if (next == null) {
+                next = new Builder();
+                next.label = c;
+                node.children.put(c, next);
+            }
+            node = next;
+            node.offer(building, rank);
+        }
+        if (penalty == 0 && node.exact < 0) {
+            node.exact = building;
+        }
+    }
+
+    /**
+     * A trie node while the index is being built.
+     */
+    private static class Builder {
+        final TreeMap<Character, Builder> children = new TreeMap<>();
+        /**
+         * {building, rank} for each building offered here, at its best rank.
+         */
+        final List<long[]> candidates = new ArrayList<>();
+        char label;
+        int exact = -1;
+        int index;
+
+        /**
+         * Offers a building at a rank. All names of one building are inserted before the
+         * next building's, so it can only already be here as the last candidate.
+         */
+        void offer(int building, long rank) {
+            if (!candidates.isEmpty()) {
+                long[] last = candidates.get(candidates.size() - 1);
+                if (last[0] == building) {
+                    last[1] = Math.min(last[1], rank);
+                    return;
+                }
+            }
+            candidates.add(new long[] {building, rank});
+        }
+    }
+}
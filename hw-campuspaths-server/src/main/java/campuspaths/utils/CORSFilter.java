@@ -18,19 +18,23 @@ import spark.Request;
 import spark.Response;
 import spark.Spark;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 // Based on code from
 // https://stackoverflow.com/questions/45295530/spark-cors-access-control-allow-origin-error
 
 /**
- * The CORSFilter disables browser-side Cross-Origin Request security features,
+ * The CORSFilter relaxes browser-side Cross-Origin Request security features,
  * to allow the React application (with origin localhost:3000) to make requests
  * of the Spark server (with origin localhost:4567) without them being rejected.
  * <p>
- * Note that this is generally a security vulnerability for production applications
- * (see "Cross-Site Scripting" or "XSS"), but it isn't a problem for our specific
- * application.
+ * Only the configured origins are let through. Allowing every origin ("*") is
+ * generally a security vulnerability for production applications (see
+ * "Cross-Site Scripting" or "XSS"), so it has to be asked for explicitly, and
+ * then only requests without credentials are allowed from origins not listed.
  */
 public class CORSFilter {
 
@@ -41,37 +45,122 @@ public class CORSFilter {
     // ===============
 
     /**
-     * Contains all the headers that need to be added
+     * How long, in seconds, a browser may cache a preflight answer (Chrome caps this at 2 hours).
      */
-    private final HashMap<String, String> corsHeaders = new HashMap<>();
+    private static final int DEFAULT_MAX_AGE_SECONDS = 7200;
+
+    /**
+     * Headers added to every response to an allowed origin, as {name, value} pairs, built
+     * once so the filter does not walk a map on every request.
+     */
+    private final String[][] corsHeaders;
+
+    /**
+     * Origins allowed to make requests, or a set containing "*" to allow any origin.
+     */
+    private final Set<String> allowedOrigins;
+
+    /**
+     * Whether the headers sent depend on the request's Origin, which is so unless "*" is
+     * the only origin allowed.
+     */
+    private final boolean varyByOrigin;
+
+    /**
+     * Value of the Access-Control-Max-Age header sent with preflight answers.
+     */
+    private final String maxAge;
+
+    /**
+     * Prepares the filter with the origins listed in the "campuspaths.cors.origins" system
+     * property (comma separated, "http://localhost:3000" if unset) and the preflight cache
+     * time in "campuspaths.cors.maxAge" (seconds).
+     */
+    public CORSFilter() {
+        this(new HashSet<>(Arrays.asList(
+                System.getProperty("campuspaths.cors.origins", "http://localhost:3000").split(","))),
+                Integer.getInteger("campuspaths.cors.maxAge", DEFAULT_MAX_AGE_SECONDS));
+    }
 
     /**
      * Prepares the filter to be applied to the Spark system by initialized the headers
      * that need to be used.
+     *
+     * @spec.requires allowedOrigins to not be null and maxAgeSeconds >= 0
+     * @param allowedOrigins origins that may make requests, or {"*"} for any origin.
+     * @param maxAgeSeconds how long browsers may cache a preflight answer.
      */
-    public CORSFilter() {
-        corsHeaders.put("Access-Control-Allow-Methods", "GET,PUT,POST,DELETE,OPTIONS");
-        corsHeaders.put("Access-Control-Allow-Origin", "*");
-        corsHeaders.put("Access-Control-Allow-Headers",
-                "Content-Type,Authorization,X-Requested-With,Content-Length,Accept,Origin,");
-        corsHeaders.put("Access-Control-Allow-Credentials", "true");
+    public CORSFilter(Set<String> allowedOrigins, int maxAgeSeconds) {
+        this.allowedOrigins = new HashSet<>();
+        for (String origin : allowedOrigins) {
+            this.allowedOrigins.add(origin.trim());
+        }
+        this.varyByOrigin = !this.allowedOrigins.equals(Collections.singleton("*"));
+        this.maxAge = Integer.toString(maxAgeSeconds);
+        this.corsHeaders = new String[][] {
+                {"Access-Control-Allow-Methods", "GET,PUT,POST,DELETE,OPTIONS"},
+                {"Access-Control-Allow-Headers",
+                        "Content-Type,Authorization,X-Requested-With,Content-Length,Accept,Origin,"},
+        };
     }
 
     /**
      * Applies the filter globally to all Spark responses. Anytime this Spark server responds
-     * to a request following the invocation of this method, completely-permissive CORS headers
-     * will be added to the response headers.
+     * to a request following the invocation of this method, CORS headers for the allowed
+     * origins will be added to the response headers. Preflight (OPTIONS) requests are answered
+     * right away with a cacheable max-age, without reaching any route.
      */
     public void apply() {
+        Filter preflight = new Filter() {
+            @Override
+            public void handle(Request request, Response response) {
+                if ("OPTIONS".equals(request.requestMethod())) {
+                    addHeaders(request, response);
+                    response.header("Access-Control-Max-Age", maxAge);
+                    Spark.halt(204);
+                }
+            }
+        };
         Filter filter = new Filter() {
             @Override
             public void handle(Request request, Response response) {
-                corsHeaders.forEach(response::header);
+                // preflight answers already have their headers
+                if (!"OPTIONS".equals(request.requestMethod())) {
+                    addHeaders(request, response);
+                }
             }
         };
+        Spark.before(preflight);
         Spark.afterAfter(filter); // Applies this filter even if there's a halt() or exception.
         //
         Logger logger = LoggerFactory.getLogger("CampusPaths Server");
         logger.info("Listening on: http://localhost:" + Spark.port());
     }
+
+    /**
+     * Adds the CORS headers to a response if the request comes from an allowed origin. A
+     * listed origin is named back and may send credentials; any other origin allowed by
+     * "*" is answered with "*", which browsers never combine with credentials.
+     *
+     * @param request the request being answered.
+     * @param response the response getting the headers.
+     */
+    private void addHeaders(Request request, Response response) {
+        // caches must not give one origin's answer, allowed or not, to another origin
+        if (varyByOrigin) {
+            response.header("Vary", "Origin");
+        }
+        String origin = request.headers("Origin");
+        if (origin != null && allowedOrigins.contains(origin)) {
+            response.header("Access-Control-Allow-Origin", origin);
+            response.header("Access-Control-Allow-Credentials", "true");
+        } else if (allowedOrigins.contains("*")) {
+            response.header("Access-Control-Allow-Origin", "*");
+        } else {
+            return;
+        }
+        for (String[] header : corsHeaders) {
+            response.header(header[0], header[1]);
+        }
+    }
 }
@@ -0,0 +1,179 @@
+package campuspaths.utils;
+
+import pathfinder.datastructures.Point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <b>ConvexHull</b> finds the smallest convex polygon around a set of map points, as a simple
+ * outline of an area such as everything reachable from a building.
+ *
+ * <p>The hull is found with Andrew's monotone chain algorithm in O(n log n) time: the points
+ * are sorted by x and then y, and the lower and upper halves of the hull are built in one
+ * pass each, dropping any point that would make a turn the wrong way. Points on a straight
+ * edge of the hull are left out, so the polygon has as few corners as it can.
+ *
+ * <p>Sorting is most of the work, so for larger inputs the points strictly inside the polygon
+ * of the extreme points in eight directions are dropped first (the Akl-Toussaint
+ * heuristic). For the points reached from a start, which fill an area, that leaves few.
+ */
+public final class ConvexHull {
+
+    /**
+     * Fewest points for which the points inside the extreme points are dropped before
+     * sorting.
+     */
+    private static final int FILTER_MIN = 64;
+
+    private ConvexHull() {
+    }
+
+    /**
+     * Finds the convex hull of some points.
+     *
+     * @spec.requires points to not be null or hold null
+     * @param points points to enclose; duplicates are allowed.
+     * @return the corners of the hull in order around it, each once, starting from the point
+     *         with the least x (and least y among those); fewer than 3 points if every point
+     *         lies on one line, and an empty list if there are no points.
+     */
+    public static List<Point> of(Collection<Point> points) {
+        Point[] all = points.toArray(new Point[0]);
+        if (all.length < FILTER_MIN) {
+            return hull(all);
+        }
+        List<Point> inner = hull(extremes(all));
+        if (inner.size() < 3) {
+            return hull(all);
+        }
+        int kept = 0;
+        for (Point p : all) {
+            if (!inside(inner, p)) {
+                all[kept++] = p;
+            }
+        }
+        return hull(Arrays.copyOf(all, kept));
+    }
+
+    /**
+     * Finds the points furthest out in eight directions: least and greatest x, y, x + y
+     * and x - y.
+     *
+     * @spec.requires points to not be empty
+     * @param points points to look through.
+     * @return the eight extreme points, possibly repeated.
+     */
+    private static Point[] extremes(Point[] points) {
+        Point[] found = new Point[8];
+        Arrays.fill(found, points[0]);
+        for (Point p : points) {
+            double x = p.getX();
+            double y = p.getY();
+            if (x < found[0].getX()) {
+                found[0] = p;
+            }
+            if (x > found[1].getX()) {
+                found[1] = p;
+            }
+            if (y < found[2].getY()) {
+                found[2] = p;
+            }
+            if (y > found[3].getY()) {
+                found[3] = p;
+            }
+            if (x + y < found[4].getX() + found[4].getY()) {
+                found[4] = p;
+            }
+            if (x + y > found[5].getX() + found[5].getY()) {
+                found[5] = p;
+            }
+            if (x - y < found[6].getX() - found[6].getY()) {
+                found[6] = p;
+            }
+            if (x - y > found[7].getX() - found[7].getY()) {
+                found[7] = p;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Asks whether a point is strictly inside a convex polygon, so it cannot be a corner of
+     * a hull around the polygon's corners.
+     *
+     * @param polygon corners of a convex polygon in the order hull() gives them.
+     * @param p the point.
+     * @return whether p is inside polygon and not on its boundary.
+     */
+    private static boolean inside(List<Point> polygon, Point p) {
+        for (int i = 0; i < polygon.size(); i++) {
+            if (cross(polygon.get(i), polygon.get((i + 1) % polygon.size()), p) <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the convex hull of some points with the monotone chain.
+     *
+     * @param sorted the points; they are sorted in place.
+     * @return the corners of the hull, as of() gives them.
+     */
+    private static List<Point> hull(Point[] sorted) {
+        Arrays.sort(sorted, Comparator.comparingDouble(Point::getX)
+                .thenComparingDouble(Point::getY));
+        int n = sorted.length;
+        if (n < 3) {
+            return distinctEnds(new ArrayList<>(Arrays.asList(sorted)));
+        }
+        // the lower half left to right, then the upper half right to left; hull[0] is also
+        // the last point of the upper half, so it is dropped at the end
+        Point[] hull = new Point[2 * n];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            while (size >= 2 && cross(hull[size - 2], hull[size - 1], sorted[i]) <= 0) {
+                size--;
+            }
+            hull[size++] = sorted[i];
+        }
+        int lower = size + 1;
+        for (int i = n - 2; i >= 0; i--) {
+            while (size >= lower && cross(hull[size - 2], hull[size - 1], sorted[i]) <= 0) {
+                size--;
+            }
+            hull[size++] = sorted[i];
+        }
+        return distinctEnds(new ArrayList<>(Arrays.asList(hull).subList(0,
+                Math.max(1, size - 1))));
+    }
+
+    /**
+     * Makes a hull of two equal points, which is all that is left when every point is the
+     * same, a hull of that one point.
+     *
+     * @param hull corners of a hull; it is changed.
+     * @return hull.
+     */
+    private static List<Point> distinctEnds(List<Point> hull) {
+        if (hull.size() == 2 && hull.get(0).equals(hull.get(1))) {
+            hull.remove(1);
+        }
+        return hull;
+    }
+
+    /**
+     * Measures which way a path turns.
+     *
+     * @return the cross product of a->b and a->c: positive if a, b, c turn one way, negative
+     *         if they turn the other way, and 0 if they lie on one line.
+     */
+    private static double cross(Point a, Point b, Point c) {
+        return (b.getX() - a.getX()) * (c.getY() - a.getY())
+                - (b.getY() - a.getY()) * (c.getX() - a.getX());
+    }
+}
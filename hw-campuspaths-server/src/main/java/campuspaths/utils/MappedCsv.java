@@ -0,0 +1,398 @@
+package campuspaths.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * <b>MappedCsv</b> reads a comma separated file with a header line into columns, in parallel.
+ *
+ * <p>The file is memory-mapped in chunks that start and end on line boundaries, and each
+ * chunk is parsed on its own task. Number columns are parsed straight from the mapped bytes
+ * into primitive arrays, without making a String or a boxed value per field. The chunks'
+ * columns are then joined back together in file order.
+ *
+ * <p>Column types are given as a string with one character per column: 'S' for text and
+ * 'D' for a number. Blank lines are skipped and lines may end in "\n" or "\r\n". Fields
+ * cannot contain commas.
+ */
+public final class MappedCsv {
+
+    /**
+     * Chunks smaller than this are not worth a task of their own.
+     */
+    private static final long MIN_CHUNK_BYTES = 1 << 16;
+
+    /**
+     * Chunks are kept well under the 2GB limit of a single mapping.
+     */
+    private static final long MAX_CHUNK_BYTES = 1 << 30;
+
+    /**
+     * Largest mantissa the fast number parser handles exactly (2^53).
+     */
+    private static final long MAX_EXACT = 1L << 53;
+
+    /**
+     * Exact powers of ten a double can hold.
+     */
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private MappedCsv() {
+    }
+
+    /**
+     * Reads a file, picking the number of chunks from its size and the available processors.
+     *
+     * @spec.requires file, types and executor to not be null
+     * @param file the file to read.
+     * @param types one 'S' or 'D' per column.
+     * @param executor parses the chunks.
+     * @return a future for the file's columns.
+     * @see #read(Path, String, int, Executor)
+     */
+    public static CompletableFuture<Table> read(Path file, String types, Executor executor) {
+        long size = file.toFile().length();
+        long chunks = Math.max(1, Math.min(4L * Runtime.getRuntime().availableProcessors(),
+                size / MIN_CHUNK_BYTES));
+        chunks = Math.max(chunks, size / MAX_CHUNK_BYTES + 1);
+        return read(file, types, (int) chunks, executor);
+    }
+
+    /**
+     * Reads a file into columns, splitting it into about the given number of chunks. The file
+     * is opened, and the chunk boundaries found, before this returns; parsing happens on the
+     * executor.
+     *
+     * @spec.requires file, types and executor to not be null && chunks > 0
+     * @param file the file to read.
+     * @param types one 'S' or 'D' per column.
+     * @param chunks how many pieces to parse in parallel.
+     * @param executor parses the chunks.
+     * @return a future for the file's columns, which completes exceptionally with an
+     *         UncheckedIOException if the file cannot be read or an IllegalArgumentException
+     *         if a line does not match the column types.
+     */
+    public static CompletableFuture<Table> read(Path file, String types, int chunks,
+                                                Executor executor) {
+        FileChannel channel;
+        long[] bounds;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new UncheckedIOException(e));
+        }
+        try {
+            bounds = lineBounds(channel, chunks);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            return CompletableFuture.failedFuture(new UncheckedIOException(e));
+        }
+
+        List<CompletableFuture<Table>> parts = new ArrayList<>();
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            long start = bounds[i];
+            long end = bounds[i + 1];
+            parts.add(CompletableFuture.supplyAsync(() -> parseChunk(channel, start, end, types),
+                    executor));
+        }
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((done, e) -> closeQuietly(channel))
+                .thenApply(done -> {
+                    List<Table> tables = new ArrayList<>();
+                    for (CompletableFuture<Table> part : parts) {
+                        tables.add(part.join());
+                    }
+                    return Table.concat(types, tables);
+                });
+    }
+
+    /**
+     * Splits the file after its header line into ranges that start at the beginning of a
+     * line and end just after a line break (or at the end of the file).
+     *
+     * @param channel the open file.
+     * @param chunks how many ranges to aim for.
+     * @return increasing offsets; range i is [bounds[i], bounds[i + 1]).
+     * @throws IOException if the file cannot be read.
+     */
+    private static long[] lineBounds(FileChannel channel, int chunks) throws IOException {
+        long size = channel.size();
+        long first = nextLineStart(channel, 0);
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(first);
+        for (int i = 1; i < chunks; i++) {
+            long guess = first + (size - first) * i / chunks;
+            long bound = nextLineStart(channel, Math.max(guess, bounds.get(bounds.size() - 1)));
+            if (bound > bounds.get(bounds.size() - 1) && bound < size) {
+                bounds.add(bound);
+            }
+        }
+        bounds.add(size);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Finds where the line after a position starts.
+     *
+     * @param channel the open file.
+     * @param position where to start looking.
+     * @return offset just after the first line break at or after position, or the file size
+     *         if there is none.
+     * @throws IOException if the file cannot be read.
+     */
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(4096);
+        long pos = position;
+        while (true) {
+            window.clear();
+            int n = channel.read(window, pos);
+            if (n <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < n; i++) {
+                if (window.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += n;
+        }
+    }
+
+    /**
+     * Parses the lines in one range of the file.
+     *
+     * @param channel the open file.
+     * @param start offset of the first line in the range.
+     * @param end offset just past the last line in the range.
+     * @param types one 'S' or 'D' per column.
+     * @return the columns of the lines in the range.
+     */
+    private static Table parseChunk(FileChannel channel, long start, long end, String types) {
+        MappedByteBuffer buf;
+        try {
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int columns = types.length();
+        Table table = new Table(types, (int) Math.max(16, (end - start) / 32));
+        int limit = buf.limit();
+        int pos = 0;
+        while (pos < limit) {
+            int lineEnd = pos;
+            while (lineEnd < limit && buf.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = lineEnd;
+            if (contentEnd > pos && buf.get(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+            if (contentEnd > pos) {
+                int field = pos;
+                for (int c = 0; c < columns; c++) {
+                    int fieldEnd = field;
+                    while (fieldEnd < contentEnd && buf.get(fieldEnd) != ',') {
+                        fieldEnd++;
+                    }
+                    if (fieldEnd == contentEnd && c != columns - 1) {
+                        throw new IllegalArgumentException("expected " + columns
+                                + " fields in line at byte " + (start + pos));
+                    }
+                    if (types.charAt(c) == 'D') {
+                        table.doubles[c][table.rows] = parseDouble(buf, field, fieldEnd);
+                    } else {
+                        table.strings[c][table.rows] = text(buf, field, fieldEnd,
+                                StandardCharsets.UTF_8);
+                    }
+                    field = fieldEnd + 1;
+                }
+                table.rows++;
+                table.ensureCapacity(table.rows + 1);
+            }
+            pos = lineEnd + 1;
+        }
+        return table;
+    }
+
+    /**
+     * Parses a decimal number from bytes. Plain decimals whose digits, read as one integer
+     * with the point dropped, stay below 2^53 and that have at most 22 digits after the point
+     * are handled directly and give exactly what Double.parseDouble would; anything else
+     * falls back to Double.parseDouble.
+     *
+     * @param buf holds the number.
+     * @param start offset of the first byte of the number.
+     * @param end offset just past the number.
+     * @return the parsed number.
+     * @throws IllegalArgumentException if the bytes are not a number.
+     */
+    static double parseDouble(ByteBuffer buf, int start, int end) {
+        int i = start;
+        while (i < end && buf.get(i) == ' ') {
+            i++;
+        }
+        int last = end;
+        while (last > i && buf.get(last - 1) == ' ') {
+            last--;
+        }
+        boolean negative = false;
+        if (i < last && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int fractionDigits = 0;
+        boolean seenDot = false;
+        boolean digits = false;
+        for (; i < last; i++) {
+            byte b = buf.get(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits = true;
+                if (seenDot) {
+                    fractionDigits++;
+                }
+                if (mantissa >= MAX_EXACT) {
+                    return slowParse(buf, start, end);
+                }
+            } else if (b == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                return slowParse(buf, start, end);
+            }
+        }
+        if (!digits || fractionDigits >= POWERS_OF_TEN.length) {
+            return slowParse(buf, start, end);
+        }
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a number the slow way, for forms the fast parser does not handle.
+     */
+    private static double slowParse(ByteBuffer buf, int start, int end) {
+        String text = text(buf, start, end, StandardCharsets.US_ASCII).trim();
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("not a number: " + text, e);
+        }
+    }
+
+    /**
+     * Decodes a range of bytes into a String.
+     */
+    private static String text(ByteBuffer buf, int start, int end, Charset charset) {
+        byte[] bytes = new byte[end - start];
+        ByteBuffer range = buf.duplicate();
+        range.position(start);
+        range.get(bytes);
+        return new String(bytes, charset);
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nothing else is read from it
+        }
+    }
+
+
+    /**
+     * <b>Table</b> is the columns read from a file. Column c holds its values in
+     * doubles[c] if its type is 'D' and in strings[c] if it is 'S'; only the first
+     * rows entries of each are filled in.
+     */
+    public static class Table {
+
+        /**
+         * Number of lines read.
+         */
+        public int rows;
+
+        /**
+         * Number columns, null for text columns.
+         */
+        public double[][] doubles;
+
+        /**
+         * Text columns, null for number columns.
+         */
+        public String[][] strings;
+
+        private final String types;
+
+        private Table(String types, int capacity) {
+            this.types = types;
+            this.doubles = new double[types.length()][];
+            this.strings = new String[types.length()][];
+            for (int c = 0; c < types.length(); c++) {
+                if (types.charAt(c) == 'D') {
+                    doubles[c] = new double[capacity];
+                } else {
+                    strings[c] = new String[capacity];
+                }
+            }
+        }
+
+        /**
+         * Grows every column to hold at least a number of rows.
+         */
+        private void ensureCapacity(int capacity) {
+            for (int c = 0; c < types.length(); c++) {
+                if (doubles[c] != null && doubles[c].length < capacity) {
+                    doubles[c] = Arrays.copyOf(doubles[c], 2 * capacity);
+                } else if (strings[c] != null && strings[c].length < capacity) {
+                    strings[c] = Arrays.copyOf(strings[c], 2 * capacity);
+                }
+            }
+        }
+
+        /**
+         * Joins tables end to end into one with arrays sized exactly to its rows.
+         */
+        private static Table concat(String types, List<Table> tables) {
+            int total = 0;
+            for (Table t : tables) {
+                total += t.rows;
+            }
+            Table all = new Table(types, total);
+            for (Table t : tables) {
+                for (int c = 0; c < types.length(); c++) {
+                    if (all.doubles[c] != null) {
+                        System.arraycopy(t.doubles[c], 0, all.doubles[c], all.rows, t.rows);
+                    } else {
+                        System.arraycopy(t.strings[c], 0, all.strings[c], all.rows, t.rows);
+                    }
+                }
+                all.rows += t.rows;
+            }
+            return all;
+        }
+    }
+}
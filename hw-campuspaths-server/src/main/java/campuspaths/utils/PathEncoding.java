@@ -0,0 +1,146 @@
+package campuspaths.utils;
+
+import com.google.gson.Gson;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <b>PathEncoding</b> is a way of writing a {@code Path<Point>} into a response body.
+ *
+ * <p>JSON is the default and is what the React client reads. The compact encodings are for
+ * clients that ask for them in their Accept header:
+ * <ul>
+ *     <li>{@link #POLYLINE} - text, the total cost followed by the path's points, each value
+ *     scaled by {@value #POLYLINE_SCALE}, delta encoded against the previous point and written
+ *     as zig-zag varints in printable ASCII (the Google polyline scheme).</li>
+ *     <li>{@link #BINARY} - big-endian fixed layout: int32 segment count, float64 total cost,
+ *     float32 start x and y, then per segment float32 end x, end y and segment cost.</li>
+ * </ul>
+ */
+public enum PathEncoding {
+
+    JSON("application/json") {
+        @Override
+        public byte[] encode(Path<Point> path) {
+            return GSON.toJson(path).getBytes(StandardCharsets.UTF_8);
+        }
+    },
+
+    POLYLINE("application/vnd.campuspaths.polyline") {
+        @Override
+        public byte[] encode(Path<Point> path) {
+            StringBuilder sb = new StringBuilder();
+            appendValue(sb, scaled(path.getCost()));
+            long x = scaled(path.getStart().getX());
+            long y = scaled(path.getStart().getY());
+            appendValue(sb, x);
+            appendValue(sb, y);
+            for (Path<Point>.Segment segment : path) {
+                long nextX = scaled(segment.getEnd().getX());
+                long nextY = scaled(segment.getEnd().getY());
+                appendValue(sb, nextX - x);
+                appendValue(sb, nextY - y);
+                x = nextX;
+                y = nextY;
+            }
+            return sb.toString().getBytes(StandardCharsets.US_ASCII);
+        }
+    },
+
+    BINARY("application/vnd.campuspaths.path+binary") {
+        @Override
+        public byte[] encode(Path<Point> path) {
+            int segments = 0;
+            for (Path<Point>.Segment ignored : path) {
+                segments++;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(4 + 8 + 8 + 12 * segments);
+            buffer.putInt(segments);
+            buffer.putDouble(path.getCost());
+            buffer.putFloat((float) path.getStart().getX());
+            buffer.putFloat((float) path.getStart().getY());
+            for (Path<Point>.Segment segment : path) {
+                buffer.putFloat((float) segment.getEnd().getX());
+                buffer.putFloat((float) segment.getEnd().getY());
+                buffer.putFloat((float) segment.getCost());
+            }
+            return buffer.array();
+        }
+    };
+
+    /**
+     * Polyline values are rounded to this many steps per coordinate unit.
+     */
+    public static final int POLYLINE_SCALE = 1000;
+
+    private static final Gson GSON = new Gson();
+
+    /**
+     * Media type used in Accept and Content-Type headers for this encoding.
+     */
+    public final String mediaType;
+
+    PathEncoding(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Writes a path in this encoding.
+     *
+     * @spec.requires path to not be null
+     * @param path the path to encode.
+     * @return the encoded bytes of the path.
+     */
+    public abstract byte[] encode(Path<Point> path);
+
+    /**
+     * Picks the encoding a client asked for, going through its Accept header in order.
+     * Parameters such as q-values are ignored.
+     *
+     * @param accept the Accept header of the request, may be null.
+     * @return the first supported encoding listed, or JSON if none is listed.
+     */
+    public static PathEncoding negotiate(String accept) {
+        if (accept == null) {
+            return JSON;
+        }
+        for (String range : accept.split(",")) {
+            int params = range.indexOf(';');
+            String type = (params == -1 ? range : range.substring(0, params)).trim();
+            for (PathEncoding encoding : values()) {
+                if (encoding.mediaType.equalsIgnoreCase(type)) {
+                    return encoding;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * Rounds a value to polyline precision.
+     *
+     * @param value the value to round.
+     * @return value in units of 1/POLYLINE_SCALE.
+     */
+    private static long scaled(double value) {
+        return Math.round(value * POLYLINE_SCALE);
+    }
+
+    /**
+     * Appends one signed value as a zig-zag varint of 5-bit printable chunks.
+     *
+     * @param sb where the chunks are written.
+     * @param value the value to write.
+     */
+    private static void appendValue(StringBuilder sb, long value) {
+        long v = (value << 1) ^ (value >> 63);
+        while (v >= 0x20) {
+            sb.append((char) ((0x20 | (v & 0x1f)) + 63));
+            v >>>= 5;
+        }
+        sb.append((char) (v + 63));
+    }
+}
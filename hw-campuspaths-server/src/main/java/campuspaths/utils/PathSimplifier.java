@@ -0,0 +1,120 @@
+package campuspaths.utils;
+
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+/**
+ * <b>PathSimplifier</b> drops the points of a route that hardly change its shape, so that
+ * fewer segments are sent to and drawn by the client.
+ *
+ * <p>Points are chosen with the Douglas-Peucker algorithm: the point farthest from the line
+ * between the two ends is kept if it is more than the tolerance away, and each half is then
+ * simplified the same way. The start and end are always kept. A merged segment costs what
+ * the segments it replaces cost together, so the route's total cost does not change.
+ */
+public final class PathSimplifier {
+
+    private PathSimplifier() {
+    }
+
+    /**
+     * Simplifies a route.
+     *
+     * @spec.requires path to not be null
+     * @param path route to simplify.
+     * @param tolerance greatest distance a dropped point may be from the simplified route,
+     *                  in the same units as the points.
+     * @return a route with the same start, end and total cost through a subset of the points
+     *         of path, or path itself if tolerance is negative or not a number or nothing
+     *         could be dropped.
+     */
+    public static Path<Point> simplify(Path<Point> path, double tolerance) {
+        if (!(tolerance >= 0)) {
+            return path;
+        }
+        int segments = 0;
+        for (Path<Point>.Segment ignored : path) {
+            segments++;
+        }
+        if (segments < 2) {
+            return path;
+        }
+        // point i is the start of the route or the end of segment i - 1, and cost[i] is the
+        // cost of the route up to it
+        double[] xs = new double[segments + 1];
+        double[] ys = new double[segments + 1];
+        double[] cost = new double[segments + 1];
+        Point[] points = new Point[segments + 1];
+        points[0] = path.getStart();
+        xs[0] = points[0].getX();
+        ys[0] = points[0].getY();
+        int i = 1;
+        for (Path<Point>.Segment s : path) {
+            points[i] = s.getEnd();
+            xs[i] = points[i].getX();
+            ys[i] = points[i].getY();
+            cost[i] = cost[i - 1] + s.getCost();
+            i++;
+        }
+
+        boolean[] keep = new boolean[segments + 1];
+        keep[0] = true;
+        keep[segments] = true;
+        int kept = 2;
+        // ranges [lo, hi] still to simplify, as a stack instead of recursion so a long route
+        // cannot overflow the call stack
+        int[] stack = new int[2 * (segments + 1)];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = segments;
+        double limit = tolerance * tolerance;
+        while (top > 0) {
+            int hi = stack[--top];
+            int lo = stack[--top];
+            int farthest = -1;
+            double worst = limit;
+            for (int j = lo + 1; j < hi; j++) {
+                double d = distanceSquared(xs[j], ys[j], xs[lo], ys[lo], xs[hi], ys[hi]);
+                if (d > worst) {
+                    worst = d;
+                    farthest = j;
+                }
+            }
+            if (farthest >= 0) {
+                keep[farthest] = true;
+                kept++;
+                stack[top++] = lo;
+                stack[top++] = farthest;
+                stack[top++] = farthest;
+                stack[top++] = hi;
+            }
+        }
+        if (kept == segments + 1) {
+            return path;
+        }
+
+        Path<Point> simplified = new Path<>(points[0]);
+        for (int j = 1; j <= segments; j++) {
+            if (keep[j]) {
+                // measured from the cost so far, so rounding does not build up along the route
+                simplified = simplified.extend(points[j], cost[j] - simplified.getCost());
+            }
+        }
+        return simplified;
+    }
+
+    /**
+     * Finds the squared distance from a point to the line segment between two others.
+     */
+    private static double distanceSquared(double px, double py, double ax, double ay,
+                                          double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double length = dx * dx + dy * dy;
+        double t = length == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / length;
+        t = Math.max(0, Math.min(1, t));
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return ex * ex + ey * ey;
+    }
+}
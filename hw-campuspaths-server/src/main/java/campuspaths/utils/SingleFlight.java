@@ -0,0 +1,115 @@
+package campuspaths.utils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * <b>SingleFlight</b> makes concurrent callers asking for the same key share one computation.
+ *
+ * <p>The first caller for a key runs the work. Callers that arrive while it is still running
+ * wait for that result instead of starting their own. Once the work finishes the key is
+ * forgotten, so nothing is cached: the next caller computes a fresh result.
+ *
+ * <p>Only callers of the same key ever wait on each other; there is no lock shared between
+ * different keys. A caller with a deadline waits for another caller's work only until then.
+ *
+ * @param <K> type of key identifying a computation
+ * @param <V> type of result the computation produces
+ */
+public class SingleFlight<K, V> {
+
+    // Abstraction Function:
+    // "inFlight" maps every key whose work is currently running to the future that
+    // will hold that work's result.
+    //
+    // Representation Invariant:
+    // inFlight != null && no key or future in inFlight is null
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the result of the work for a key, running it only if no other caller is already
+     * running it.
+     *
+     * @spec.requires key and work to not be null
+     * @param key identifies the computation; equal keys must produce equal results.
+     * @param work computes the result if this caller is the first for the key.
+     * @return the result of the work, possibly computed by another caller.
+     * @throws Exception whatever the work threw, for every caller that shared it.
+     */
+    public V get(K key, Callable<V> work) throws Exception {
+        return get(key, work, Long.MAX_VALUE);
+    }
+
+    /**
+     * Gets the result of the work for a key, running it only if no other caller is already
+     * running it, and waiting for another caller's work only until a deadline.
+     *
+     * @spec.requires key and work to not be null
+     * @param key identifies the computation; equal keys must produce equal results.
+     * @param work computes the result if this caller is the first for the key.
+     * @param deadlineNanos System.nanoTime() after which this caller stops waiting for
+     *                      another caller's work, or Long.MAX_VALUE to wait as long as it
+     *                      takes. Work this caller runs itself is not cut short.
+     * @return the result of the work, possibly computed by another caller.
+     * @throws TimeoutException if another caller's work was still running at the deadline.
+     * @throws Exception whatever the work threw, for every caller that shared it.
+     */
+    public V get(K key, Callable<V> work, long deadlineNanos) throws Exception {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return await(running, deadlineNanos);
+        }
+        try {
+            V result = work.call();
+            mine.complete(result);
+            return result;
+        } catch (Throwable t) {
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Gets how many keys have work running right now.
+     *
+     * @return number of computations in flight.
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Waits for another caller's work and hands back its result or exception.
+     *
+     * @param running the future the leading caller will complete.
+     * @param deadlineNanos System.nanoTime() to stop waiting at, or Long.MAX_VALUE.
+     * @return the leading caller's result.
+     * @throws TimeoutException if the leading caller's work is not done by the deadline.
+     * @throws Exception the exception the leading caller's work threw.
+     */
+    private V await(CompletableFuture<V> running, long deadlineNanos) throws Exception {
+        try {
+            if (deadlineNanos == Long.MAX_VALUE) {
+                return running.get();
+            }
+            return running.get(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
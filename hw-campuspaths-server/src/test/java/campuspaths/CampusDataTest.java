@@ -0,0 +1,68 @@
+package campuspaths;
+
+import graph.Graph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+import pathfinder.datastructures.Point;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * CampusData class.
+ */
+public class CampusDataTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public CampusData smallCampus() throws IOException {
+        Path buildings = folder.newFile("b.csv").toPath();
+        Path paths = folder.newFile("p.csv").toPath();
+        Files.write(buildings, ("shortName,longName,x,y\n"
+                + "CSE,Paul G. Allen Center,10,10\n"
+                + "MGH,Mary Gates Hall,30,10\n"
+                + "SUZ,Suzzallo Library,50,50\n").getBytes(StandardCharsets.UTF_8));
+        Files.write(paths, ("x1,y1,x2,y2,distance\n"
+                + "10,10,20,10,10\n"
+                + "20,10,10,10,10\n"
+                + "20,10,30,10,10.5\n"
+                + "30,10,20,10,10.5\n").getBytes(StandardCharsets.UTF_8));
+        return CampusData.load(buildings, paths, Executors.newFixedThreadPool(2)).join();
+    }
+
+
+    @Test
+    public void testLoadColumns() throws IOException {
+        CampusData data = smallCampus();
+        assertEquals(3, data.buildingCount());
+        assertEquals(4, data.pathCount());
+        assertEquals("MGH", data.shortNames[1]);
+        assertEquals("Suzzallo Library", data.longNames[2]);
+        assertEquals(50, data.buildingY[2], 0);
+        assertEquals(10.5, data.distance[3], 0);
+    }
+
+    @Test
+    public void testToGraph() throws IOException {
+        Graph<Point, Double> g = smallCampus().toGraph();
+
+        // CSE, MGH, SUZ and the junction at (20, 10)
+        assertEquals(4, g.size());
+        assertTrue(g.containsNode(new Point(50, 50)));
+        assertTrue(g.getNeighbors(new Point(50, 50)).isEmpty());
+        assertTrue(g.containsEdge(new Graph.Edge<>(new Point(20, 10), new Point(30, 10), 10.5)));
+        assertEquals(2, g.getNeighbors(new Point(20, 10)).size());
+    }
+}
@@ -0,0 +1,122 @@
+package campuspaths;
+
+import graph.Graph;
+import graph.ProfileGraph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+import pathfinder.datastructures.Point;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * PathAttributes class.
+ */
+public class PathAttributesTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Point S = new Point(0, 0);
+    private static final Point A = new Point(10, 0);
+    private static final Point B = new Point(0, 10);
+    private static final Point C = new Point(10, 20);
+    private static final Point T = new Point(20, 0);
+
+    /**
+     * Three ways from S to T: over stairs at A, the shortest; up a steep ramp at B; and a
+     * long gentle way through C.
+     */
+    private static Graph<Point, Double> campus() {
+        Graph<Point, Double> g = new Graph<>();
+        g.addNodes(Arrays.asList(S, A, B, C, T));
+        g.addEdge(new Graph.Edge<>(S, A, 10.0));
+        g.addEdge(new Graph.Edge<>(A, T, 10.0));
+        g.addEdge(new Graph.Edge<>(S, B, 12.0));
+        g.addEdge(new Graph.Edge<>(B, T, 12.0));
+        g.addEdge(new Graph.Edge<>(S, C, 20.0));
+        g.addEdge(new Graph.Edge<>(C, T, 20.0));
+        return g;
+    }
+
+    private PathAttributes attributes() throws IOException {
+        Path file = folder.newFile("a.csv").toPath();
+        Files.write(file, ("x1,y1,x2,y2,stairs,grade\n"
+                + "10,0,20,0,1,0\n"
+                + "0,0,0,10,0,12.5\n"
+                + "0,0,10,20,0,4\n").getBytes(StandardCharsets.UTF_8));
+        return PathAttributes.load(file, Executors.newFixedThreadPool(2)).join();
+    }
+
+    private static double length(List<Graph.Edge<Point, Double>> route) {
+        double total = 0;
+        for (Graph.Edge<Point, Double> e : route) {
+            total += e.getLabel();
+        }
+        return total;
+    }
+
+    @Test
+    public void testLoad() throws IOException {
+        PathAttributes a = attributes();
+        assertEquals(3, a.size());
+        assertTrue(a.isStairs(A, T));
+        assertFalse(a.isStairs(T, A));
+        assertEquals(12.5, a.grade(S, B), 0);
+        assertEquals(0, a.grade(B, T), 0);
+    }
+
+    @Test
+    public void testProfilesAvoidPaths() throws IOException {
+        ProfileGraph<Point> profiles = attributes().profiles(campus());
+        assertEquals(20, length(profiles.find(ProfileGraph.SHORTEST, S, T)), 0);
+        // no stairs: the steep ramp
+        assertEquals(24, length(profiles.find(PathAttributes.NO_STAIRS, S, T)), 0);
+        // wheelchair: the ramp is too steep, so the long way
+        List<Graph.Edge<Point, Double>> route = profiles.find(PathAttributes.WHEELCHAIR, S, T);
+        assertEquals(2, route.size());
+        assertEquals(C, route.get(0).to);
+        assertEquals(40, length(route), 0);
+    }
+
+    @Test
+    public void testWheelchairCountsRise() throws IOException {
+        ProfileGraph<Point> profiles = attributes().profiles(campus());
+        // 4% of the 8.33% limit makes the 20 long climb cost 29.6
+        double cost = profiles.weight(PathAttributes.WHEELCHAIR).weight(
+                new Graph.Edge<>(S, C, 20.0));
+        assertEquals(20 * (1 + 4 / PathAttributes.MAX_WHEELCHAIR_GRADE), cost, 1e-4);
+    }
+
+    @Test
+    public void testNoAttributesRoutesShortest() throws IOException {
+        Path file = folder.newFile("empty.csv").toPath();
+        Files.write(file, "x1,y1,x2,y2,stairs,grade\n".getBytes(StandardCharsets.UTF_8));
+        PathAttributes a = PathAttributes.load(file, Executors.newFixedThreadPool(2)).join();
+        assertEquals(0, a.size());
+        ProfileGraph<Point> profiles = a.profiles(campus());
+        for (String profile : profiles.profiles()) {
+            assertEquals(20, length(profiles.find(profile, S, T)), 0);
+        }
+    }
+
+    @Test(expected = CompletionException.class)
+    public void testMissingFile() {
+        PathAttributes.load(folder.getRoot().toPath().resolve("none.csv"),
+                Executors.newFixedThreadPool(2)).join();
+    }
+}
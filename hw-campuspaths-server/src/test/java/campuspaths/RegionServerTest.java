@@ -0,0 +1,205 @@
+package campuspaths;
+
+import graph.Graph;
+import graph.Partition;
+import graph.ShortestPaths;
+import graph.SyntheticGraph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * RegionServer, RemoteRegion and RegionRouter classes.
+ */
+public class RegionServerTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final SyntheticGraph MAP =
+            SyntheticGraph.generate(SyntheticGraph.Topology.GEOMETRIC, 900, 21);
+
+    private static Graph<Point, Double> graph() {
+        return MAP.toGraph((i, x, y) -> new Point(x, y));
+    }
+
+    private static double cost(List<Graph.Edge<Point, Double>> path) {
+        double c = 0;
+        for (Graph.Edge<Point, Double> e : path) {
+            c += e.getLabel();
+        }
+        return c;
+    }
+
+    /**
+     * Checks routes between random points cost the same through the router as over the
+     * whole graph.
+     */
+    private static void assertSameAsWholeGraph(RegionRouter router, Graph<Point, Double> g) {
+        List<Point> points = new ArrayList<>(g.getNodes());
+        Random random = new Random(4);
+        for (int i = 0; i < 15; i++) {
+            Point a = points.get(random.nextInt(points.size()));
+            Point b = points.get(random.nextInt(points.size()));
+            List<Graph.Edge<Point, Double>> whole = ShortestPaths.find(g, a, b);
+            if (whole == null) {
+                try {
+                    router.findShortestPath(a, b);
+                    fail("expected no route from " + a + " to " + b);
+                } catch (IllegalArgumentException e) {
+                    // expected
+                }
+                continue;
+            }
+            Path<Point> path = router.findShortestPath(a, b);
+            assertEquals(a, path.getStart());
+            assertEquals(b, path.getEnd());
+            assertEquals(cost(whole), path.getCost(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testRoutesMatchWholeGraph() throws IOException {
+        Graph<Point, Double> g = graph();
+        Partition<Point> partition = Partition.bisect(g, Point::getX, Point::getY, 3);
+        List<RegionServer> servers = new ArrayList<>();
+        List<Integer> ports = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            RegionServer server = new RegionServer(partition, r, 0);
+            server.start();
+            servers.add(server);
+            ports.add(server.port());
+        }
+        try (RegionRouter router = new RegionRouter(ports)) {
+            assertSameAsWholeGraph(router, g);
+            Point first = g.getNodes().iterator().next();
+            assertEquals(partition.regionOf(first), router.regionOf(first));
+            assertEquals(-1, router.regionOf(new Point(-1e9, -1e9)));
+        } finally {
+            for (RegionServer server : servers) {
+                server.close();
+            }
+        }
+    }
+
+    @Test
+    public void testRemoteRegionAnswersLikeLocal() throws IOException {
+        Graph<Point, Double> g = graph();
+        Partition<Point> partition = Partition.bisect(g, Point::getX, Point::getY, 2);
+        try (RegionServer server = new RegionServer(partition, 1, 0)) {
+            server.start();
+            RemoteRegion remote = new RemoteRegion(server.port());
+            assertEquals(partition.boundary(1), remote.boundary());
+            Point node = partition.region(1).getNodes().iterator().next();
+            assertEquals(node, remote.nearest(node.getX(), node.getY()));
+            assertEquals(partition.region(1).getNodes(), remote.nodes());
+            assertEquals(ShortestPaths.costs(partition.region(1), node, partition.boundary(1)),
+                    remote.costsFrom(node));
+            for (Graph.Edge<Point, Double> e : remote.cutEdges()) {
+                assertEquals(1, partition.regionOf(e.from));
+                assertNotEquals(1, partition.regionOf(e.to));
+            }
+            assertTrue(remote.path(node, node).isEmpty());
+            remote.close();
+        }
+    }
+
+    @Test
+    public void testServerGone() throws IOException {
+        Partition<Point> partition = Partition.bisect(graph(), Point::getX, Point::getY, 2);
+        RegionServer server = new RegionServer(partition, 0, 0);
+        int port = server.port();
+        server.close();
+        try {
+            new RemoteRegion(port).boundary();
+            fail("expected the closed server to be unreachable");
+        } catch (UncheckedIOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testServerStalls() throws IOException {
+        // the socket accepts connections but nothing ever answers
+        try (ServerSocket stalled = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            RemoteRegion remote = new RemoteRegion(stalled.getLocalPort(), 200);
+            long start = System.nanoTime();
+            try {
+                remote.boundary();
+                fail("expected the stalled server to time out");
+            } catch (UncheckedIOException e) {
+                assertTrue((System.nanoTime() - start) / 1_000_000 < 5000);
+            }
+        }
+    }
+
+    @Test
+    public void testSeparateProcesses() throws Exception {
+        // writes the map as campus data files and serves it from two region processes
+        java.nio.file.Path dir = folder.getRoot().toPath();
+        try (Writer out = Files.newBufferedWriter(dir.resolve(CampusData.BUILDINGS_FILE))) {
+            out.write("shortName,longName,x,y\nA,Start,0,0\n");
+        }
+        try (Writer out = Files.newBufferedWriter(dir.resolve(CampusData.PATHS_FILE))) {
+            out.write("x1,y1,x2,y2,distance\n");
+            for (int e = 0; e < MAP.edgeCount(); e++) {
+                out.write(MAP.x(MAP.from(e)) + "," + MAP.y(MAP.from(e)) + ","
+                        + MAP.x(MAP.to(e)) + "," + MAP.y(MAP.to(e)) + ","
+                        + MAP.weight(e) + "\n");
+            }
+        }
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        List<Integer> ports = new ArrayList<>();
+        try {
+            for (int r = 0; r < 2; r++) {
+                Process p = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        "-Dcampuspaths.data.dir=" + dir, RegionServer.class.getName(), "2",
+                        String.valueOf(r)).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+                processes.add(p);
+            }
+            for (Process p : processes) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(
+                        p.getInputStream(), StandardCharsets.US_ASCII));
+                String line = in.readLine();
+                assertNotNull("region process exited", line);
+                assertTrue(line, line.startsWith("listening "));
+                ports.add(Integer.parseInt(line.substring("listening ".length())));
+            }
+            Graph<Point, Double> g = CampusData.load(dir.resolve(CampusData.BUILDINGS_FILE),
+                    dir.resolve(CampusData.PATHS_FILE),
+                    ForkJoinPool.commonPool()).join().toGraph();
+            try (RegionRouter router = new RegionRouter(ports)) {
+                assertSameAsWholeGraph(router, g);
+            }
+        } finally {
+            for (Process p : processes) {
+                p.destroyForcibly();
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package campuspaths.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * AdmissionController class.
+ */
+public class AdmissionControllerTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    /**
+     * Holds a permit until the latch is released, from another thread.
+     */
+    private Thread holdPermit(AdmissionController ac, CountDownLatch held, CountDownLatch release) {
+        Thread t = new Thread(() -> {
+            try {
+                ac.call(() -> {
+                    held.countDown();
+                    release.await();
+                    return null;
+                });
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        t.start();
+        return t;
+    }
+
+
+    @Test
+    public void testRunsWorkWhenIdle() throws Exception {
+        AdmissionController ac = new AdmissionController(1, 0, 100);
+        assertEquals("done", ac.call(() -> "done"));
+        assertEquals(0, ac.queued());
+    }
+
+    @Test
+    public void testFullQueueFailsFast() throws Exception {
+        AdmissionController ac = new AdmissionController(1, 0, 10_000);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread t = holdPermit(ac, held, release);
+        held.await();
+
+        long start = System.nanoTime();
+        try {
+            ac.call(() -> "never");
+            fail("expected Overloaded");
+        } catch (AdmissionController.Overloaded e) {
+            assertTrue(e.retryAfterSeconds >= 1);
+        }
+        // refused right away, not after the 10s deadline
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+
+        release.countDown();
+        t.join();
+        assertEquals("after", ac.call(() -> "after"));
+    }
+
+    @Test
+    public void testWaitsUntilDeadline() throws Exception {
+        AdmissionController ac = new AdmissionController(1, 4, 50);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread t = holdPermit(ac, held, release);
+        held.await();
+
+        try {
+            ac.call(() -> "never");
+            fail("expected Overloaded");
+        } catch (AdmissionController.Overloaded e) {
+            // expected: the permit was not given back within the deadline
+        }
+        release.countDown();
+        t.join();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWorkExceptionsPassThrough() throws Exception {
+        AdmissionController ac = new AdmissionController(1, 0, 100);
+        ac.call(() -> {
+            throw new IllegalStateException();
+        });
+    }
+
+    @Test
+    public void testDeadlineCountsFromArrival() throws Exception {
+        AdmissionController ac = new AdmissionController(1, 4, 10_000);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread t = holdPermit(ac, held, release);
+        held.await();
+
+        // arrived 20s ago, so its 10s deadline has passed before it could queue
+        long start = System.nanoTime();
+        try {
+            ac.call(() -> "never", start - 20_000_000_000L);
+            fail("expected Overloaded");
+        } catch (AdmissionController.Overloaded e) {
+            // expected
+        }
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+        assertEquals(0, ac.queued());
+
+        release.countDown();
+        t.join();
+    }
+
+    @Test
+    public void testWaitingRequestsGoFirst() throws Exception {
+        AdmissionController ac = new AdmissionController(1, 4, 10_000);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = holdPermit(ac, held, release);
+        held.await();
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        Thread waiter = new Thread(() -> {
+            try {
+                ac.call(() -> order.add("waiter"));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        waiter.start();
+        while (ac.queued() == 0 || waiter.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        holder.join();
+        // the permit is handed to the queued waiter, so a newcomer runs after it
+        ac.call(() -> order.add("newcomer"));
+        waiter.join();
+        assertEquals(Arrays.asList("waiter", "newcomer"), order);
+    }
+}
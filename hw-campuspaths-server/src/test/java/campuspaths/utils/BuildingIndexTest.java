@@ -0,0 +1,96 @@
+package campuspaths.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * BuildingIndex class.
+ */
+public class BuildingIndexTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private static BuildingIndex campus() {
+        Map<String, String> buildings = new HashMap<>();
+        buildings.put("KNE", "Kane Hall");
+        buildings.put("MGH", "Mary Gates Hall");
+        buildings.put("CSE", "Paul G. Allen Center for Computer Science & Engineering");
+        buildings.put("CS2", "Bill & Melinda Gates Center For Computer Science & Engineering");
+        buildings.put("MOR", "Moore Hall");
+        buildings.put("HUB", "Husky Union Building");
+        buildings.put("CMU", "Communications Building");
+        return new BuildingIndex(buildings);
+    }
+
+    @Test
+    public void testNormalize() {
+        assertEquals("kanehall", BuildingIndex.normalize(" Kane-Hall! "));
+        assertEquals("cafe", BuildingIndex.normalize("Caf\u00e9"));
+        assertEquals("", BuildingIndex.normalize("&. -"));
+    }
+
+    @Test
+    public void testPrefixOfShortName() {
+        assertEquals(Arrays.asList("CMU", "CS2", "CSE"), campus().search("c", 3));
+        assertEquals(Arrays.asList("CS2", "CSE"), campus().search("cs", 10));
+        assertEquals(Collections.singletonList("KNE"), campus().search("KN", 10));
+    }
+
+    @Test
+    public void testPrefixOfLongNameIgnoresCaseAndPunctuation() {
+        assertEquals(Collections.singletonList("KNE"), campus().search("kane-h", 10));
+        assertEquals(Collections.singletonList("MGH"), campus().search("MARY GATES", 10));
+    }
+
+    @Test
+    public void testLaterWordRanksAfterNameStart() {
+        // "Moore Hall" and "Mary Gates Hall" start with "m"; no name starts with "hall"
+        assertEquals(Arrays.asList("KNE", "MOR", "MGH"), campus().search("hall", 10));
+        // HUB's name starts with "hu"
+        assertEquals("HUB", campus().search("hu", 10).get(0));
+        // both Gates buildings match at a later word; the shorter name comes first
+        assertEquals(Arrays.asList("MGH", "CS2"), campus().search("gates", 10));
+    }
+
+    @Test
+    public void testLimits() {
+        assertEquals(3, campus().search("", 3).size());
+        assertEquals(7, campus().search("", 100).size());
+        assertTrue(campus().search("c", 0).isEmpty());
+        assertTrue(campus().search("zzz", 10).isEmpty());
+    }
+
+    @Test
+    public void testResolve() {
+        BuildingIndex index = campus();
+        assertEquals("KNE", index.resolve("kne"));
+        assertEquals("KNE", index.resolve("Kane Hall"));
+        assertEquals("MGH", index.resolve("mary-gates hall"));
+        assertNull(index.resolve("Kane"));
+        assertNull(index.resolve("Hall"));
+        assertEquals("Kane Hall", index.longName("KNE"));
+        assertNull(index.longName("kne"));
+    }
+
+    @Test
+    public void testManyBuildingsKeepsTopResults() {
+        Map<String, String> buildings = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            buildings.put(String.format("B%03d", i), "Building " + i);
+        }
+        BuildingIndex index = new BuildingIndex(buildings);
+        assertEquals(BuildingIndex.MAX_RESULTS, index.search("b", 100).size());
+        assertEquals(Arrays.asList("B420", "B421"), index.search("b42", 2));
+        assertEquals("B007", index.resolve("Building 7"));
+    }
+}
@@ -0,0 +1,80 @@
+package campuspaths.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import pathfinder.datastructures.Point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * ConvexHull class.
+ */
+public class ConvexHullTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    /**
+     * Twice the signed area of a polygon; its sign tells which way the corners go round.
+     */
+    private static double area(List<Point> polygon) {
+        double a = 0;
+        for (int i = 0; i < polygon.size(); i++) {
+            Point p = polygon.get(i);
+            Point q = polygon.get((i + 1) % polygon.size());
+            a += p.getX() * q.getY() - q.getX() * p.getY();
+        }
+        return a;
+    }
+
+    @Test
+    public void testSquareWithInsideAndEdgePoints() {
+        List<Point> hull = ConvexHull.of(Arrays.asList(new Point(10, 10), new Point(0, 0),
+                new Point(5, 5), new Point(10, 0), new Point(0, 10), new Point(5, 0),
+                new Point(3, 7), new Point(0, 0)));
+        assertEquals(Arrays.asList(new Point(0, 0), new Point(10, 0), new Point(10, 10),
+                new Point(0, 10)), hull);
+        assertEquals(200, area(hull), 0);
+    }
+
+    @Test
+    public void testFewPoints() {
+        assertTrue(ConvexHull.of(Collections.emptyList()).isEmpty());
+        assertEquals(Collections.singletonList(new Point(1, 2)),
+                ConvexHull.of(Arrays.asList(new Point(1, 2), new Point(1, 2))));
+        assertEquals(Collections.singletonList(new Point(1, 2)), ConvexHull.of(
+                Collections.nCopies(100, new Point(1, 2))));
+        assertEquals(Arrays.asList(new Point(0, 0), new Point(4, 4)),
+                ConvexHull.of(Arrays.asList(new Point(4, 4), new Point(2, 2),
+                        new Point(0, 0))));
+    }
+
+    @Test
+    public void testRandomPointsInside() {
+        Random random = new Random(17);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            points.add(new Point(random.nextGaussian() * 100, random.nextGaussian() * 50));
+        }
+        List<Point> hull = ConvexHull.of(points);
+        assertTrue(area(hull) > 0);
+        // every point is on the inner side of every hull edge
+        for (int i = 0; i < hull.size(); i++) {
+            Point a = hull.get(i);
+            Point b = hull.get((i + 1) % hull.size());
+            for (Point c : points) {
+                double cross = (b.getX() - a.getX()) * (c.getY() - a.getY())
+                        - (b.getY() - a.getY()) * (c.getX() - a.getX());
+                assertTrue(cross >= -1e-9);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package campuspaths.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * MappedCsv class.
+ */
+public class MappedCsvTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    public Path write(String contents) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    public String rows(int n) {
+        StringBuilder sb = new StringBuilder("name,x,y\n");
+        for (int i = 0; i < n; i++) {
+            sb.append("B").append(i).append(',').append(i * 1.25).append(',').append(-i).append('\n');
+        }
+        return sb.toString();
+    }
+
+
+    @Test
+    public void testReadsColumnsAndSkipsHeader() throws IOException {
+        Path file = write("shortName,longName,x,y\nCSE,Paul G. Allen Center,2259.7,1715.5\n"
+                + "MGH,Mary Gates Hall,1914.5103,1708.8816\n");
+        MappedCsv.Table t = MappedCsv.read(file, "SSDD", 1, executor).join();
+
+        assertEquals(2, t.rows);
+        assertEquals("CSE", t.strings[0][0]);
+        assertEquals("Mary Gates Hall", t.strings[1][1]);
+        assertEquals(2259.7, t.doubles[2][0], 0);
+        assertEquals(1708.8816, t.doubles[3][1], 0);
+    }
+
+    @Test
+    public void testChunksGiveSameRowsInOrder() throws IOException {
+        Path file = write(rows(1000));
+        MappedCsv.Table one = MappedCsv.read(file, "SDD", 1, executor).join();
+        MappedCsv.Table many = MappedCsv.read(file, "SDD", 37, executor).join();
+
+        assertEquals(1000, one.rows);
+        assertEquals(1000, many.rows);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("B" + i, many.strings[0][i]);
+            assertEquals(one.doubles[1][i], many.doubles[1][i], 0);
+            assertEquals(-i, many.doubles[2][i], 0);
+        }
+    }
+
+    @Test
+    public void testMoreChunksThanLines() throws IOException {
+        Path file = write(rows(3));
+        assertEquals(3, MappedCsv.read(file, "SDD", 50, executor).join().rows);
+    }
+
+    @Test
+    public void testWindowsLineEndingsAndBlankLines() throws IOException {
+        Path file = write("x1,y1\r\n1.5,2\r\n\r\n3,4.25");
+        MappedCsv.Table t = MappedCsv.read(file, "DD", 2, executor).join();
+
+        assertEquals(2, t.rows);
+        assertEquals(1.5, t.doubles[0][0], 0);
+        assertEquals(4.25, t.doubles[1][1], 0);
+    }
+
+    @Test
+    public void testHeaderOnly() throws IOException {
+        assertEquals(0, MappedCsv.read(write("x,y"), "DD", 4, executor).join().rows);
+        assertEquals(0, MappedCsv.read(write("x,y\n"), "DD", 4, executor).join().rows);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingFieldFails() throws Throwable {
+        try {
+            MappedCsv.read(write("x,y\n1,2\n3\n"), "DD", 1, executor).join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadNumberFails() throws Throwable {
+        try {
+            MappedCsv.read(write("x,y\n1,two\n"), "DD", 1, executor).join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Test
+    public void testParseDoubleMatchesJava() {
+        Random random = new Random(331);
+        String[] fixed = {"0", "-0.5", "+7", "1868.3454", "1e3", "-2.5E-4", "123456789012345678",
+                "0.1", " 42.0 ", "3.14159265358979"};
+        for (String s : fixed) {
+            assertEquals(s, Double.parseDouble(s), parse(s), 0);
+        }
+        for (int i = 0; i < 10000; i++) {
+            String s = String.format("%.4f", random.nextDouble() * 5000 - 1000);
+            assertEquals(s, Double.parseDouble(s), parse(s), 0);
+        }
+    }
+
+    private static double parse(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.US_ASCII);
+        return MappedCsv.parseDouble(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+}
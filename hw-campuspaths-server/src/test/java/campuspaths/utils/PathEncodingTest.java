@@ -0,0 +1,148 @@
+package campuspaths.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * PathEncoding enum.
+ */
+public class PathEncodingTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    public Path<Point> smallPath() {
+        Path<Point> p = new Path<>(new Point(1868.3454, 1220.7234));
+        p = p.extend(new Point(1870.1, 1230.25), 9.69);
+        p = p.extend(new Point(1850.5, 1229.0), 19.64);
+        p = p.extend(new Point(1850.5, 1300.75), 71.75);
+        return p;
+    }
+
+    public Path<Point> longPath(int segments) {
+        Path<Point> p = new Path<>(new Point(2000, 1500));
+        double x = 2000;
+        for (int i = 0; i < segments; i++) {
+            x += 12.3456;
+            p = p.extend(new Point(x, 1500 + (i % 7) * 3.5), 12.9);
+        }
+        return p;
+    }
+
+    /**
+     * Reads values back out of a polyline, the way a client would.
+     */
+    private static List<Long> decodePolyline(String encoded) {
+        List<Long> values = new ArrayList<>();
+        int i = 0;
+        while (i < encoded.length()) {
+            long result = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = encoded.charAt(i++) - 63;
+                result |= (long) (b & 0x1f) << shift;
+                shift += 5;
+            } while (b >= 0x20);
+            values.add((result >>> 1) ^ -(result & 1));
+        }
+        return values;
+    }
+
+
+    @Test
+    public void testNegotiateDefaultsToJson() {
+        assertEquals(PathEncoding.JSON, PathEncoding.negotiate(null));
+        assertEquals(PathEncoding.JSON, PathEncoding.negotiate("*/*"));
+        assertEquals(PathEncoding.JSON, PathEncoding.negotiate("text/html, application/json"));
+    }
+
+    @Test
+    public void testNegotiatePicksFirstSupported() {
+        assertEquals(PathEncoding.POLYLINE,
+                PathEncoding.negotiate("application/vnd.campuspaths.polyline"));
+        assertEquals(PathEncoding.BINARY, PathEncoding.negotiate(
+                "text/html, application/vnd.campuspaths.path+binary;q=0.9, application/json"));
+        assertEquals(PathEncoding.JSON, PathEncoding.negotiate(
+                "application/json, application/vnd.campuspaths.polyline"));
+    }
+
+    @Test
+    public void testJsonMatchesGson() {
+        String json = new String(PathEncoding.JSON.encode(smallPath()), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"cost\""));
+        assertTrue(json.contains("\"path\""));
+        assertTrue(json.contains("\"start\""));
+    }
+
+    @Test
+    public void testPolylineRoundTrip() {
+        Path<Point> path = smallPath();
+        List<Long> values = decodePolyline(
+                new String(PathEncoding.POLYLINE.encode(path), StandardCharsets.US_ASCII));
+        double scale = PathEncoding.POLYLINE_SCALE;
+
+        assertEquals(2 + 1 + 2 * 3, values.size());
+        assertEquals(path.getCost(), values.get(0) / scale, 1.0 / scale);
+        long x = values.get(1);
+        long y = values.get(2);
+        assertEquals(path.getStart().getX(), x / scale, 1.0 / scale);
+        assertEquals(path.getStart().getY(), y / scale, 1.0 / scale);
+        int i = 3;
+        for (Path<Point>.Segment segment : path) {
+            x += values.get(i++);
+            y += values.get(i++);
+            assertEquals(segment.getEnd().getX(), x / scale, 1.0 / scale);
+            assertEquals(segment.getEnd().getY(), y / scale, 1.0 / scale);
+        }
+    }
+
+    @Test
+    public void testPolylineEmptyPath() {
+        Path<Point> path = new Path<>(new Point(-3.5, 4));
+        List<Long> values = decodePolyline(
+                new String(PathEncoding.POLYLINE.encode(path), StandardCharsets.US_ASCII));
+        assertEquals(3, values.size());
+        assertEquals(-3500L, (long) values.get(1));
+        assertEquals(4000L, (long) values.get(2));
+    }
+
+    @Test
+    public void testBinaryLayout() {
+        Path<Point> path = smallPath();
+        ByteBuffer buffer = ByteBuffer.wrap(PathEncoding.BINARY.encode(path));
+
+        assertEquals(4 + 8 + 8 + 12 * 3, buffer.remaining());
+        assertEquals(3, buffer.getInt());
+        assertEquals(path.getCost(), buffer.getDouble(), 0);
+        assertEquals(path.getStart().getX(), buffer.getFloat(), 1e-3);
+        assertEquals(path.getStart().getY(), buffer.getFloat(), 1e-3);
+        for (Path<Point>.Segment segment : path) {
+            assertEquals(segment.getEnd().getX(), buffer.getFloat(), 1e-3);
+            assertEquals(segment.getEnd().getY(), buffer.getFloat(), 1e-3);
+            assertEquals(segment.getCost(), buffer.getFloat(), 1e-3);
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testCompactEncodingsAreSmaller() {
+        Path<Point> path = longPath(200);
+        int json = PathEncoding.JSON.encode(path).length;
+        int polyline = PathEncoding.POLYLINE.encode(path).length;
+        int binary = PathEncoding.BINARY.encode(path).length;
+        assertTrue(polyline * 10 < json);
+        assertTrue(binary * 5 < json);
+    }
+}
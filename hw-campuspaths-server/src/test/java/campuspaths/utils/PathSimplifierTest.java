@@ -0,0 +1,95 @@
+package campuspaths.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * PathSimplifier class.
+ */
+public class PathSimplifierTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    /**
+     * A path along a straight line with a small wobble, then a right-angle turn.
+     */
+    public Path<Point> wobblyPath() {
+        Path<Point> p = new Path<>(new Point(0, 0));
+        for (int i = 1; i <= 10; i++) {
+            p = p.extend(new Point(10 * i, i % 2 == 0 ? 0 : 0.4), 10.01);
+        }
+        for (int i = 1; i <= 5; i++) {
+            p = p.extend(new Point(100, 10 * i), 10);
+        }
+        return p;
+    }
+
+    private static List<Point> points(Path<Point> path) {
+        List<Point> points = new ArrayList<>();
+        points.add(path.getStart());
+        for (Path<Point>.Segment s : path) {
+            points.add(s.getEnd());
+        }
+        return points;
+    }
+
+    @Test
+    public void testDropsPointsWithinTolerance() {
+        Path<Point> path = wobblyPath();
+        Path<Point> simple = PathSimplifier.simplify(path, 1);
+        List<Point> kept = points(simple);
+        assertEquals(3, kept.size());
+        assertEquals(new Point(0, 0), kept.get(0));
+        assertEquals(new Point(100, 0), kept.get(1));
+        assertEquals(new Point(100, 50), kept.get(2));
+        assertEquals(path.getCost(), simple.getCost(), 0);
+    }
+
+    @Test
+    public void testKeepsPointsBeyondTolerance() {
+        Path<Point> path = wobblyPath();
+        List<Point> kept = points(PathSimplifier.simplify(path, 0.1));
+        // every wobble is kept, and only the straight points after the turn are dropped
+        assertEquals(12, kept.size());
+        assertTrue(points(path).containsAll(kept));
+    }
+
+    @Test
+    public void testSegmentCostsAddUp() {
+        Path<Point> simple = PathSimplifier.simplify(wobblyPath(), 1);
+        List<Double> costs = new ArrayList<>();
+        for (Path<Point>.Segment s : simple) {
+            costs.add(s.getCost());
+        }
+        assertEquals(100.1, costs.get(0), 1e-9);
+        assertEquals(50, costs.get(1), 1e-9);
+    }
+
+    @Test
+    public void testShortOrUnchangedPathsReturnedAsIs() {
+        Path<Point> single = new Path<>(new Point(1, 2)).extend(new Point(3, 4), 2.8);
+        assertSame(single, PathSimplifier.simplify(single, 100));
+        Path<Point> turns = new Path<>(new Point(0, 0)).extend(new Point(10, 0), 10)
+                .extend(new Point(10, 10), 10);
+        assertSame(turns, PathSimplifier.simplify(turns, 1));
+        assertSame(turns, PathSimplifier.simplify(turns, -1));
+        assertSame(turns, PathSimplifier.simplify(turns, Double.NaN));
+    }
+
+    @Test
+    public void testZeroToleranceDropsOnlyCollinearPoints() {
+        Path<Point> p = new Path<>(new Point(0, 0)).extend(new Point(5, 5), 7)
+                .extend(new Point(10, 10), 7).extend(new Point(10, 11), 1);
+        assertEquals(3, points(PathSimplifier.simplify(p, 0)).size());
+    }
+}
@@ -0,0 +1,173 @@
+package campuspaths.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * SingleFlight class.
+ */
+public class SingleFlightTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    /**
+     * Starts callers that all ask for the same key at once, with work that does not finish
+     * until every caller has arrived.
+     */
+    private List<Object> concurrentCalls(SingleFlight<String, Object> flight, int callers,
+                                         AtomicInteger searches) throws InterruptedException {
+        CountDownLatch arrived = new CountDownLatch(callers);
+        List<Object> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            Thread t = new Thread(() -> {
+                arrived.countDown();
+                try {
+                    Object result = flight.get("CSE\nMGH", () -> {
+                        searches.incrementAndGet();
+                        arrived.await();
+                        Thread.sleep(100); // lets the last arrivals reach get()
+                        return new Object();
+                    });
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                } catch (Exception e) {
+                    synchronized (results) {
+                        results.add(e);
+                    }
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        return results;
+    }
+
+
+    @Test
+    public void testConcurrentIdenticalRequestsSearchOnce() throws InterruptedException {
+        SingleFlight<String, Object> flight = new SingleFlight<>();
+        AtomicInteger searches = new AtomicInteger();
+        List<Object> results = concurrentCalls(flight, 200, searches);
+
+        assertEquals(1, searches.get());
+        assertEquals(200, results.size());
+        for (Object result : results) {
+            assertSame(results.get(0), result);
+        }
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    public void testSequentialRequestsSearchAgain() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger searches = new AtomicInteger();
+        assertEquals(1, (int) flight.get("a", searches::incrementAndGet));
+        assertEquals(2, (int) flight.get("a", searches::incrementAndGet));
+    }
+
+    @Test
+    public void testDifferentKeysDoNotWait() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        // the inner key is computed while the outer one is still in flight
+        String result = flight.get("outer", () -> flight.get("inner", () -> "inner") + "outer");
+        assertEquals("innerouter", result);
+    }
+
+    @Test
+    public void testExceptionsAreShared() throws InterruptedException {
+        SingleFlight<String, Object> flight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Exception> thrown = new ArrayList<>();
+
+        Thread leader = new Thread(() -> {
+            try {
+                flight.get("bad", () -> {
+                    started.countDown();
+                    release.await();
+                    throw new IllegalArgumentException("not a building");
+                });
+            } catch (Exception e) {
+                synchronized (thrown) {
+                    thrown.add(e);
+                }
+            }
+        });
+        leader.start();
+        started.await();
+        Thread follower = new Thread(() -> {
+            try {
+                flight.get("bad", () -> "follower should not run");
+            } catch (Exception e) {
+                synchronized (thrown) {
+                    thrown.add(e);
+                }
+            }
+        });
+        follower.start();
+        Thread.sleep(100);
+        release.countDown();
+        leader.join();
+        follower.join();
+
+        assertEquals(2, thrown.size());
+        for (Exception e : thrown) {
+            assertTrue(e instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void testFollowerStopsWaitingAtDeadline() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> results = new ArrayList<>();
+
+        Thread leader = new Thread(() -> {
+            try {
+                String result = flight.get("slow", () -> {
+                    started.countDown();
+                    release.await();
+                    return "leader";
+                });
+                synchronized (results) {
+                    results.add(result);
+                }
+            } catch (Exception e) {
+                // fails the size check below
+            }
+        });
+        leader.start();
+        started.await();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        try {
+            flight.get("slow", () -> "follower should not run", deadline);
+            fail("follower waited past its deadline");
+        } catch (TimeoutException e) {
+            assertTrue(System.nanoTime() - deadline >= 0);
+        }
+        release.countDown();
+        leader.join();
+
+        assertEquals(Arrays.asList("leader"), results);
+        assertEquals(0, flight.inFlight());
+    }
+}
@@ -31,4 +31,8 @@ export const UW_LONGITUDE_SCALE : number = 0.00000848028;
 export const UW_LATITUDE_CENTER = 47.65440627742146;
 
 // Map center
-export const UW_LONGITUDE_CENTER = -122.30476957834502;
\ No newline at end of file
+export const UW_LONGITUDE_CENTER = -122.30476957834502;
+
+// Distance in map pixels a route's points may be moved by simplifying it on the server,
+// too small to see on the map
+export const PATH_TOLERANCE : number = 1;
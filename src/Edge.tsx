@@ -1,5 +1,6 @@
 import React, {Component} from 'react';
 import "./edge.css";
+import {PATH_TOLERANCE} from "./Constants";
 
 interface EdgeProps {
 
@@ -81,7 +82,9 @@ class Edge extends Component<EdgeProps, EdgeStates> {
             let st = this.state.s.toUpperCase()
             let dt = this.state.e.toUpperCase()
 
-            let responsePromise = fetch("http://localhost:4567/draw-path?Start="+st+"&Dest="+dt);
+            // the server leaves out points the drawn line would not visibly bend at
+            let responsePromise = fetch("http://localhost:4567/draw-path?Start="+st+"&Dest="+dt
+                +"&tolerance="+PATH_TOLERANCE);
 
             let response = await responsePromise;
 
@@ -218,4 +221,4 @@ class Edge extends Component<EdgeProps, EdgeStates> {
     }
 }
 
-export default Edge;
\ No newline at end of file
+export default Edge;
\ No newline at end of file
@@ -0,0 +1,91 @@
+package graph.benchmarks;
+
+import graph.AlternativeRoutes;
+import graph.EdgeWeight;
+import graph.Graph;
+import graph.ShortestPaths;
+import graph.SyntheticGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What finding several different routes costs compared with finding just the shortest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AlternativeRoutesBenchmark {
+
+    @Param({"3000", "20000"})
+    public int nodes;
+
+    @Param({"3"})
+    public int k;
+
+    private Graph<Integer, Double> graph;
+    private AlternativeRoutes<Integer, Double> routes;
+
+    /**
+     * Queries cycle through these start and end nodes.
+     */
+    private int[] starts;
+    private int[] ends;
+    private int next;
+
+    @Setup
+    public void setup() {
+        graph = SyntheticGraph.generate(SyntheticGraph.Topology.GEOMETRIC, nodes, 433)
+                .toGraph((i, x, y) -> i);
+        routes = new AlternativeRoutes<>(graph);
+        Random random = new Random(433);
+        starts = new int[64];
+        ends = new int[starts.length];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = random.nextInt(nodes);
+            ends[i] = random.nextInt(nodes);
+        }
+    }
+
+    /**
+     * One shortest route, stopping as soon as the end is reached.
+     */
+    @Benchmark
+    public List<Graph.Edge<Integer, Double>> shortest() {
+        int i = next++ & 63;
+        return ShortestPaths.find(graph, starts[i], ends[i]);
+    }
+
+    /**
+     * Up to k routes that share at most 60% of their length with a shorter one.
+     */
+    @Benchmark
+    public List<List<Graph.Edge<Integer, Double>>> diverse() {
+        int i = next++ & 63;
+        return routes.find(starts[i], ends[i], k, 0.6, EdgeWeight.labels());
+    }
+
+    /**
+     * The k shortest loopless routes, however much they overlap.
+     */
+    @Benchmark
+    public List<List<Graph.Edge<Integer, Double>>> kShortest() {
+        int i = next++ & 63;
+        return routes.kShortest(starts[i], ends[i], k, EdgeWeight.labels());
+    }
+}
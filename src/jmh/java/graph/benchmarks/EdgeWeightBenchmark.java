@@ -0,0 +1,108 @@
+package graph.benchmarks;
+
+import graph.EdgeWeight;
+import graph.Graph;
+import graph.ShortestPaths;
+import graph.SyntheticGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What searching with an {@link EdgeWeight} costs compared with the stored labels, and
+ * compared with building a reweighted copy of the graph for each request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class EdgeWeightBenchmark {
+
+    @Param({"10000", "100000"})
+    public int nodes;
+
+    private Graph<Integer, Double> graph;
+
+    /**
+     * Extra cost per unit of climb for each node, standing in for a real attribute table.
+     */
+    private double[] climb;
+
+    private EdgeWeight<Integer, Double> avoidClimbs;
+
+    /**
+     * Queries cycle through these start and end nodes.
+     */
+    private int[] starts;
+    private int[] ends;
+    private int next;
+
+    @Setup
+    public void setup() {
+        graph = SyntheticGraph.generate(SyntheticGraph.Topology.GEOMETRIC, nodes, 331)
+                .toGraph((i, x, y) -> i);
+        Random random = new Random(331);
+        climb = new double[nodes];
+        for (int i = 0; i < nodes; i++) {
+            climb[i] = random.nextInt(10) == 0 ? 3 : 0;
+        }
+        avoidClimbs = e -> e.getLabel() * (1 + climb[e.to]);
+        starts = new int[64];
+        ends = new int[starts.length];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = random.nextInt(nodes);
+            ends[i] = random.nextInt(nodes);
+        }
+    }
+
+    /**
+     * The built-in weights: each edge's label.
+     */
+    @Benchmark
+    public List<Graph.Edge<Integer, Double>> storedLabels() {
+        int i = next++ & 63;
+        return ShortestPaths.find(graph, starts[i], ends[i]);
+    }
+
+    /**
+     * A weight function that reads a per-node table as edges are relaxed.
+     */
+    @Benchmark
+    public List<Graph.Edge<Integer, Double>> weightFunction() {
+        int i = next++ & 63;
+        return ShortestPaths.find(graph, starts[i], ends[i], avoidClimbs);
+    }
+
+    /**
+     * The same costs by building a graph with reweighted labels and searching that.
+     */
+    @Benchmark
+    public List<Graph.Edge<Integer, Double>> reweightedCopy() {
+        int i = next++ & 63;
+        Graph<Integer, Double> copy = new Graph<>(graph.size());
+        copy.addNodes(graph.getNodes());
+        List<Graph.Edge<Integer, Double>> edges = new ArrayList<>();
+        for (Integer n : graph.getNodes()) {
+            for (Graph.Edge<Integer, Double> e : graph.getNeighbors(n)) {
+                edges.add(new Graph.Edge<>(e.from, e.to, avoidClimbs.weight(e)));
+            }
+        }
+        copy.addEdges(edges);
+        return ShortestPaths.find(copy, starts[i], ends[i]);
+    }
+}
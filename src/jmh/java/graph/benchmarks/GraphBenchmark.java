@@ -0,0 +1,172 @@
+package graph.benchmarks;
+
+import graph.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the basic {@link Graph} operations on generated graphs of several sizes, with
+ * either every node having about the same out-degree or a few hub nodes having most edges.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GraphBenchmark {
+
+    /**
+     * How out-degrees are spread over the nodes.
+     */
+    public enum Degrees {
+        /**
+         * Every node has close to the average out-degree, like a street grid.
+         */
+        UNIFORM,
+        /**
+         * Out-degrees follow a power law, so a few hubs have most of the edges.
+         */
+        POWER_LAW
+    }
+
+    @Param({"1000", "100000", "1000000"})
+    public int nodes;
+
+    @Param({"UNIFORM", "POWER_LAW"})
+    public Degrees degrees;
+
+    /**
+     * Average out-degree.
+     */
+    @Param({"4"})
+    public int averageDegree;
+
+    private List<Integer> nodeList;
+    private List<Graph.Edge<Integer, Double>> edgeList;
+    private Graph<Integer, Double> graph;
+
+    /**
+     * Probes cycle through these so lookups hit all over the graph.
+     */
+    private int[] probeNodes;
+    private List<Graph.Edge<Integer, Double>> probeEdges;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(331);
+        nodeList = new ArrayList<>(nodes);
+        for (int i = 0; i < nodes; i++) {
+            nodeList.add(i);
+        }
+        edgeList = new ArrayList<>(nodes * averageDegree);
+        for (int from = 0; from < nodes; from++) {
+            int degree = degree(random);
+            for (int d = 0; d < degree; d++) {
+                edgeList.add(new Graph.Edge<>(from, random.nextInt(nodes), random.nextDouble() * 100));
+            }
+        }
+        graph = build();
+
+        probeNodes = new int[1 << 16];
+        probeEdges = new ArrayList<>(probeNodes.length);
+        for (int i = 0; i < probeNodes.length; i++) {
+            probeNodes[i] = random.nextInt(nodes);
+            Graph.Edge<Integer, Double> e = edgeList.get(random.nextInt(edgeList.size()));
+            // half the probed edges are present, half differ only in their label
+            probeEdges.add(i % 2 == 0 ? e : new Graph.Edge<>(e.from, e.to, -1.0));
+        }
+    }
+
+    /**
+     * Picks an out-degree with the configured spread and average.
+     */
+    private int degree(Random random) {
+        if (degrees == Degrees.UNIFORM) {
+            return averageDegree - 1 + random.nextInt(3);
+        }
+        // Pareto with shape 2 has mean 2 * minimum, so a minimum of average / 2
+        double pareto = (averageDegree / 2.0) / Math.sqrt(1 - random.nextDouble());
+        return (int) Math.min(nodes, Math.round(pareto));
+    }
+
+    /**
+     * Builds the whole graph one operation at a time.
+     */
+    private Graph<Integer, Double> build() {
+        Graph<Integer, Double> g = new Graph<>();
+        for (Integer n : nodeList) {
+            g.addNode(n);
+        }
+        for (Graph.Edge<Integer, Double> e : edgeList) {
+            g.addEdge(e);
+        }
+        return g;
+    }
+
+    /**
+     * Time to add every node and then every edge to an empty graph.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Graph<Integer, Double> addNodeAndEdge() {
+        return build();
+    }
+
+    /**
+     * Time to build the same graph with the bulk operations.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Graph<Integer, Double> addNodesAndEdgesBulk() {
+        Graph<Integer, Double> g = new Graph<>(nodes);
+        g.addNodes(nodeList);
+        g.addEdges(edgeList);
+        return g;
+    }
+
+    @Benchmark
+    public boolean containsEdge() {
+        next = (next + 1) & (probeEdges.size() - 1);
+        return graph.containsEdge(probeEdges.get(next));
+    }
+
+    @Benchmark
+    public boolean containsNode() {
+        next = (next + 1) & (probeNodes.length - 1);
+        return graph.containsNode(probeNodes[next]);
+    }
+
+    /**
+     * Fetches a node's neighbors and walks them, as a search does when it expands a node.
+     */
+    @Benchmark
+    public void getNeighbors(Blackhole bh) {
+        next = (next + 1) & (probeNodes.length - 1);
+        for (Graph.Edge<Integer, Double> e : graph.getNeighbors(probeNodes[next])) {
+            bh.consume(e.to);
+        }
+    }
+}
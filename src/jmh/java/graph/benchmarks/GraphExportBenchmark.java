@@ -0,0 +1,115 @@
+package graph.benchmarks;
+
+import graph.Graph;
+import graph.GraphExport;
+import graph.GraphJournal;
+import graph.SyntheticGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How fast {@link GraphExport} writes a multi-million-edge graph in each format, compared with
+ * {@link Graph#toString()}. Output goes to a channel that counts and drops the bytes, so only
+ * the export itself is measured; each benchmark returns the bytes written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class GraphExportBenchmark {
+
+    @Param({"1000000", "4000000"})
+    public int edges;
+
+    private Graph<Integer, Double> graph;
+
+    @Setup
+    public void setup() {
+        // a geometric graph has about six edges per node
+        graph = SyntheticGraph.generate(SyntheticGraph.Topology.GEOMETRIC, edges / 6, 331)
+                .toGraph((i, x, y) -> i);
+    }
+
+    @Benchmark
+    public long dot() throws IOException {
+        Counter out = new Counter();
+        try (Writer w = text(out)) {
+            GraphExport.writeDot(graph, w);
+        }
+        return out.bytes;
+    }
+
+    @Benchmark
+    public long graphML() throws IOException {
+        Counter out = new Counter();
+        try (Writer w = text(out)) {
+            GraphExport.writeGraphML(graph, w);
+        }
+        return out.bytes;
+    }
+
+    @Benchmark
+    public long binary() throws IOException {
+        Counter out = new Counter();
+        GraphExport.writeBinary(graph, GraphJournal.Codec.ints(), GraphJournal.Codec.doubles(),
+                out);
+        return out.bytes;
+    }
+
+    /**
+     * The whole graph as one string, then encoded, as writing toString out would do.
+     */
+    @Benchmark
+    public long toStringThenWrite() {
+        return graph.toString().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static Writer text(WritableByteChannel out) {
+        return new BufferedWriter(Channels.newWriter(out, StandardCharsets.UTF_8.newEncoder(),
+                1 << 16), 1 << 16);
+    }
+
+    /**
+     * A channel that only counts what is written to it.
+     */
+    private static class Counter implements WritableByteChannel {
+        long bytes;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            src.position(src.limit());
+            bytes += n;
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package graph.benchmarks;
+
+import graph.Graph;
+import graph.GraphJournal;
+import graph.SyntheticGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * What {@link GraphJournal} costs: building a graph edge by edge with and without the
+ * journal, and recovering a graph from a journal of a given length compared with from a
+ * checkpoint holding the same edges.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GraphJournalBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int edges;
+
+    private List<Integer> nodes;
+    private List<Graph.Edge<Integer, Double>> edgeList;
+
+    /**
+     * Holds only the nodes in its checkpoint, with every edge in the journal after it.
+     */
+    private Path journaled;
+
+    /**
+     * Holds every node and edge in its checkpoint, with an empty journal.
+     */
+    private Path checkpointed;
+
+    /**
+     * Where the write benchmarks put their journal, emptied before each one.
+     */
+    private Path scratch;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        SyntheticGraph generated = SyntheticGraph.generate(SyntheticGraph.Topology.GEOMETRIC,
+                edges / 6 + 1, 331);
+        nodes = new ArrayList<>();
+        for (int i = 0; i < generated.nodeCount(); i++) {
+            nodes.add(i);
+        }
+        edgeList = new ArrayList<>();
+        for (int e = 0; e < generated.edgeCount() && edgeList.size() < edges; e++) {
+            edgeList.add(new Graph.Edge<>(generated.from(e), generated.to(e),
+                    generated.weight(e)));
+        }
+
+        journaled = Files.createTempDirectory("journaled");
+        try (GraphJournal<Integer, Double> j = open(journaled)) {
+            j.addNodes(nodes);
+            j.checkpoint();
+            j.addEdges(edgeList);
+        }
+        checkpointed = Files.createTempDirectory("checkpointed");
+        try (GraphJournal<Integer, Double> j = open(checkpointed)) {
+            j.addNodes(nodes);
+            j.addEdges(edgeList);
+            j.checkpoint();
+        }
+        scratch = Files.createTempDirectory("scratch");
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyScratch() throws IOException {
+        delete(scratch);
+        Files.createDirectories(scratch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        delete(journaled);
+        delete(checkpointed);
+        delete(scratch);
+    }
+
+    private static GraphJournal<Integer, Double> open(Path dir) throws IOException {
+        return GraphJournal.open(dir, GraphJournal.Codec.ints(), GraphJournal.Codec.doubles(),
+                0);
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /**
+     * Adds every edge to a plain graph, one at a time.
+     */
+    @Benchmark
+    public Graph<Integer, Double> addEdgesPlain() {
+        Graph<Integer, Double> g = new Graph<>();
+        g.addNodes(nodes);
+        for (Graph.Edge<Integer, Double> e : edgeList) {
+            g.addEdge(e);
+        }
+        return g;
+    }
+
+    /**
+     * Adds every edge through the journal, one write per edge.
+     */
+    @Benchmark
+    public Graph<Integer, Double> addEdgesJournaled() throws IOException {
+        try (GraphJournal<Integer, Double> j = open(scratch)) {
+            j.addNodes(nodes);
+            for (Graph.Edge<Integer, Double> e : edgeList) {
+                j.addEdge(e);
+            }
+            return j.graph();
+        }
+    }
+
+    /**
+     * Adds every edge through the journal in one batch.
+     */
+    @Benchmark
+    public Graph<Integer, Double> addEdgesJournaledBatch() throws IOException {
+        try (GraphJournal<Integer, Double> j = open(scratch)) {
+            j.addNodes(nodes);
+            j.addEdges(edgeList);
+            return j.graph();
+        }
+    }
+
+    /**
+     * Recovers by replaying every edge from the journal.
+     */
+    @Benchmark
+    public Graph<Integer, Double> recoverFromJournal() throws IOException {
+        try (GraphJournal<Integer, Double> j = open(journaled)) {
+            return j.graph();
+        }
+    }
+
+    /**
+     * Recovers the same graph from a checkpoint alone.
+     */
+    @Benchmark
+    public Graph<Integer, Double> recoverFromCheckpoint() throws IOException {
+        try (GraphJournal<Integer, Double> j = open(checkpointed)) {
+            return j.graph();
+        }
+    }
+}
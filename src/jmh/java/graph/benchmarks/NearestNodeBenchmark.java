@@ -0,0 +1,104 @@
+package graph.benchmarks;
+
+import graph.KdTree;
+import graph.SyntheticGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapping a coordinate to the nearest node of a {@link SyntheticGraph}, with a
+ * {@link KdTree} against scanning every node.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class NearestNodeBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int nodes;
+
+    @Param({"GEOMETRIC", "CLUSTERED"})
+    public SyntheticGraph.Topology topology;
+
+    private double[] xs;
+    private double[] ys;
+    private KdTree<Integer> tree;
+
+    /**
+     * Queries cycle through these points.
+     */
+    private double[] queryX;
+    private double[] queryY;
+    private int next;
+
+    @Setup
+    public void setup() {
+        SyntheticGraph g = SyntheticGraph.generate(topology, nodes, 331);
+        xs = new double[nodes];
+        ys = new double[nodes];
+        List<Integer> indexes = new ArrayList<>(nodes);
+        double maxX = 0;
+        double maxY = 0;
+        for (int i = 0; i < nodes; i++) {
+            xs[i] = g.x(i);
+            ys[i] = g.y(i);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+            indexes.add(i);
+        }
+        long start = System.nanoTime();
+        tree = new KdTree<>(indexes, i -> xs[i], i -> ys[i]);
+        System.out.printf("%n%d nodes: k-d tree built in %.1f ms%n", nodes,
+                (System.nanoTime() - start) / 1e6);
+
+        Random random = new Random(331);
+        queryX = new double[1024];
+        queryY = new double[queryX.length];
+        for (int i = 0; i < queryX.length; i++) {
+            queryX[i] = random.nextDouble() * maxX;
+            queryY[i] = random.nextDouble() * maxY;
+        }
+    }
+
+    @Benchmark
+    public Integer kdTree() {
+        next = (next + 1) & (queryX.length - 1);
+        return tree.nearest(queryX[next], queryY[next]);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        next = (next + 1) & (queryX.length - 1);
+        double x = queryX[next];
+        double y = queryY[next];
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < xs.length; i++) {
+            double dx = xs[i] - x;
+            double dy = ys[i] - y;
+            double d = dx * dx + dy * dy;
+            if (d < bestDistance) {
+                bestDistance = d;
+                best = i;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,91 @@
+package graph.benchmarks;
+
+import graph.Graph;
+import graph.ProfileGraph;
+import graph.ShortestPaths;
+import graph.SyntheticGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route searches over a graph with routing profiles compared with searches over the Graph it
+ * was built from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ProfileGraphBenchmark {
+
+    @Param({"3000", "20000"})
+    public int nodes;
+
+    private Graph<Integer, Double> graph;
+    private ProfileGraph<Integer> profiles;
+
+    /**
+     * Queries cycle through these start and end nodes.
+     */
+    private int[] starts;
+    private int[] ends;
+    private int next;
+
+    @Setup
+    public void setup() {
+        graph = SyntheticGraph.generate(SyntheticGraph.Topology.GEOMETRIC, nodes, 433)
+                .toGraph((i, x, y) -> i);
+        // one edge in ten is blocked and the rest cost up to half again their length
+        profiles = ProfileGraph.of(graph).withProfile("blocked", e ->
+                (e.from * 31 + e.to) % 10 == 0 ? Double.POSITIVE_INFINITY
+                        : e.getLabel() * (1 + (e.from + e.to) % 6 / 10.0));
+        Random random = new Random(433);
+        starts = new int[64];
+        ends = new int[starts.length];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = random.nextInt(nodes);
+            ends[i] = random.nextInt(nodes);
+        }
+    }
+
+    /**
+     * The shortest route over the Graph.
+     */
+    @Benchmark
+    public List<Graph.Edge<Integer, Double>> graph() {
+        int i = next++ & 63;
+        return ShortestPaths.find(graph, starts[i], ends[i]);
+    }
+
+    /**
+     * The shortest route over the profile graph's own edge lengths.
+     */
+    @Benchmark
+    public List<Graph.Edge<Integer, Double>> shortestProfile() {
+        int i = next++ & 63;
+        return profiles.find(ProfileGraph.SHORTEST, starts[i], ends[i]);
+    }
+
+    /**
+     * The least-cost route under a profile that blocks some edges and reweights the rest.
+     */
+    @Benchmark
+    public List<Graph.Edge<Integer, Double>> blockedProfile() {
+        int i = next++ & 63;
+        return profiles.find("blocked", starts[i], ends[i]);
+    }
+}
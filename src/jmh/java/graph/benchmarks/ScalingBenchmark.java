@@ -0,0 +1,88 @@
+package graph.benchmarks;
+
+import graph.Graph;
+import graph.ShortestPaths;
+import graph.SyntheticGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How {@link Graph} scales on road-like {@link SyntheticGraph} networks, from campus size up
+ * to about ten million edges. Setup prints the heap each graph takes per edge; the benchmark
+ * times a shortest-path query between random nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ScalingBenchmark {
+
+    @Param({"GRID", "GEOMETRIC", "CLUSTERED"})
+    public SyntheticGraph.Topology topology;
+
+    @Param({"1000", "10000", "100000", "1000000", "2000000"})
+    public int nodes;
+
+    private Graph<Integer, Double> graph;
+
+    /**
+     * Queries cycle through these start and end nodes.
+     */
+    private int[] starts;
+    private int[] ends;
+    private int next;
+
+    @Setup
+    public void setup() {
+        SyntheticGraph generated = SyntheticGraph.generate(topology, nodes, 331);
+        long before = usedHeap();
+        graph = generated.toGraph((i, x, y) -> i);
+        long after = usedHeap();
+        System.out.printf("%n%s %d nodes, %d edges: %.1f bytes per edge%n", topology, nodes,
+                generated.edgeCount(), (after - before) / (double) generated.edgeCount());
+
+        Random random = new Random(331);
+        starts = new int[64];
+        ends = new int[starts.length];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = random.nextInt(nodes);
+            ends[i] = random.nextInt(nodes);
+        }
+    }
+
+    /**
+     * Gets the heap in use after a full collection.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Shortest path between two random nodes, or exploring everything reachable from the
+     * start if the end cannot be reached.
+     */
+    @Benchmark
+    public List<Graph.Edge<Integer, Double>> shortestPath() {
+        next = (next + 1) % starts.length;
+        return ShortestPaths.find(graph, starts[next], ends[next]);
+    }
+}
@@ -0,0 +1,452 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * <b>AlternativeRoutes</b> finds several loopless routes between two nodes of a
+ * {@link Graph}: either the k cheapest, or good routes that do not all run along the same
+ * roads.
+ *
+ * <p>Both start from shortest-path trees that are searched once per query and then shared by
+ * every route looked at. A search backwards from the end finds the least cost from every
+ * node to the end, which gives the shortest route directly.
+ *
+ * <p>{@link #kShortest} is Yen's algorithm: each route found is branched off at every node
+ * along it by a "spur" search that may not reuse the branches already taken there. The
+ * backwards tree guides every spur search as an A* heuristic that is exact wherever the spur
+ * is not blocked, so a spur search mostly walks straight down to the end, and spurs are only
+ * taken from where a route left its parent, as the earlier ones were already searched.
+ *
+ * <p>The k cheapest routes are usually the shortest route with a small detour each, so
+ * {@link #find} looks for different routes instead: with a second tree searched forwards
+ * from the start, every node v gives the route that goes the cheapest way to v and then the
+ * cheapest way on to the end. These routes are looked at cheapest first, and one is kept if
+ * it is loopless, not too long, and at most a given fraction of its cost runs along routes
+ * kept before it.
+ *
+ * @param <N> type of node in the graph
+ * @param <E> type of edge label in the graph
+ */
+public class AlternativeRoutes<N, E> {
+
+    // Abstraction Function:
+    // searches "graph", and incoming.get(n) lists the edges of graph that end at n.
+    //
+    // Representation Invariant:
+    // graph and incoming are not null &&
+    // every node of graph is a key of incoming and each edge of graph is listed once under
+    // its "to" node
+
+    /**
+     * Most a different route may cost, as a multiple of the shortest route's cost.
+     */
+    public static final double MAX_STRETCH = 1.5;
+
+    private final Graph<N, E> graph;
+    private final Map<N, List<Graph.Edge<N, E>>> incoming;
+
+    /**
+     * Prepares to find routes in a graph.
+     *
+     * @spec.requires graph to not be null
+     * @param graph graph to search; it must not be modified while this is used.
+     */
+    public AlternativeRoutes(Graph<N, E> graph) {
+        this.graph = graph;
+        this.incoming = new HashMap<>();
+        for (N n : graph.getNodes()) {
+            incoming.computeIfAbsent(n, key -> new ArrayList<>());
+            for (Graph.Edge<N, E> e : graph.getNeighbors(n)) {
+                incoming.computeIfAbsent(e.to, key -> new ArrayList<>()).add(e);
+            }
+        }
+        checkRep();
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (graph != null && incoming != null) : "null field";
+        assert (incoming.size() == graph.size()) : "incoming edges missing for a node";
+    }
+
+    /**
+     * Estimates how much heap the finder takes, as {@link MemoryStats} estimates a graph.
+     * The nodes and edges are the graph's and are not counted, only the lists of incoming
+     * edges.
+     *
+     * @spec.requires the graph has not been modified since this was made
+     * @return the estimated bytes of the finder and its incoming edge lists.
+     */
+    public long memoryBytes() {
+        long bytes = MemoryStats.objectBytes(this) + MemoryStats.hashMapBytes(incoming.size());
+        for (List<Graph.Edge<N, E>> edges : incoming.values()) {
+            // an empty ArrayList shares one array; others have room for at least their edges
+            bytes += MemoryStats.objectBytes(edges)
+                    + (edges.isEmpty() ? 0 : MemoryStats.arrayBytes(edges.size(), 4));
+        }
+        return bytes;
+    }
+
+    /**
+     * Finds the k cheapest loopless routes from start to end, cheapest first.
+     *
+     * @spec.requires start, end and weight to not be null && k > 0
+     * @param start node the routes start at.
+     * @param end node the routes end at.
+     * @param k most routes wanted.
+     * @param weight gives the cost of each edge; infinite for one that must not be used.
+     * @return the routes, each as its edges in order; an empty list if end cannot be
+     *         reached from start, or a list of one empty route if start equals end. Fewer
+     *         than k are returned if there are no more loopless routes.
+     */
+    public List<List<Graph.Edge<N, E>>> kShortest(N start, N end, int k,
+                                                  EdgeWeight<N, E> weight) {
+        List<List<Graph.Edge<N, E>>> routes = new ArrayList<>();
+        if (!graph.containsNode(start) || !graph.containsNode(end)) {
+            return routes;
+        }
+        Map<N, Graph.Edge<N, E>> next = new HashMap<>();
+        Map<N, Double> toEnd = treeTo(end, weight, next);
+        if (!toEnd.containsKey(start)) {
+            return routes;
+        }
+        List<Graph.Edge<N, E>> shortest = treePath(start, next);
+        PriorityQueue<Candidate<N, E>> queue = new PriorityQueue<>();
+        Set<List<Graph.Edge<N, E>>> seen = new HashSet<>();
+        queue.add(new Candidate<>(shortest, toEnd.get(start), 0));
+        seen.add(shortest);
+        List<Candidate<N, E>> taken = new ArrayList<>();
+        while (routes.size() < k && !queue.isEmpty()) {
+            Candidate<N, E> c = queue.remove();
+            taken.add(c);
+            routes.add(Collections.unmodifiableList(c.edges));
+            if (routes.size() < k) {
+                branch(c, end, toEnd, weight, taken, seen, queue);
+            }
+        }
+        return routes;
+    }
+
+    /**
+     * Finds up to k loopless routes from start to end, cheapest first, that differ from each
+     * other: each shares at most maxSimilarity of its cost with any route before it, and
+     * costs at most MAX_STRETCH times the shortest route.
+     *
+     * @spec.requires start, end and weight to not be null && k > 0
+     * @param start node the routes start at.
+     * @param end node the routes end at.
+     * @param k most routes wanted.
+     * @param maxSimilarity largest fraction, from 0 to 1, of a route's cost that may run
+     *                      along edges of a cheaper route that was kept.
+     * @param weight gives the cost of each edge; infinite for one that must not be used.
+     * @return the routes, each as its edges in order, with a least-cost route first; an
+     *         empty list if end cannot be reached from start, or a list of one empty route
+     *         if start equals end. Fewer than k are returned if no more routes that differ
+     *         enough are found.
+     */
+    public List<List<Graph.Edge<N, E>>> find(N start, N end, int k, double maxSimilarity,
+                                             EdgeWeight<N, E> weight) {
+        List<List<Graph.Edge<N, E>>> routes = new ArrayList<>();
+        if (!graph.containsNode(start) || !graph.containsNode(end)) {
+            return routes;
+        }
+        Map<N, Graph.Edge<N, E>> next = new HashMap<>();
+        Map<N, Double> toEnd = treeTo(end, weight, next);
+        if (!toEnd.containsKey(start)) {
+            return routes;
+        }
+        List<Graph.Edge<N, E>> shortest = treePath(start, next);
+        routes.add(Collections.unmodifiableList(shortest));
+        if (k == 1 || shortest.isEmpty()) {
+            return routes;
+        }
+        double limit = MAX_STRETCH * toEnd.get(start);
+        List<Set<Graph.Edge<N, E>>> keptEdges = new ArrayList<>();
+        keptEdges.add(new HashSet<>(shortest));
+
+        Map<N, Graph.Edge<N, E>> previous = new HashMap<>();
+        Map<N, Double> fromStart = treeFrom(start, weight, previous);
+        // every node on both trees is a way through, cheapest first
+        List<Entry<N>> vias = new ArrayList<>();
+        for (Map.Entry<N, Double> f : fromStart.entrySet()) {
+            Double rest = toEnd.get(f.getKey());
+            if (rest != null && f.getValue() + rest <= limit) {
+                vias.add(new Entry<>(f.getKey(), f.getValue() + rest));
+            }
+        }
+        PriorityQueue<Entry<N>> queue = new PriorityQueue<>(vias);
+        // nodes on a route already looked at mostly lead back to the same route, and each
+        // route looked at covers at least its via node, so at most every node is tried
+        Set<N> covered = new HashSet<>();
+        covered.add(start);
+        for (Graph.Edge<N, E> e : shortest) {
+            covered.add(e.to);
+        }
+        while (routes.size() < k && !queue.isEmpty()) {
+            N via = queue.remove().node;
+            if (covered.contains(via)) {
+                continue;
+            }
+            List<Graph.Edge<N, E>> route = new ArrayList<>();
+            for (Graph.Edge<N, E> e = previous.get(via); e != null; e = previous.get(e.from)) {
+                route.add(e);
+            }
+            Collections.reverse(route);
+            route.addAll(treePath(via, next));
+            for (Graph.Edge<N, E> e : route) {
+                covered.add(e.to);
+            }
+            double cost = 0;
+            Set<N> visited = new HashSet<>();
+            visited.add(start);
+            boolean loopless = true;
+            for (Graph.Edge<N, E> e : route) {
+                cost += weight.weight(e);
+                loopless &= visited.add(e.to);
+            }
+            if (loopless && differs(route, cost, keptEdges, maxSimilarity, weight)) {
+                routes.add(Collections.unmodifiableList(route));
+                keptEdges.add(new HashSet<>(route));
+            }
+        }
+        return routes;
+    }
+
+    /**
+     * Checks whether little enough of a route runs along routes already kept.
+     */
+    private boolean differs(List<Graph.Edge<N, E>> route, double cost,
+                            List<Set<Graph.Edge<N, E>>> keptEdges, double maxSimilarity,
+                            EdgeWeight<N, E> weight) {
+        for (Set<Graph.Edge<N, E>> kept : keptEdges) {
+            double shared = 0;
+            for (Graph.Edge<N, E> e : route) {
+                if (kept.contains(e)) {
+                    shared += weight.weight(e);
+                }
+            }
+            if (shared > maxSimilarity * cost) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds to the queue the cheapest way of leaving a candidate at each node from where it
+     * left its parent on, other than the ways already taken from the same start of route.
+     */
+    private void branch(Candidate<N, E> c, N end, Map<N, Double> toEnd,
+                        EdgeWeight<N, E> weight, List<Candidate<N, E>> taken,
+                        Set<List<Graph.Edge<N, E>>> seen, PriorityQueue<Candidate<N, E>> queue) {
+        // the part of the route before the spur may not be revisited, which keeps the
+        // combined route loopless
+        Set<N> blockedNodes = new HashSet<>();
+        double rootCost = 0;
+        for (int i = 0; i < c.deviation; i++) {
+            blockedNodes.add(c.edges.get(i).from);
+            rootCost += weight.weight(c.edges.get(i));
+        }
+        for (int i = c.deviation; i < c.edges.size(); i++) {
+            N spur = c.edges.get(i).from;
+            List<Graph.Edge<N, E>> root = c.edges.subList(0, i);
+            Set<Graph.Edge<N, E>> blockedEdges = new HashSet<>();
+            for (Candidate<N, E> t : taken) {
+                if (t.edges.size() > i && t.edges.subList(0, i).equals(root)) {
+                    blockedEdges.add(t.edges.get(i));
+                }
+            }
+            List<Graph.Edge<N, E>> spurPath = new ArrayList<>();
+            double spurCost = search(spur, end, blockedNodes, blockedEdges, toEnd, weight,
+                    spurPath);
+            if (spurCost < Double.POSITIVE_INFINITY) {
+                List<Graph.Edge<N, E>> combined = new ArrayList<>(root);
+                combined.addAll(spurPath);
+                if (seen.add(combined)) {
+                    queue.add(new Candidate<>(combined, rootCost + spurCost, i));
+                }
+            }
+            blockedNodes.add(spur);
+            rootCost += weight.weight(c.edges.get(i));
+        }
+    }
+
+    /**
+     * Searches backwards from the end for the least cost from every node to it.
+     *
+     * @param next filled in with the first edge of a least-cost path from each node to end.
+     * @return a map from each node that can reach end to its least cost.
+     */
+    private Map<N, Double> treeTo(N end, EdgeWeight<N, E> weight,
+                                  Map<N, Graph.Edge<N, E>> next) {
+        Map<N, Double> cost = new HashMap<>();
+        Set<N> finished = new HashSet<>();
+        PriorityQueue<Entry<N>> active = new PriorityQueue<>();
+        cost.put(end, 0.0);
+        active.add(new Entry<>(end, 0.0));
+        while (!active.isEmpty()) {
+            Entry<N> min = active.remove();
+            if (!finished.add(min.node)) {
+                continue;
+            }
+            for (Graph.Edge<N, E> e : incoming.get(min.node)) {
+                double c = min.priority + weight.weight(e);
+                if (c == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                Double known = cost.get(e.from);
+                if (known == null || c < known) {
+                    cost.put(e.from, c);
+                    next.put(e.from, e);
+                    active.add(new Entry<>(e.from, c));
+                }
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Searches forwards from the start for the least cost from it to every node.
+     *
+     * @param previous filled in with the last edge of a least-cost path from start to each
+     *                 node.
+     * @return a map from each node start can reach to its least cost.
+     */
+    private Map<N, Double> treeFrom(N start, EdgeWeight<N, E> weight,
+                                    Map<N, Graph.Edge<N, E>> previous) {
+        Map<N, Double> cost = new HashMap<>();
+        Set<N> finished = new HashSet<>();
+        PriorityQueue<Entry<N>> active = new PriorityQueue<>();
+        cost.put(start, 0.0);
+        active.add(new Entry<>(start, 0.0));
+        while (!active.isEmpty()) {
+            Entry<N> min = active.remove();
+            if (!finished.add(min.node)) {
+                continue;
+            }
+            for (Graph.Edge<N, E> e : graph.getNeighbors(min.node)) {
+                double c = min.priority + weight.weight(e);
+                if (c == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                Double known = cost.get(e.to);
+                if (known == null || c < known) {
+                    cost.put(e.to, c);
+                    previous.put(e.to, e);
+                    active.add(new Entry<>(e.to, c));
+                }
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Follows the backwards tree from a node down to the end.
+     */
+    private static <N, E> List<Graph.Edge<N, E>> treePath(N from,
+                                                          Map<N, Graph.Edge<N, E>> next) {
+        List<Graph.Edge<N, E>> path = new ArrayList<>();
+        for (Graph.Edge<N, E> e = next.get(from); e != null; e = next.get(e.to)) {
+            path.add(e);
+        }
+        return path;
+    }
+
+    /**
+     * A* search from a spur node to the end, avoiding some nodes and edges, guided by the
+     * unblocked least costs to the end.
+     *
+     * @param path filled in with the edges of the path found.
+     * @return the cost of the path found, or infinity if the end cannot be reached.
+     */
+    private double search(N from, N end, Set<N> blockedNodes,
+                          Set<Graph.Edge<N, E>> blockedEdges, Map<N, Double> toEnd,
+                          EdgeWeight<N, E> weight, List<Graph.Edge<N, E>> path) {
+        Map<N, Double> cost = new HashMap<>();
+        Map<N, Graph.Edge<N, E>> via = new HashMap<>();
+        Set<N> finished = new HashSet<>();
+        PriorityQueue<Entry<N>> active = new PriorityQueue<>();
+        cost.put(from, 0.0);
+        active.add(new Entry<>(from, toEnd.get(from)));
+        while (!active.isEmpty()) {
+            Entry<N> min = active.remove();
+            if (!finished.add(min.node)) {
+                continue;
+            }
+            if (min.node.equals(end)) {
+                for (Graph.Edge<N, E> e = via.get(end); e != null; e = via.get(e.from)) {
+                    path.add(e);
+                }
+                Collections.reverse(path);
+                return cost.get(end);
+            }
+            double at = cost.get(min.node);
+            for (Graph.Edge<N, E> e : graph.getNeighbors(min.node)) {
+                Double h = toEnd.get(e.to);
+                // a node that cannot reach the end in the whole graph cannot here either
+                if (h == null || blockedNodes.contains(e.to) || blockedEdges.contains(e)) {
+                    continue;
+                }
+                double c = at + weight.weight(e);
+                if (c == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                Double known = cost.get(e.to);
+                if (known == null || c < known) {
+                    cost.put(e.to, c);
+                    via.put(e.to, e);
+                    active.add(new Entry<>(e.to, c + h));
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * A route waiting to be looked at, with its cost and the index of the edge at which it
+     * left the route it was branched from.
+     */
+    private static class Candidate<N, E> implements Comparable<Candidate<N, E>> {
+        final List<Graph.Edge<N, E>> edges;
+        final double cost;
+        final int deviation;
+
+        Candidate(List<Graph.Edge<N, E>> edges, double cost, int deviation) {
+            this.edges = edges;
+            this.cost = cost;
+            this.deviation = deviation;
+        }
+
+        @Override
+        public int compareTo(Candidate<N, E> other) {
+            return Double.compare(cost, other.cost);
+        }
+    }
+
+    /**
+     * A node waiting in a queue with its priority.
+     */
+    private static class Entry<N> implements Comparable<Entry<N>> {
+        final N node;
+        final double priority;
+
+        Entry(N node, double priority) {
+            this.node = node;
+            this.priority = priority;
+        }
+
+        @Override
+        public int compareTo(Entry<N> other) {
+            return Double.compare(priority, other.priority);
+        }
+    }
+}
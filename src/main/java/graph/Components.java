@@ -0,0 +1,397 @@
+package graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <b>Components</b> is an immutable index of the strongly connected components of a
+ * {@link Graph}, for telling whether one node can reach another without searching.
+ *
+ * <p>Since edges are one-way, a node may be unable to reach another even when the graph looks
+ * connected. Two nodes in the same component can always reach each other; a node in one
+ * component can reach a node in another only if there is a path between the components in
+ * the condensation, the graph with one node per component that has no cycles.
+ *
+ * <p>Components are found with an iterative version of Tarjan's algorithm, so deep graphs do
+ * not overflow the stack. When there are at most {@link #MAX_CLOSURE_COMPONENTS} components,
+ * the index also keeps, for each component, a bitset of the components it can reach, and
+ * {@link #canReach} takes constant time. With more, canReach searches the condensation,
+ * which is still much smaller than the graph.
+ *
+ * <p>The index remembers the {@link Graph#version()} it was built from, and
+ * {@link #refresh(Graph)} rebuilds it only if the graph has changed since.
+ *
+ * @param <N> type of node in the graph
+ */
+public class Components<N> {
+
+    // Abstraction Function:
+    // node n is in component componentOf.get(n). The members of component c are
+    // members[start[c]] to members[start[c + 1] - 1]. Component c has an edge to each of
+    // successors[c] in the condensation. If closure != null, closure[c] holds c and every
+    // component reachable from c. The index describes the graph at graphVersion.
+    //
+    // Representation Invariant:
+    // componentOf, members, start and successors are not null &&
+    // start has componentCount() + 1 entries and never decreases &&
+    // components are numbered in reverse topological order: every successor of c is < c &&
+    // closure == null or has one entry per component
+
+    /**
+     * Most components for which reachability between every pair is stored, taking at most
+     * 16 MiB.
+     */
+    public static final int MAX_CLOSURE_COMPONENTS = 1 << 14;
+
+    private final Map<N, Integer> componentOf;
+    private final Object[] members;
+    private final int[] start;
+    private final int[][] successors;
+    private final BitSet[] closure;
+    private final long graphVersion;
+
+    private Components(Map<N, Integer> componentOf, Object[] members, int[] start,
+                       int[][] successors, BitSet[] closure, long graphVersion) {
+        this.componentOf = componentOf;
+        this.members = members;
+        this.start = start;
+        this.successors = successors;
+        this.closure = closure;
+        this.graphVersion = graphVersion;
+        checkRep();
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (start.length == successors.length + 1) : "wrong number of offsets";
+        assert (closure == null || closure.length == successors.length) : "closure size";
+    }
+
+    /**
+     * Finds the strongly connected components of a graph.
+     *
+     * @spec.requires graph to not be null
+     * @param graph graph to index; it is not changed.
+     * @param <N> type of node in the graph
+     * @param <E> type of edge label in the graph
+     * @return the index of graph's components.
+     */
+    public static <N, E> Components<N> of(Graph<N, E> graph) {
+        long version = graph.version();
+        int n = graph.size();
+        Map<N, Integer> id = new HashMap<>((int) (n / 0.75f) + 1);
+        Object[] nodes = new Object[n];
+        for (N node : graph.getNodes()) {
+            nodes[id.size()] = node;
+            id.put(node, id.size());
+        }
+
+        // Tarjan's algorithm with an explicit stack of the nodes being explored and the
+        // edges each has left to follow. index[v] is 0 until v is reached, then its visit
+        // order from 1; component[v] is -1 until v's component is complete.
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+        int[] onStack = new int[n];
+        int stackSize = 0;
+        int[] callNode = new int[n];
+        List<Iterator<Graph.Edge<N, E>>> callEdges = new ArrayList<>();
+        int visited = 0;
+        int components = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] != 0) {
+                continue;
+            }
+            int depth = 0;
+            callNode[0] = root;
+            callEdges.clear();
+            callEdges.add(graph.getNeighbors(node(nodes, root)).iterator());
+            index[root] = low[root] = ++visited;
+            onStack[stackSize++] = root;
+            while (depth >= 0) {
+                int v = callNode[depth];
+                Iterator<Graph.Edge<N, E>> edges = callEdges.get(depth);
+                if (edges.hasNext()) {
+                    int w = id.get(edges.next().to);
+                    if (index[w] == 0) {
+                        // descend into w
+                        index[w] = low[w] = ++visited;
+                        onStack[stackSize++] = w;
+                        depth++;
+                        callNode[depth] = w;
+                        Iterator<Graph.Edge<N, E>> next =
+                                graph.getNeighbors(node(nodes, w)).iterator();
+                        if (depth < callEdges.size()) {
+                            callEdges.set(depth, next);
+                        } else {
+                            callEdges.add(next);
+                        }
+                    } else if (component[w] < 0) {
+                        // w is still on the stack, so it is in v's component or an ancestor's
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                if (low[v] == index[v]) {
+                    // v is the root of a component: everything above it on the stack
+                    int w;
+                    do {
+                        w = onStack[--stackSize];
+                        component[w] = components;
+                    } while (w != v);
+                    components++;
+                }
+                depth--;
+                if (depth >= 0) {
+                    int parent = callNode[depth];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+            }
+        }
+
+        // members grouped by component
+        int[] start = new int[components + 1];
+        for (int v = 0; v < n; v++) {
+            start[component[v] + 1]++;
+        }
+        for (int c = 0; c < components; c++) {
+            start[c + 1] += start[c];
+        }
+        int[] fill = Arrays.copyOf(start, components);
+        Object[] members = new Object[n];
+        for (int v = 0; v < n; v++) {
+            members[fill[component[v]]++] = nodes[v];
+        }
+
+        // edges between components; Tarjan completes a component only after every component
+        // it reaches, so each successor has a smaller number
+        int[][] successors = new int[components][];
+        BitSet seen = new BitSet(components);
+        int[] buffer = new int[16];
+        for (int c = 0; c < components; c++) {
+            int count = 0;
+            for (int i = start[c]; i < start[c + 1]; i++) {
+                for (Graph.Edge<N, E> e : graph.getNeighbors(node(members, i))) {
+                    int d = component[id.get(e.to)];
+                    if (d != c && !seen.get(d)) {
+                        seen.set(d);
+                        if (count == buffer.length) {
+                            buffer = Arrays.copyOf(buffer, 2 * count);
+                        }
+                        buffer[count++] = d;
+                    }
+                }
+            }
+            successors[c] = Arrays.copyOf(buffer, count);
+            for (int i = 0; i < count; i++) {
+                seen.clear(buffer[i]);
+            }
+        }
+
+        BitSet[] closure = null;
+        if (components <= MAX_CLOSURE_COMPONENTS) {
+            closure = new BitSet[components];
+            for (int c = 0; c < components; c++) {
+                closure[c] = new BitSet(c + 1);
+                closure[c].set(c);
+                for (int d : successors[c]) {
+                    closure[c].or(closure[d]);
+                }
+            }
+        }
+        // the node numbering is no longer needed, so its map is reused for the components
+        id.replaceAll((node, v) -> component[v]);
+        return new Components<>(Collections.unmodifiableMap(id), members, start, successors,
+                closure, version);
+    }
+
+    /**
+     * Gets an index that is up to date with a graph.
+     *
+     * @spec.requires graph to not be null && this index was built from graph
+     * @param graph the graph this index was built from, possibly changed since.
+     * @return this index if graph has not changed since it was built, or a new one.
+     */
+    public Components<N> refresh(Graph<N, ?> graph) {
+        return graph.version() == graphVersion ? this : of(graph);
+    }
+
+    /**
+     * Asks whether the index still describes a graph.
+     *
+     * @spec.requires graph to not be null && this index was built from graph
+     * @param graph the graph this index was built from.
+     * @return whether graph has not changed since the index was built.
+     */
+    public boolean isCurrent(Graph<N, ?> graph) {
+        return graph.version() == graphVersion;
+    }
+
+    /**
+     * Asks whether there is a path from one node to another.
+     *
+     * @spec.requires from and to to not be null
+     * @param from node the path would start at.
+     * @param to node the path would end at.
+     * @return whether both nodes are in the graph and to can be reached from from. A node
+     *         can always reach itself.
+     */
+    public boolean canReach(N from, N to) {
+        Integer a = componentOf.get(from);
+        Integer b = componentOf.get(to);
+        if (a == null || b == null) {
+            return false;
+        }
+        if (a.equals(b)) {
+            return true;
+        }
+        if (b > a) {
+            // successors have smaller numbers, so a component can only reach smaller ones
+            return false;
+        }
+        if (closure != null) {
+            return closure[a].get(b);
+        }
+        BitSet seen = new BitSet(a + 1);
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(a);
+        seen.set(a);
+        while (!pending.isEmpty()) {
+            for (int d : successors[pending.pop()]) {
+                if (d == b) {
+                    return true;
+                }
+                if (d > b && !seen.get(d)) {
+                    seen.set(d);
+                    pending.push(d);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the component a node is in.
+     *
+     * @spec.requires node to not be null
+     * @param node a node of the graph.
+     * @return the node's component, from 0 to componentCount() - 1, or -1 if it is not in
+     *         the graph. A component can only reach components with smaller numbers.
+     */
+    public int component(N node) {
+        Integer c = componentOf.get(node);
+        return c == null ? -1 : c;
+    }
+
+    /**
+     * Gets the number of components.
+     *
+     * @return number of strongly connected components; 0 for an empty graph.
+     */
+    public int componentCount() {
+        return successors.length;
+    }
+
+    /**
+     * Estimates how much heap the index takes, as {@link MemoryStats} estimates a graph, not
+     * counting the nodes themselves.
+     *
+     * @return the estimated bytes of the index, its arrays and its reachability table.
+     */
+    public long memoryBytes() {
+        long bytes = MemoryStats.objectBytes(this) + MemoryStats.hashMapBytes(componentOf.size())
+                + MemoryStats.arrayBytes(members.length, 4)
+                + MemoryStats.arrayBytes(start.length, 4)
+                + MemoryStats.arrayBytes(successors.length, 4);
+        for (Integer c : componentOf.values()) {
+            // Integer.valueOf shares the boxes of small numbers
+            bytes += c >= -128 && c <= 127 ? 0 : MemoryStats.objectBytes(c);
+        }
+        for (int[] s : successors) {
+            bytes += MemoryStats.arrayBytes(s.length, 4);
+        }
+        if (closure != null) {
+            bytes += MemoryStats.arrayBytes(closure.length, 4);
+            for (BitSet reach : closure) {
+                bytes += MemoryStats.objectBytes(reach)
+                        + MemoryStats.arrayBytes(reach.size() / Long.SIZE, 8);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the number of nodes in a component.
+     *
+     * @spec.requires 0 <= component < componentCount()
+     * @param component the component.
+     * @return how many nodes it has, at least 1.
+     */
+    public int size(int component) {
+        return start[component + 1] - start[component];
+    }
+
+    /**
+     * Gets the nodes of a component.
+     *
+     * @spec.requires 0 <= component < componentCount()
+     * @param component the component.
+     * @return the nodes in it, in no particular order.
+     */
+    public List<N> members(int component) {
+        List<N> found = new ArrayList<>(size(component));
+        for (int i = start[component]; i < start[component + 1]; i++) {
+            found.add(node(members, i));
+        }
+        return found;
+    }
+
+    /**
+     * Gets the components a component has edges to in the condensation.
+     *
+     * @spec.requires 0 <= component < componentCount()
+     * @param component the component.
+     * @return the other components some node of it has an edge to; each is smaller than
+     *         component.
+     */
+    public List<Integer> successors(int component) {
+        List<Integer> found = new ArrayList<>(successors[component].length);
+        for (int d : successors[component]) {
+            found.add(d);
+        }
+        return found;
+    }
+
+    /**
+     * Finds the component with the most nodes.
+     *
+     * @return the largest component, the smallest-numbered of any tie, or -1 if the graph is
+     *         empty.
+     */
+    public int largest() {
+        int best = -1;
+        for (int c = 0; c < componentCount(); c++) {
+            if (best < 0 || size(c) > size(best)) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <N> N node(Object[] nodes, int i) {
+        return (N) nodes[i];
+    }
+}
@@ -0,0 +1,35 @@
+package graph;
+
+/**
+ * <b>EdgeWeight</b> gives the cost of an edge for a search, so one {@link Graph} can be
+ * searched under different cost rules without building a reweighted copy of it.
+ *
+ * <p>It is called once for every edge a search relaxes, so an implementation should only read
+ * the edge and whatever tables it already holds, and not allocate.
+ *
+ * @param <N> type of node in the graph
+ * @param <E> type of edge label in the graph
+ */
+@FunctionalInterface
+public interface EdgeWeight<N, E> {
+
+    /**
+     * Gets the cost of traversing an edge.
+     *
+     * @spec.requires edge to not be null
+     * @param edge an edge of the graph being searched.
+     * @return the edge's cost, which must be >= 0, or Double.POSITIVE_INFINITY if the edge
+     *         must not be used.
+     */
+    double weight(Graph.Edge<N, E> edge);
+
+    /**
+     * Gets the weight that uses each edge's label as its cost.
+     *
+     * @param <N> type of node in the graph
+     * @return a weight that reads the label of an edge.
+     */
+    static <N> EdgeWeight<N, Double> labels() {
+        return edge -> edge.getLabel();
+    }
+}
@@ -97,7 +97,9 @@ public class Graph<N, E> {
         public boolean equals(Object other) {
             checkRep();
             if (other instanceof Edge) {
-                return hashCode() == (other).hashCode();
+                // equal hash codes do not make equal edges; distinct edges can collide
+                Edge<?, ?> e = (Edge<?, ?>) other;
+                return from.equals(e.from) && to.equals(e.to) && label.equals(e.label);
             }
             checkRep();
             return false;
@@ -163,6 +165,12 @@ public class Graph<N, E> {
      */
     private final Map<N, Set<Edge<N, E>>> graph;
 
+    /**
+     * Counts the calls that may have changed the graph, so that anything computed from it
+     * can tell whether it is out of date.
+     */
+    private long version;
+
     /**
      * For checkRep.
      */
@@ -180,6 +188,19 @@ public class Graph<N, E> {
     }
 
 
+    /**
+     * Constructs a new Graph sized to hold a number of nodes without growing.
+     *
+     * @spec.requires expectedNodes >= 0
+     * @param expectedNodes how many nodes the graph is expected to hold.
+     * @spec.effects Constructs a new Graph that is empty.
+     */
+    public Graph(int expectedNodes) {
+        graph = new HashMap<>((int) (expectedNodes / 0.75f) + 1);
+        checkRep();
+    }
+
+
     /**
      * Throws an exception if the representation invariant is violated.
      */
@@ -256,6 +277,7 @@ public class Graph<N, E> {
         checkRep();
         if (!graph.containsKey(node)) {
             graph.put(node, new HashSet<>());
+            version++;
         }
         checkRep();
     }
@@ -273,9 +295,56 @@ public class Graph<N, E> {
     public void addEdge(Edge<N, E> edge) {
         checkRep();
         if (graph.containsKey(edge.from) && graph.containsKey(edge.to)) {
-            graph.get(edge.from).add(edge);
+            if (graph.get(edge.from).add(edge)) {
+                version++;
+            }
+        }
+        checkRep();
+    }
+
+
+    /**
+     * Adds all given nodes to the graph. Nodes that exist are not added again.
+     *
+     * @spec.requires nodes and every node in it to not be null.
+     * @param nodes we are adding.
+     * @spec.modifies this
+     * @spec.effects graph has every node in nodes.
+     */
+    public void addNodes(Collection<? extends N> nodes) {
+        checkRep();
+        for (N node : nodes) {
+            if (!graph.containsKey(node)) {
+                graph.put(node, new HashSet<>());
+                version++;
+            }
+        }
+        checkRep();
+    }
+
+
+    /**
+     * Adds all given edges to the graph, as addEdge does for each one, but checks the
+     * representation only once for the whole batch.
+     *
+     * @spec.requires edges and every edge in it to not be null.
+     * @param edges we are adding in the graph.
+     * @spec.modifies this
+     * @spec.effects graph has every edge in edges whose nodes are both present.
+     * @return the number of edges that were not in the graph before and were added.
+     */
+    public int addEdges(Collection<? extends Edge<N, E>> edges) {
+        checkRep();
+        int added = 0;
+        for (Edge<N, E> edge : edges) {
+            Set<Edge<N, E>> outgoing = graph.get(edge.from);
+            if (outgoing != null && graph.containsKey(edge.to) && outgoing.add(edge)) {
+                added++;
+            }
         }
+        version += added;
         checkRep();
+        return added;
     }
 
 
@@ -292,6 +361,22 @@ public class Graph<N, E> {
     }
 
 
+    /**
+     * Gets the size of the graph and estimates how much heap it takes, structure by
+     * structure, and how much a compact layout would take instead.
+     *
+     * <p>This walks the graph once without copying or locking it and allocates only the
+     * result, so it can run on a background thread on a large graph while others read it.
+     *
+     * @spec.requires the graph is not modified during the call.
+     * @return the node and edge counts, out-degree histogram and memory estimates.
+     */
+    public MemoryStats memoryStats() {
+        checkRep();
+        return MemoryStats.of(graph);
+    }
+
+
     /**
      * Gets all the node from the graph.
      *
@@ -309,6 +394,9 @@ public class Graph<N, E> {
      * <p> nodes are shown with all of their edges. e.g.:
      * {node1=[edge1, edge2], node2=[edge1], ... nodeN=[edge1, ... edgeN]}
      *
+     * <p> the whole string is built in memory; use {@link GraphExport} to write out a
+     * large graph.
+     *
      * @spec.requires graph to not be null.
      * @return string representation of graph.
      */
@@ -353,5 +441,18 @@ public class Graph<N, E> {
     public void clear() {
         checkRep();
         graph.clear();
+        version++;
+    }
+
+
+    /**
+     * Gets a number that changes whenever the graph does, so that something computed from
+     * the graph, such as its {@link Components}, can tell whether it is out of date.
+     *
+     * @return a count of the changes made to the graph; it only ever goes up.
+     */
+    public long version() {
+        checkRep();
+        return version;
     }
 }
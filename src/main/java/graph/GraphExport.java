@@ -0,0 +1,241 @@
+package graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * <b>GraphExport</b> writes a {@link Graph} out in formats other tools can read: Graphviz DOT,
+ * GraphML, and a compact binary format that {@link #readBinary} loads back.
+ *
+ * <p>Unlike {@link Graph#toString()}, the exporters stream: they walk the graph once and write
+ * each node and edge as they reach it, so the extra memory they use does not grow with the
+ * graph. The text formats write to any {@link Appendable}, which should be buffered, such as a
+ * BufferedWriter over a file or over {@link Channels#newWriter} of a channel. The binary format
+ * writes to a {@link WritableByteChannel} through a fixed-size buffer.
+ *
+ * <p>Nodes and labels are written with their toString in the text formats. Each node is given
+ * as its own record, so nodes without edges are kept.
+ *
+ * <p>The binary format is a magic number and the node count, then for each node the node
+ * itself, its number of outgoing edges, and each edge as its destination node and label, in
+ * the encodings of the {@link GraphJournal.Codec}s given. Nodes are written by value rather
+ * than as indexes, so no table of them is needed to write or read the graph.
+ */
+public class GraphExport {
+
+    private static final int BINARY_MAGIC = 0x4745_5850;
+
+    /**
+     * Bytes buffered between the binary format and its channel.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private GraphExport() {
+    }
+
+    /**
+     * Writes a graph as a Graphviz DOT digraph, with each edge's label as its label.
+     *
+     * @spec.requires graph and out to not be null && graph is not modified during the call
+     * @param graph graph to write.
+     * @param out where to write it.
+     * @param <N> type of node in the graph
+     * @param <E> type of edge label in the graph
+     * @throws IOException if out cannot be written to.
+     */
+    public static <N, E> void writeDot(Graph<N, E> graph, Appendable out) throws IOException {
+        out.append("digraph {\n");
+        for (N node : graph.getNodes()) {
+            out.append("  ");
+            dotId(node, out);
+            out.append(";\n");
+        }
+        for (N node : graph.getNodes()) {
+            for (Graph.Edge<N, E> e : graph.getNeighbors(node)) {
+                out.append("  ");
+                dotId(e.from, out);
+                out.append(" -> ");
+                dotId(e.to, out);
+                out.append(" [label=");
+                dotId(e.getLabel(), out);
+                out.append("];\n");
+            }
+        }
+        out.append("}\n");
+    }
+
+    /**
+     * Writes a graph as a GraphML document, with each edge's label in a "label" data item.
+     *
+     * @spec.requires graph and out to not be null && graph is not modified during the call
+     * @param graph graph to write.
+     * @param out where to write it.
+     * @param <N> type of node in the graph
+     * @param <E> type of edge label in the graph
+     * @throws IOException if out cannot be written to.
+     */
+    public static <N, E> void writeGraphML(Graph<N, E> graph, Appendable out)
+            throws IOException {
+        out.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.append("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+        out.append("  <key id=\"label\" for=\"edge\" attr.name=\"label\""
+                + " attr.type=\"string\"/>\n");
+        out.append("  <graph edgedefault=\"directed\">\n");
+        for (N node : graph.getNodes()) {
+            out.append("    <node id=\"");
+            xml(node, out);
+            out.append("\"/>\n");
+        }
+        for (N node : graph.getNodes()) {
+            for (Graph.Edge<N, E> e : graph.getNeighbors(node)) {
+                out.append("    <edge source=\"");
+                xml(e.from, out);
+                out.append("\" target=\"");
+                xml(e.to, out);
+                out.append("\"><data key=\"label\">");
+                xml(e.getLabel(), out);
+                out.append("</data></edge>\n");
+            }
+        }
+        out.append("  </graph>\n");
+        out.append("</graphml>\n");
+    }
+
+    /**
+     * Writes a graph in the binary format. The channel is not closed.
+     *
+     * @spec.requires graph, nodes, labels and out to not be null && graph is not modified
+     *                during the call
+     * @param graph graph to write.
+     * @param nodes encoding of the nodes.
+     * @param labels encoding of the edge labels.
+     * @param out where to write it.
+     * @param <N> type of node in the graph
+     * @param <E> type of edge label in the graph
+     * @throws IOException if out cannot be written to.
+     */
+    public static <N, E> void writeBinary(Graph<N, E> graph, GraphJournal.Codec<N> nodes,
+                                          GraphJournal.Codec<E> labels,
+                                          WritableByteChannel out) throws IOException {
+        // flushed but not closed, since closing it would close the channel
+        DataOutputStream data = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(out), BUFFER_SIZE));
+        data.writeInt(BINARY_MAGIC);
+        data.writeInt(graph.size());
+        for (N node : graph.getNodes()) {
+            nodes.write(node, data);
+            data.writeInt(graph.getNeighbors(node).size());
+            for (Graph.Edge<N, E> e : graph.getNeighbors(node)) {
+                nodes.write(e.to, data);
+                labels.write(e.getLabel(), data);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a graph written by writeBinary. The channel is not closed, and may have been
+     * read past the end of the graph.
+     *
+     * @spec.requires nodes, labels and in to not be null
+     * @param nodes encoding of the nodes.
+     * @param labels encoding of the edge labels.
+     * @param in where to read it from.
+     * @param <N> type of node in the graph
+     * @param <E> type of edge label in the graph
+     * @return the graph.
+     * @throws IOException if in cannot be read or does not hold a graph in the binary format,
+     *         such as EOFException if it ends early.
+     */
+    public static <N, E> Graph<N, E> readBinary(GraphJournal.Codec<N> nodes,
+                                                GraphJournal.Codec<E> labels,
+                                                ReadableByteChannel in) throws IOException {
+        DataInputStream data = new DataInputStream(
+                new BufferedInputStream(Channels.newInputStream(in), BUFFER_SIZE));
+        if (data.readInt() != BINARY_MAGIC) {
+            throw new IOException("not a graph export");
+        }
+        int count = data.readInt();
+        if (count < 0) {
+            throw new IOException("negative node count " + count);
+        }
+        Graph<N, E> graph = new Graph<>(count);
+        for (int i = 0; i < count; i++) {
+            N node = nodes.read(data);
+            graph.addNode(node);
+            int degree = data.readInt();
+            if (degree < 0) {
+                throw new IOException("negative edge count " + degree + " at " + node);
+            }
+            for (int j = 0; j < degree; j++) {
+                // the destination's own record may come later
+                N to = nodes.read(data);
+                graph.addNode(to);
+                graph.addEdge(new Graph.Edge<>(node, to, labels.read(data)));
+            }
+        }
+        if (graph.size() != count) {
+            throw new IOException("expected " + count + " nodes, found " + graph.size());
+        }
+        return graph;
+    }
+
+    /**
+     * Writes a value as a double-quoted DOT identifier.
+     */
+    private static void dotId(Object value, Appendable out) throws IOException {
+        String s = String.valueOf(value);
+        out.append('"');
+        // runs of ordinary characters are appended whole, which is much faster than one by one
+        int run = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\' || c == '\n' || c == '\r') {
+                out.append(s, run, i);
+                if (c == '\n') {
+                    out.append("\\n");
+                } else if (c != '\r') {
+                    out.append('\\').append(c);
+                }
+                run = i + 1;
+            }
+        }
+        out.append(s, run, s.length());
+        out.append('"');
+    }
+
+    /**
+     * Writes a value as XML text that may also appear inside a double-quoted attribute.
+     */
+    private static void xml(Object value, Appendable out) throws IOException {
+        String s = String.valueOf(value);
+        int run = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            String escaped;
+            if (c == '<') {
+                escaped = "&lt;";
+            } else if (c == '>') {
+                escaped = "&gt;";
+            } else if (c == '&') {
+                escaped = "&amp;";
+            } else if (c == '"') {
+                escaped = "&quot;";
+            } else if (c < 0x20 && c != '\t' && c != '\n' && c != '\r') {
+                // not allowed in XML 1.0 even as a reference
+                escaped = "?";
+            } else {
+                continue;
+            }
+            out.append(s, run, i).append(escaped);
+            run = i + 1;
+        }
+        out.append(s, run, s.length());
+    }
+}
@@ -0,0 +1,601 @@
+package graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <b>GraphJournal</b> keeps a {@link Graph} on disk as a checkpoint plus a write-ahead journal
+ * of the changes made since, so that the graph survives the process dying.
+ *
+ * <p>Every change goes through the journal: it is appended to the journal file as a compact
+ * binary record and then applied to the graph. Every so many records, and whenever
+ * {@link #checkpoint()} is called, the whole graph is written to a new checkpoint and the
+ * journal starts over. {@link #open} loads the latest checkpoint and replays only the
+ * journal written after it.
+ *
+ * <p>Each change is handed to the operating system before it is applied, so it survives the
+ * process being killed; {@link #sync()} also forces it to the disk, so that it survives the
+ * machine going down. A record cut short by a crash is dropped on recovery.
+ *
+ * <p>A directory holds two files. The checkpoint is a magic number, its generation, the node
+ * count and nodes, then the edge count and each edge as the indexes of its nodes and its
+ * label. The journal is a magic number and the generation of the checkpoint it follows, then
+ * records of a one-byte operation and its operands: a node, an edge's two nodes and label, or
+ * nothing for clear. A journal whose generation is not the checkpoint's is already part of
+ * the checkpoint and is ignored.
+ *
+ * @param <N> type of node in the graph
+ * @param <E> type of edge label in the graph
+ */
+public class GraphJournal<N, E> implements Closeable {
+
+    // Abstraction Function:
+    // the journaled graph is "graph". On disk it is the checkpoint of "generation" in dir
+    // followed by the "records" changes in the journal file, which "journal" appends to.
+    //
+    // Representation Invariant:
+    // dir, nodes, labels, graph and journal are not null && records >= 0 &&
+    // replaying the journal file onto the checkpoint gives graph
+
+    /**
+     * Name of the checkpoint file in the directory.
+     */
+    public static final String CHECKPOINT_FILE = "checkpoint.bin";
+
+    /**
+     * Name of the journal file in the directory.
+     */
+    public static final String JOURNAL_FILE = "journal.bin";
+
+    private static final int CHECKPOINT_MAGIC = 0x4743_4B50;
+    private static final int JOURNAL_MAGIC = 0x474A_524E;
+
+    private static final byte ADD_NODE = 1;
+    private static final byte ADD_EDGE = 2;
+    private static final byte CLEAR = 3;
+
+    private final Path dir;
+    private final Codec<N> nodes;
+    private final Codec<E> labels;
+    private final long checkpointEvery;
+    private final Graph<N, E> graph;
+
+    private long generation;
+    private FileChannel journal;
+    private long records;
+
+    /**
+     * Records being written, so that each change reaches the file in one write.
+     */
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(pending);
+
+    private GraphJournal(Path dir, Codec<N> nodes, Codec<E> labels, long checkpointEvery,
+                         Graph<N, E> graph) {
+        this.dir = dir;
+        this.nodes = nodes;
+        this.labels = labels;
+        this.checkpointEvery = checkpointEvery;
+        this.graph = graph;
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (dir != null && nodes != null && labels != null && graph != null
+                && journal != null) : "null field";
+        assert (records >= 0) : "negative record count";
+    }
+
+    /**
+     * Opens the journal in a directory, recovering the graph it holds: the latest checkpoint
+     * with the journal after it replayed. A new, empty graph is started if the directory
+     * has neither.
+     *
+     * @spec.requires dir, nodes and labels to not be null
+     * @param dir directory for the checkpoint and journal; created if missing.
+     * @param nodes writes and reads the graph's nodes.
+     * @param labels writes and reads the graph's edge labels.
+     * @param checkpointEvery a checkpoint is written after this many changes, or never
+     *                        automatically if it is 0 or less.
+     * @param <N> type of node in the graph
+     * @param <E> type of edge label in the graph
+     * @return the open journal.
+     * @throws IOException if the files cannot be read or written, or are not a checkpoint
+     *         and journal.
+     */
+    public static <N, E> GraphJournal<N, E> open(Path dir, Codec<N> nodes, Codec<E> labels,
+                                                 long checkpointEvery) throws IOException {
+        Files.createDirectories(dir);
+        GraphJournal<N, E> j = new GraphJournal<>(dir, nodes, labels, checkpointEvery,
+                new Graph<>());
+        Path checkpoint = dir.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpoint)) {
+            j.readCheckpoint(checkpoint);
+        }
+        Path journal = dir.resolve(JOURNAL_FILE);
+        long end = Files.exists(journal) ? j.replay(journal) : -1;
+        if (end < 0) {
+            j.startJournal();
+        } else {
+            j.journal = FileChannel.open(journal, StandardOpenOption.WRITE);
+            // drops a record cut short by a crash
+            j.journal.truncate(end);
+            j.journal.position(end);
+        }
+        j.checkRep();
+        return j;
+    }
+
+    /**
+     * Gets the journaled graph. It must only be changed through this journal.
+     *
+     * @return the graph as of the latest change.
+     */
+    public Graph<N, E> graph() {
+        return graph;
+    }
+
+    /**
+     * Gets the number of changes in the journal since the latest checkpoint, which is how
+     * many open would replay.
+     *
+     * @return changes since the latest checkpoint.
+     */
+    public long records() {
+        return records;
+    }
+
+    /**
+     * Adds a node, as {@link Graph#addNode} does.
+     *
+     * @spec.requires node to not be null
+     * @param node node to add.
+     * @spec.modifies this, the journal file
+     * @spec.effects appends the change to the journal and then makes it.
+     * @throws IOException if the change cannot be written, and the graph is then not changed,
+     *         or if a checkpoint due after it cannot be written.
+     */
+    public void addNode(N node) throws IOException {
+        try {
+            writeNode(node);
+            commit(1);
+        } finally {
+            // a codec that fails partway leaves nothing for the next change to commit
+            pending.reset();
+        }
+        graph.addNode(node);
+        checkpointIfDue();
+    }
+
+    /**
+     * Adds nodes, as {@link Graph#addNodes} does, with one write to the journal.
+     *
+     * @spec.requires nodes and every node in it to not be null
+     * @param nodes nodes to add.
+     * @spec.modifies this, the journal file
+     * @spec.effects appends the changes to the journal and then makes them.
+     * @throws IOException if the changes cannot be written, and the graph is then not
+     *         changed, or if a checkpoint due after them cannot be written.
+     */
+    public void addNodes(Collection<? extends N> nodes) throws IOException {
+        try {
+            for (N node : nodes) {
+                writeNode(node);
+            }
+            commit(nodes.size());
+        } finally {
+            pending.reset();
+        }
+        graph.addNodes(nodes);
+        checkpointIfDue();
+    }
+
+    /**
+     * Adds an edge, as {@link Graph#addEdge} does.
+     *
+     * @spec.requires edge to not be null
+     * @param edge edge to add.
+     * @spec.modifies this, the journal file
+     * @spec.effects appends the change to the journal and then makes it.
+     * @throws IOException if the change cannot be written, and the graph is then not changed,
+     *         or if a checkpoint due after it cannot be written.
+     */
+    public void addEdge(Graph.Edge<N, E> edge) throws IOException {
+        try {
+            writeEdge(edge);
+            commit(1);
+        } finally {
+            pending.reset();
+        }
+        graph.addEdge(edge);
+        checkpointIfDue();
+    }
+
+    /**
+     * Adds edges, as {@link Graph#addEdges} does, with one write to the journal.
+     *
+     * @spec.requires edges and every edge in it to not be null
+     * @param edges edges to add.
+     * @spec.modifies this, the journal file
+     * @spec.effects appends the changes to the journal and then makes them.
+     * @throws IOException if the changes cannot be written, and the graph is then not
+     *         changed, or if a checkpoint due after them cannot be written.
+     */
+    public void addEdges(Collection<? extends Graph.Edge<N, E>> edges) throws IOException {
+        try {
+            for (Graph.Edge<N, E> edge : edges) {
+                writeEdge(edge);
+            }
+            commit(edges.size());
+        } finally {
+            pending.reset();
+        }
+        graph.addEdges(edges);
+        checkpointIfDue();
+    }
+
+    /**
+     * Removes every node and edge, as {@link Graph#clear} does.
+     *
+     * @spec.modifies this, the journal file
+     * @spec.effects appends the change to the journal and then makes it.
+     * @throws IOException if the change cannot be written, and the graph is then not changed,
+     *         or if a checkpoint due after it cannot be written.
+     */
+    public void clear() throws IOException {
+        try {
+            out.writeByte(CLEAR);
+            commit(1);
+        } finally {
+            pending.reset();
+        }
+        graph.clear();
+        checkpointIfDue();
+    }
+
+    /**
+     * Forces every change made so far to the disk.
+     *
+     * @throws IOException if the journal cannot be synced.
+     */
+    public void sync() throws IOException {
+        journal.force(false);
+    }
+
+    /**
+     * Writes the whole graph to a new checkpoint and starts an empty journal after it, so
+     * that recovery no longer replays the changes made so far.
+     *
+     * @spec.modifies the checkpoint and journal files
+     * @throws IOException if the checkpoint cannot be written; the old checkpoint and
+     *         journal are then still used.
+     */
+    public void checkpoint() throws IOException {
+        Path temp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // not closed, which would close the channel before it is forced
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(
+                    Channels.newOutputStream(channel), 1 << 16));
+            data.writeInt(CHECKPOINT_MAGIC);
+            data.writeLong(generation + 1);
+            Map<N, Integer> index = new HashMap<>();
+            data.writeInt(graph.size());
+            long edges = 0;
+            for (N node : graph.getNodes()) {
+                index.put(node, index.size());
+                nodes.write(node, data);
+                edges += graph.getNeighbors(node).size();
+            }
+            data.writeLong(edges);
+            for (N node : graph.getNodes()) {
+                int from = index.get(node);
+                for (Graph.Edge<N, E> e : graph.getNeighbors(node)) {
+                    data.writeInt(from);
+                    data.writeInt(index.get(e.to));
+                    labels.write(e.getLabel(), data);
+                }
+            }
+            data.flush();
+            channel.force(true);
+        }
+        Files.move(temp, dir.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        // from here the old journal is part of the checkpoint, so a crash before the new one
+        // replaces it loses nothing
+        generation++;
+        journal.close();
+        startJournal();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            journal.close();
+        }
+    }
+
+    private void writeNode(N node) throws IOException {
+        out.writeByte(ADD_NODE);
+        nodes.write(node, out);
+    }
+
+    private void writeEdge(Graph.Edge<N, E> edge) throws IOException {
+        out.writeByte(ADD_EDGE);
+        nodes.write(edge.from, out);
+        nodes.write(edge.to, out);
+        labels.write(edge.getLabel(), out);
+    }
+
+    /**
+     * Appends the pending records to the journal. The caller resets pending afterwards,
+     * whether or not this succeeds.
+     */
+    private void commit(int count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+        long start = journal.position();
+        try {
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+        } catch (IOException e) {
+            // leaves no partial record behind for the next change to follow
+            journal.truncate(start);
+            throw e;
+        }
+        records += count;
+    }
+
+    /**
+     * Writes a checkpoint if enough changes have built up since the last one.
+     */
+    private void checkpointIfDue() throws IOException {
+        if (checkpointEvery > 0 && records >= checkpointEvery) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Replaces the journal file with an empty one for the current generation.
+     */
+    private void startJournal() throws IOException {
+        Path temp = dir.resolve(JOURNAL_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(12);
+            header.putInt(JOURNAL_MAGIC).putLong(generation).flip();
+            channel.write(header);
+            channel.force(true);
+        }
+        Path file = dir.resolve(JOURNAL_FILE);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        journal = FileChannel.open(file, StandardOpenOption.WRITE);
+        journal.position(journal.size());
+        records = 0;
+    }
+
+    /**
+     * Loads a checkpoint into the graph.
+     */
+    private void readCheckpoint(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != CHECKPOINT_MAGIC) {
+                throw new IOException(file + " is not a graph checkpoint");
+            }
+            generation = in.readLong();
+            int count = in.readInt();
+            List<N> byIndex = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byIndex.add(nodes.read(in));
+            }
+            graph.addNodes(byIndex);
+            long edges = in.readLong();
+            List<Graph.Edge<N, E>> batch = new ArrayList<>();
+            for (long i = 0; i < edges; i++) {
+                N from = byIndex.get(in.readInt());
+                N to = byIndex.get(in.readInt());
+                batch.add(new Graph.Edge<>(from, to, labels.read(in)));
+                if (batch.size() == 1 << 16) {
+                    graph.addEdges(batch);
+                    batch.clear();
+                }
+            }
+            graph.addEdges(batch);
+        }
+    }
+
+    /**
+     * Replays a journal onto the graph, if it follows the checkpoint that was loaded.
+     *
+     * @return the length of the journal up to the end of its last whole record, or -1 if
+     *         it does not follow the checkpoint.
+     */
+    private long replay(Path file) throws IOException {
+        try (CountingInputStream counted = new CountingInputStream(new BufferedInputStream(
+                Files.newInputStream(file), 1 << 16))) {
+            DataInputStream in = new DataInputStream(counted);
+            try {
+                if (in.readInt() != JOURNAL_MAGIC) {
+                    throw new IOException(file + " is not a graph journal");
+                }
+                if (in.readLong() != generation) {
+                    return -1;
+                }
+            } catch (EOFException e) {
+                // cut short while it was being started, so it holds no changes
+                return -1;
+            }
+            long end = counted.count;
+            while (true) {
+                try {
+                    int op = in.read();
+                    if (op == ADD_NODE) {
+                        graph.addNode(nodes.read(in));
+                    } else if (op == ADD_EDGE) {
+                        N from = nodes.read(in);
+                        N to = nodes.read(in);
+                        graph.addEdge(new Graph.Edge<>(from, to, labels.read(in)));
+                    } else if (op == CLEAR) {
+                        graph.clear();
+                    } else {
+                        // the end, or space a crash left without a record in it
+                        return end;
+                    }
+                } catch (EOFException e) {
+                    return end;
+                }
+                records++;
+                end = counted.count;
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes read through it, to know where the last whole record ended.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * <b>Codec</b> writes values of one type to the journal and reads them back.
+     *
+     * @param <T> type of value
+     */
+    public interface Codec<T> {
+
+        /**
+         * Writes a value.
+         *
+         * @spec.requires value and out to not be null
+         * @param value value to write.
+         * @param out where to write it.
+         * @throws IOException if it cannot be written.
+         */
+        void write(T value, DataOutput out) throws IOException;
+
+        /**
+         * Reads a value written by write.
+         *
+         * @spec.requires in to not be null
+         * @param in where to read it from.
+         * @return the value.
+         * @throws IOException if it cannot be read, such as EOFException at the end.
+         */
+        T read(DataInput in) throws IOException;
+
+        /**
+         * Gets a codec for strings of up to 65535 bytes in modified UTF-8.
+         *
+         * @return a codec for strings.
+         */
+        static Codec<String> strings() {
+            return new Codec<String>() {
+                @Override
+                public void write(String value, DataOutput out) throws IOException {
+                    out.writeUTF(value);
+                }
+
+                @Override
+                public String read(DataInput in) throws IOException {
+                    return in.readUTF();
+                }
+            };
+        }
+
+        /**
+         * Gets a codec for integers.
+         *
+         * @return a codec for integers, four bytes each.
+         */
+        static Codec<Integer> ints() {
+            return new Codec<Integer>() {
+                @Override
+                public void write(Integer value, DataOutput out) throws IOException {
+                    out.writeInt(value);
+                }
+
+                @Override
+                public Integer read(DataInput in) throws IOException {
+                    return in.readInt();
+                }
+            };
+        }
+
+        /**
+         * Gets a codec for doubles.
+         *
+         * @return a codec for doubles, eight bytes each.
+         */
+        static Codec<Double> doubles() {
+            return new Codec<Double>() {
+                @Override
+                public void write(Double value, DataOutput out) throws IOException {
+                    out.writeDouble(value);
+                }
+
+                @Override
+                public Double read(DataInput in) throws IOException {
+                    return in.readDouble();
+                }
+            };
+        }
+    }
+}
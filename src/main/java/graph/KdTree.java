@@ -0,0 +1,238 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * <b>KdTree</b> is an immutable 2-d tree over a set of nodes with x/y coordinates, for finding
+ * the node nearest to a point, or every node within a radius of it, without scanning them all.
+ *
+ * <p>The tree is balanced and kept in flat arrays: the nodes of each subtree occupy a range
+ * of the arrays with the subtree's root in the middle, split alternately on x and y. A nearest
+ * query on n nodes takes O(log n) time for evenly spread points.
+ *
+ * @param <N> type of node indexed
+ */
+public class KdTree<N> {
+
+    // Abstraction Function:
+    // the tree holds nodes[i] at (xs[i], ys[i]) for 0 <= i < size. The subtree of range
+    // [lo, hi) has its root at mid = (lo + hi) / 2 and is split on x at even depths and y at
+    // odd depths: nodes in [lo, mid) are not past the root on the split axis and nodes in
+    // [mid + 1, hi) are not before it.
+    //
+    // Representation Invariant:
+    // nodes, xs and ys are not null and have the same length &&
+    // no node is null && no coordinate is NaN &&
+    // every range is split around its middle as described above
+
+    private final Object[] nodes;
+    private final double[] xs;
+    private final double[] ys;
+
+    /**
+     * Builds a tree over some nodes.
+     *
+     * @spec.requires nodes, x and y to not be null, no node to be null, and no coordinate
+     *                to be NaN
+     * @param nodes nodes to index.
+     * @param x gives the x coordinate of a node.
+     * @param y gives the y coordinate of a node.
+     */
+    public KdTree(Collection<? extends N> nodes, ToDoubleFunction<? super N> x,
+                  ToDoubleFunction<? super N> y) {
+        this.nodes = nodes.toArray();
+        xs = new double[this.nodes.length];
+        ys = new double[this.nodes.length];
+        for (int i = 0; i < xs.length; i++) {
+            @SuppressWarnings("unchecked")
+            N node = (N) this.nodes[i];
+            xs[i] = x.applyAsDouble(node);
+            ys[i] = y.applyAsDouble(node);
+        }
+        build(0, xs.length, true);
+        checkRep();
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (nodes.length == xs.length && nodes.length == ys.length) : "arrays differ";
+    }
+
+    /**
+     * Gets the number of nodes in the tree.
+     *
+     * @return number of nodes indexed.
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Estimates how much heap the tree takes, as {@link MemoryStats} estimates a graph, not
+     * counting the nodes themselves.
+     *
+     * @return the estimated bytes of the tree and its arrays.
+     */
+    public long memoryBytes() {
+        return MemoryStats.objectBytes(this) + MemoryStats.arrayBytes(nodes.length, 4)
+                + 2 * MemoryStats.arrayBytes(xs.length, 8);
+    }
+
+    /**
+     * Finds the node closest to a point.
+     *
+     * @param x x coordinate of the point.
+     * @param y y coordinate of the point.
+     * @return the node at the smallest straight-line distance from (x, y), or null if the
+     *         tree is empty. Of nodes at the same distance, any one may be returned.
+     */
+    public N nearest(double x, double y) {
+        if (nodes.length == 0) {
+            return null;
+        }
+        double[] best = {Double.POSITIVE_INFINITY, -1};
+        nearest(0, nodes.length, true, x, y, best);
+        return node((int) best[1]);
+    }
+
+    /**
+     * Finds every node within a distance of a point.
+     *
+     * @param x x coordinate of the point.
+     * @param y y coordinate of the point.
+     * @param radius largest distance from (x, y) to include.
+     * @return the nodes at most radius from (x, y), in no particular order.
+     */
+    public List<N> withinRadius(double x, double y, double radius) {
+        List<N> found = new ArrayList<>();
+        if (radius >= 0) {
+            withinRadius(0, nodes.length, true, x, y, radius, found);
+        }
+        return found;
+    }
+
+    /**
+     * Searches the subtree of range [lo, hi) for a node closer than best[0] in squared
+     * distance, recording it and its index in best.
+     */
+    private void nearest(int lo, int hi, boolean splitX, double x, double y, double[] best) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double dx = xs[mid] - x;
+        double dy = ys[mid] - y;
+        double d = dx * dx + dy * dy;
+        if (d < best[0]) {
+            best[0] = d;
+            best[1] = mid;
+        }
+        double past = splitX ? x - xs[mid] : y - ys[mid];
+        // the side holding the point first, then the other only if it could be closer
+        if (past < 0) {
+            nearest(lo, mid, !splitX, x, y, best);
+            if (past * past < best[0]) {
+                nearest(mid + 1, hi, !splitX, x, y, best);
+            }
+        } else {
+            nearest(mid + 1, hi, !splitX, x, y, best);
+            if (past * past < best[0]) {
+                nearest(lo, mid, !splitX, x, y, best);
+            }
+        }
+    }
+
+    /**
+     * Adds the nodes of the subtree of range [lo, hi) within radius of (x, y) to found.
+     */
+    private void withinRadius(int lo, int hi, boolean splitX, double x, double y, double radius,
+                              List<N> found) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double dx = xs[mid] - x;
+        double dy = ys[mid] - y;
+        if (dx * dx + dy * dy <= radius * radius) {
+            found.add(node(mid));
+        }
+        double past = splitX ? x - xs[mid] : y - ys[mid];
+        if (past <= radius) {
+            withinRadius(lo, mid, !splitX, x, y, radius, found);
+        }
+        if (past >= -radius) {
+            withinRadius(mid + 1, hi, !splitX, x, y, radius, found);
+        }
+    }
+
+    /**
+     * Arranges range [lo, hi) into a subtree split on x if splitX, or y otherwise.
+     */
+    private void build(int lo, int hi, boolean splitX) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi - 1, mid, splitX ? xs : ys);
+        build(lo, mid, !splitX);
+        build(mid + 1, hi, !splitX);
+    }
+
+    /**
+     * Partially sorts range [lo, hi] on a coordinate so that index k holds the value that
+     * would be there if it were fully sorted, with nothing larger before it and nothing
+     * smaller after it.
+     */
+    private void select(int lo, int hi, int k, double[] key) {
+        while (lo < hi) {
+            double pivot = median(key[lo], key[(lo + hi) >>> 1], key[hi]);
+            // three-way partition, so many equal coordinates do not make it quadratic:
+            // [lo, lt) < pivot, [lt, i) == pivot, (gt, hi] > pivot
+            int lt = lo;
+            int gt = hi;
+            int i = lo;
+            while (i <= gt) {
+                if (key[i] < pivot) {
+                    swap(lt++, i++);
+                } else if (key[i] > pivot) {
+                    swap(i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            if (k < lt) {
+                hi = lt - 1;
+            } else if (k > gt) {
+                lo = gt + 1;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static double median(double a, double b, double c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private void swap(int i, int j) {
+        Object n = nodes[i];
+        nodes[i] = nodes[j];
+        nodes[j] = n;
+        double t = xs[i];
+        xs[i] = xs[j];
+        xs[j] = t;
+        t = ys[i];
+        ys[i] = ys[j];
+        ys[j] = t;
+    }
+
+    @SuppressWarnings("unchecked")
+    private N node(int i) {
+        return (N) nodes[i];
+    }
+}
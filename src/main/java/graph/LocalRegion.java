@@ -0,0 +1,108 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <b>LocalRegion</b> is a {@link Region} whose subgraph is held in this process.
+ *
+ * @param <N> type of node in the graph
+ */
+public class LocalRegion<N> implements Region<N> {
+
+    // Abstraction Function:
+    // the region is the subgraph "graph" with the boundary nodes "boundary"; "reverse" is
+    // graph with every edge turned around, for searching towards a node.
+    //
+    // Representation Invariant:
+    // graph, reverse and boundary are not null &&
+    // every node in boundary is in graph &&
+    // reverse has the nodes of graph and an edge b -> a for each edge a -> b of graph
+
+    private final Graph<N, Double> graph;
+    private final Graph<N, Double> reverse;
+    private final Set<N> boundary;
+
+    /**
+     * Constructs a region.
+     *
+     * @spec.requires graph and boundary to not be null && every node in boundary is in graph
+     * @param graph the region's nodes and the edges between them; it must not be modified
+     *              afterwards.
+     * @param boundary the region's nodes that have edges to or from other regions.
+     */
+    public LocalRegion(Graph<N, Double> graph, Set<N> boundary) {
+        this.graph = graph;
+        this.boundary = Collections.unmodifiableSet(boundary);
+        this.reverse = new Graph<>(graph.size());
+        reverse.addNodes(graph.getNodes());
+        List<Graph.Edge<N, Double>> reversed = new ArrayList<>();
+        for (N n : graph.getNodes()) {
+            for (Graph.Edge<N, Double> e : graph.getNeighbors(n)) {
+                reversed.add(new Graph.Edge<>(e.to, e.from, e.getLabel()));
+            }
+        }
+        reverse.addEdges(reversed);
+        checkRep();
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (graph != null && reverse != null && boundary != null) : "null field";
+        assert (reverse.size() == graph.size()) : "reverse has different nodes";
+    }
+
+    @Override
+    public Set<N> boundary() {
+        return boundary;
+    }
+
+    @Override
+    public Map<N, Double> costsFrom(N node) {
+        return ShortestPaths.costs(graph, node, boundary);
+    }
+
+    @Override
+    public Map<N, Double> costsTo(N node) {
+        return ShortestPaths.costs(reverse, node, boundary);
+    }
+
+    @Override
+    public List<Graph.Edge<N, Double>> path(N from, N to) {
+        return ShortestPaths.find(graph, from, to);
+    }
+
+    @Override
+    public List<Graph.Edge<N, Double>> shortcuts() {
+        List<Graph.Edge<N, Double>> shortcuts = new ArrayList<>();
+        for (N from : boundary) {
+            for (Map.Entry<N, Double> to : costsFrom(from).entrySet()) {
+                if (!to.getKey().equals(from)) {
+                    shortcuts.add(new Graph.Edge<>(from, to.getKey(), to.getValue()));
+                }
+            }
+        }
+        return shortcuts;
+    }
+
+    /**
+     * Makes a LocalRegion for every region of a partition.
+     *
+     * @spec.requires partition to not be null
+     * @param partition the partition to cover.
+     * @param <N> type of node in the graph
+     * @return the regions of partition in order.
+     */
+    public static <N> List<LocalRegion<N>> of(Partition<N> partition) {
+        List<LocalRegion<N>> regions = new ArrayList<>();
+        for (int r = 0; r < partition.regionCount(); r++) {
+            regions.add(new LocalRegion<>(partition.region(r), partition.boundary(r)));
+        }
+        return regions;
+    }
+}
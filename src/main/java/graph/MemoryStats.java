@@ -0,0 +1,272 @@
+package graph;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <b>MemoryStats</b> is an immutable summary of how big a {@link Graph} is and roughly how
+ * much heap its structures take, as returned by {@link Graph#memoryStats()}.
+ *
+ * <p>Byte counts are estimates for a 64-bit JVM with compressed references: 12-byte object
+ * headers, 4-byte references and objects padded to 8 bytes. Node and label objects are sized
+ * from their fields, and every edge is assumed to have its own label object, so labels shared
+ * between edges are counted more than once.
+ *
+ * <p>The compact estimate is for a compressed sparse row layout: nodes numbered 0 to n - 1,
+ * an int array of where each node's edges start, an int array of edge targets, and the labels
+ * in a double array if they are all numbers or in an object array otherwise.
+ */
+public class MemoryStats {
+
+    // Abstraction Function:
+    // the graph had "nodes" nodes and "edges" edges. degreeHistogram[0] nodes had no
+    // outgoing edges and degreeHistogram[i] nodes had between 2^(i-1) and 2^i - 1 of them,
+    // the most being maxDegree. The *Bytes fields are the estimated heap taken by each
+    // structure, "compactBytes" is the estimate for the compact layout.
+    //
+    // Representation Invariant:
+    // nodes >= 0 && edges >= 0 && degreeHistogram != null &&
+    // the degreeHistogram entries add up to nodes &&
+    // totalBytes is the sum of the other structures' bytes
+
+    private static final int HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final int ARRAY_HEADER = 16;
+
+    /**
+     * Shallow size of a HashMap, of one of its entries, and of a HashSet.
+     */
+    private static final int HASH_MAP = 48;
+    private static final int HASH_MAP_ENTRY = 32;
+    private static final int HASH_SET = 16;
+
+    /**
+     * Size of an Edge: a header and three references.
+     */
+    private static final long EDGE = align(HEADER + 3 * REFERENCE);
+
+    public final long nodes;
+    public final long edges;
+    public final int maxDegree;
+    public final long[] degreeHistogram;
+
+    /**
+     * The map from each node to its set of outgoing edges, including its entries.
+     */
+    public final long nodeMapBytes;
+
+    /**
+     * The per-node HashSets of outgoing edges, including their tables and entries.
+     */
+    public final long edgeSetBytes;
+
+    /**
+     * The Edge objects.
+     */
+    public final long edgeBytes;
+
+    /**
+     * The node objects.
+     */
+    public final long nodeBytes;
+
+    /**
+     * The label objects, such as boxed Doubles.
+     */
+    public final long labelBytes;
+
+    public final long totalBytes;
+    public final double bytesPerEdge;
+
+    /**
+     * Estimated size of the same graph in the compact layout.
+     */
+    public final long compactBytes;
+
+    /**
+     * Estimated bytes the compact layout would save, totalBytes - compactBytes.
+     */
+    public final long compactSavingsBytes;
+
+    private MemoryStats(long nodes, long edges, int maxDegree, long[] degreeHistogram,
+                        long nodeMapBytes, long edgeSetBytes, long edgeBytes, long nodeBytes,
+                        long labelBytes, boolean numericLabels) {
+        this.nodes = nodes;
+        this.edges = edges;
+        this.maxDegree = maxDegree;
+        this.degreeHistogram = degreeHistogram;
+        this.nodeMapBytes = nodeMapBytes;
+        this.edgeSetBytes = edgeSetBytes;
+        this.edgeBytes = edgeBytes;
+        this.nodeBytes = nodeBytes;
+        this.labelBytes = labelBytes;
+        this.totalBytes = nodeMapBytes + edgeSetBytes + edgeBytes + nodeBytes + labelBytes;
+        this.bytesPerEdge = edges == 0 ? 0 : (double) totalBytes / edges;
+
+        // node array plus an open-addressed node -> number table at half load
+        long compactNodes = array(nodes, REFERENCE) + nodeBytes + array(2 * nodes, REFERENCE)
+                + array(2 * nodes, 4);
+        long compactEdges = array(nodes + 1, 4) + array(edges, 4);
+        long compactLabels = numericLabels ? array(edges, 8)
+                : array(edges, REFERENCE) + labelBytes;
+        this.compactBytes = compactNodes + compactEdges + compactLabels;
+        this.compactSavingsBytes = totalBytes - compactBytes;
+        checkRep();
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (nodes >= 0 && edges >= 0) : "negative count";
+        assert (degreeHistogram != null) : "null histogram";
+    }
+
+    /**
+     * Measures a graph's node map in one pass, without copying or locking it.
+     *
+     * @spec.requires graph to not be null or change during the call
+     * @param graph map from each node to its outgoing edges.
+     * @param <N> type of node
+     * @param <E> type of label
+     * @return the statistics for the graph.
+     */
+    static <N, E> MemoryStats of(Map<N, Set<Graph.Edge<N, E>>> graph) {
+        Map<Class<?>, Long> shallow = new HashMap<>();
+        long[] histogram = new long[33];
+        int buckets = 0;
+        int maxDegree = 0;
+        long edges = 0;
+        long edgeSetBytes = 0;
+        long nodeBytes = 0;
+        long labelBytes = 0;
+        boolean numericLabels = true;
+        for (Map.Entry<N, Set<Graph.Edge<N, E>>> entry : graph.entrySet()) {
+            nodeBytes += sizeOf(entry.getKey(), shallow);
+            Set<Graph.Edge<N, E>> outgoing = entry.getValue();
+            int degree = outgoing.size();
+            int bucket = 32 - Integer.numberOfLeadingZeros(degree);
+            histogram[bucket]++;
+            buckets = Math.max(buckets, bucket + 1);
+            maxDegree = Math.max(maxDegree, degree);
+            edges += degree;
+            // a HashSet's table is only allocated once something is added
+            edgeSetBytes += HASH_SET + HASH_MAP + (degree == 0 ? 0 : table(degree))
+                    + (long) degree * HASH_MAP_ENTRY;
+            for (Graph.Edge<N, E> e : outgoing) {
+                labelBytes += sizeOf(e.label, shallow);
+                numericLabels &= e.label instanceof Number;
+            }
+        }
+        long nodes = graph.size();
+        long nodeMapBytes = HASH_MAP + table(nodes) + nodes * HASH_MAP_ENTRY;
+        long[] degreeHistogram = new long[buckets];
+        System.arraycopy(histogram, 0, degreeHistogram, 0, buckets);
+        return new MemoryStats(nodes, edges, maxDegree, degreeHistogram, nodeMapBytes,
+                edgeSetBytes, edges * EDGE, nodeBytes, labelBytes, numericLabels);
+    }
+
+    /**
+     * Estimates the size of a HashMap table holding a number of entries at the default
+     * load factor.
+     */
+    private static long table(long entries) {
+        long capacity = 16;
+        while (capacity * 3 / 4 < entries) {
+            capacity *= 2;
+        }
+        return array(capacity, REFERENCE);
+    }
+
+    /**
+     * Estimates the size of an array.
+     */
+    private static long array(long length, int elementBytes) {
+        return align(ARRAY_HEADER + length * elementBytes);
+    }
+
+    /**
+     * Estimates the size of an array of primitives or references, by the same rules as the
+     * graph estimates, so that other structures can be measured alongside a graph.
+     *
+     * @spec.requires length >= 0 && elementBytes is 1, 2, 4 or 8
+     * @param length number of elements.
+     * @param elementBytes bytes per element: 4 for a reference, an int or a float.
+     * @return the estimated bytes of the array.
+     */
+    public static long arrayBytes(long length, int elementBytes) {
+        return array(length, elementBytes);
+    }
+
+    /**
+     * Estimates the size of a HashMap or HashSet with its table and entries, not counting
+     * its keys and values.
+     *
+     * @spec.requires entries >= 0
+     * @param entries number of entries.
+     * @return the estimated bytes of the map.
+     */
+    public static long hashMapBytes(long entries) {
+        return HASH_MAP + table(entries) + entries * HASH_MAP_ENTRY;
+    }
+
+    /**
+     * Estimates the size of one object, counting the characters of a String but otherwise
+     * only the object's own fields and not what they refer to.
+     *
+     * @spec.requires o to not be null
+     * @param o the object.
+     * @return the estimated bytes of o.
+     */
+    public static long objectBytes(Object o) {
+        return sizeOf(o, new HashMap<>());
+    }
+
+    /**
+     * Estimates the size of an object, counting the characters of a String but otherwise
+     * only the object's own fields.
+     */
+    private static long sizeOf(Object o, Map<Class<?>, Long> shallow) {
+        if (o instanceof String) {
+            // Latin-1 strings keep one byte per character
+            return shallow.computeIfAbsent(String.class, MemoryStats::shallowSize)
+                    + array(((String) o).length(), 1);
+        }
+        return shallow.computeIfAbsent(o.getClass(), MemoryStats::shallowSize);
+    }
+
+    /**
+     * Estimates the size of an instance of a class from its fields and its superclasses'.
+     */
+    private static long shallowSize(Class<?> c) {
+        long size = HEADER;
+        for (Class<?> k = c; k != null; k = k.getSuperclass()) {
+            for (Field f : k.getDeclaredFields()) {
+                if (!Modifier.isStatic(f.getModifiers())) {
+                    size += fieldSize(f.getType());
+                }
+            }
+        }
+        return align(size);
+    }
+
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
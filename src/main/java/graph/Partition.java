@@ -0,0 +1,194 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * <b>Partition</b> is an immutable division of a {@link Graph} whose nodes have coordinates
+ * into regions of about the same number of nodes.
+ *
+ * <p>Regions come from recursive coordinate bisection: the nodes are split across the longer
+ * side of their bounding box, then each half is split again, until there are as many parts
+ * as regions asked for. On road-like graphs this cuts few edges, so few nodes are on a
+ * region's boundary.
+ *
+ * <p>An edge between two regions is a cut edge, and the nodes at either end of one are
+ * boundary nodes of their regions. Each region's subgraph holds only the edges inside it.
+ *
+ * @param <N> type of node in the graph
+ */
+public class Partition<N> {
+
+    // Abstraction Function:
+    // node n is in region regionOf.get(n); regions.get(r) is the subgraph of the nodes in
+    // region r and the edges between them, and boundaries.get(r) are the nodes of region r
+    // at either end of a cut edge. cutEdges are the edges whose ends are in different
+    // regions.
+    //
+    // Representation Invariant:
+    // regionOf, regions, boundaries and cutEdges are not null &&
+    // regions.size() == boundaries.size() &&
+    // every node of the graph is in exactly one region &&
+    // every edge of the graph is either in the region of both its ends or in cutEdges
+
+    private final Map<N, Integer> regionOf;
+    private final List<Graph<N, Double>> regions;
+    private final List<Set<N>> boundaries;
+    private final List<Graph.Edge<N, Double>> cutEdges;
+
+    private Partition(Map<N, Integer> regionOf, List<Graph<N, Double>> regions,
+                      List<Set<N>> boundaries, List<Graph.Edge<N, Double>> cutEdges) {
+        this.regionOf = regionOf;
+        this.regions = regions;
+        this.boundaries = boundaries;
+        this.cutEdges = cutEdges;
+        checkRep();
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (regions.size() == boundaries.size()) : "regions and boundaries differ";
+    }
+
+    /**
+     * Divides a graph into regions by recursive coordinate bisection.
+     *
+     * @spec.requires graph, x and y to not be null && regions > 0
+     * @param graph graph to divide; it is not changed.
+     * @param x gives the x coordinate of a node.
+     * @param y gives the y coordinate of a node.
+     * @param regions number of regions to make.
+     * @param <N> type of node in the graph
+     * @return the partition of graph into regions.
+     */
+    public static <N> Partition<N> bisect(Graph<N, Double> graph, ToDoubleFunction<? super N> x,
+                                          ToDoubleFunction<? super N> y, int regions) {
+        List<N> nodes = new ArrayList<>(graph.getNodes());
+        Map<N, Integer> regionOf = new HashMap<>();
+        split(nodes, x, y, 0, regions, regionOf);
+
+        List<Graph<N, Double>> subgraphs = new ArrayList<>(regions);
+        List<Set<N>> boundaries = new ArrayList<>(regions);
+        for (int r = 0; r < regions; r++) {
+            subgraphs.add(new Graph<>());
+            boundaries.add(new HashSet<>());
+        }
+        for (N n : nodes) {
+            subgraphs.get(regionOf.get(n)).addNode(n);
+        }
+        List<Graph.Edge<N, Double>> cutEdges = new ArrayList<>();
+        for (N n : nodes) {
+            int r = regionOf.get(n);
+            for (Graph.Edge<N, Double> e : graph.getNeighbors(n)) {
+                int other = regionOf.get(e.to);
+                if (other == r) {
+                    subgraphs.get(r).addEdge(e);
+                } else {
+                    cutEdges.add(e);
+                    boundaries.get(r).add(e.from);
+                    boundaries.get(other).add(e.to);
+                }
+            }
+        }
+        for (int r = 0; r < regions; r++) {
+            boundaries.set(r, Collections.unmodifiableSet(boundaries.get(r)));
+        }
+        return new Partition<>(regionOf, subgraphs, boundaries,
+                Collections.unmodifiableList(cutEdges));
+    }
+
+    /**
+     * Assigns the given nodes to regions first to first + count - 1, splitting them across
+     * the longer side of their bounding box in proportion to the regions on each side.
+     */
+    private static <N> void split(List<N> nodes, ToDoubleFunction<? super N> x,
+                                  ToDoubleFunction<? super N> y, int first, int count,
+                                  Map<N, Integer> regionOf) {
+        if (count == 1 || nodes.size() <= 1) {
+            for (N n : nodes) {
+                regionOf.put(n, first);
+            }
+            return;
+        }
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (N n : nodes) {
+            minX = Math.min(minX, x.applyAsDouble(n));
+            maxX = Math.max(maxX, x.applyAsDouble(n));
+            minY = Math.min(minY, y.applyAsDouble(n));
+            maxY = Math.max(maxY, y.applyAsDouble(n));
+        }
+        ToDoubleFunction<? super N> along = maxX - minX >= maxY - minY ? x : y;
+        ToDoubleFunction<? super N> across = along == x ? y : x;
+        nodes.sort(Comparator.<N>comparingDouble(along::applyAsDouble)
+                .thenComparingDouble(across::applyAsDouble));
+        int left = count / 2;
+        int cut = (int) ((long) nodes.size() * left / count);
+        split(new ArrayList<>(nodes.subList(0, cut)), x, y, first, left, regionOf);
+        split(new ArrayList<>(nodes.subList(cut, nodes.size())), x, y, first + left,
+                count - left, regionOf);
+    }
+
+    /**
+     * Gets the number of regions.
+     *
+     * @return number of regions, some of which may be empty if the graph is small.
+     */
+    public int regionCount() {
+        return regions.size();
+    }
+
+    /**
+     * Finds the region a node is in.
+     *
+     * @spec.requires node to not be null
+     * @param node a node of the graph.
+     * @return the node's region, from 0 to regionCount() - 1, or -1 if it is not in the graph.
+     */
+    public int regionOf(N node) {
+        Integer r = regionOf.get(node);
+        return r == null ? -1 : r;
+    }
+
+    /**
+     * Gets the subgraph of a region.
+     *
+     * @spec.requires 0 <= region < regionCount()
+     * @param region the region.
+     * @return the region's nodes and the edges between them. It must not be modified.
+     */
+    public Graph<N, Double> region(int region) {
+        return regions.get(region);
+    }
+
+    /**
+     * Gets the boundary nodes of a region.
+     *
+     * @spec.requires 0 <= region < regionCount()
+     * @param region the region.
+     * @return the nodes of the region at either end of a cut edge.
+     */
+    public Set<N> boundary(int region) {
+        return boundaries.get(region);
+    }
+
+    /**
+     * Gets the edges between regions.
+     *
+     * @return every edge whose ends are in different regions.
+     */
+    public List<Graph.Edge<N, Double>> cutEdges() {
+        return cutEdges;
+    }
+}
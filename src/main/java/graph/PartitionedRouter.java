@@ -0,0 +1,132 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <b>PartitionedRouter</b> finds least-cost paths in a graph split into {@link Region}s,
+ * without any one place holding the whole graph.
+ *
+ * <p>It keeps only an overlay graph over the regions' boundary nodes: the cut edges between
+ * regions, plus a shortcut between each pair of boundary nodes of a region labeled with the
+ * least cost inside that region. A query asks the start's region for its costs out to its
+ * boundary and the end's region for its costs in from its boundary, searches the overlay
+ * between them, and then asks the regions along the way to fill in each shortcut.
+ *
+ * @param <N> type of node in the graph
+ */
+public class PartitionedRouter<N> {
+
+    // Abstraction Function:
+    // "regions" are the regions of the graph in order; "overlay" has every boundary node of
+    // every region, every cut edge, and every region's shortcuts; regionOf maps each
+    // boundary node to the index of its region.
+    //
+    // Representation Invariant:
+    // regions, overlay and regionOf are not null &&
+    // every boundary node of every region is a node of overlay and a key of regionOf
+
+    private final List<? extends Region<N>> regions;
+    private final Graph<N, Double> overlay;
+    private final Map<N, Integer> regionOf;
+
+    /**
+     * Builds the overlay for some regions.
+     *
+     * @spec.requires regions and cutEdges to not be null && every cut edge joins boundary
+     *                nodes of two different regions
+     * @param regions the regions of the graph; a node's region is its index in this list.
+     * @param cutEdges the edges between regions.
+     */
+    public PartitionedRouter(List<? extends Region<N>> regions,
+                             Collection<Graph.Edge<N, Double>> cutEdges) {
+        this.regions = new ArrayList<>(regions);
+        this.regionOf = new HashMap<>();
+        for (int r = 0; r < regions.size(); r++) {
+            for (N n : regions.get(r).boundary()) {
+                regionOf.put(n, r);
+            }
+        }
+        this.overlay = new Graph<>(regionOf.size());
+        overlay.addNodes(regionOf.keySet());
+        overlay.addEdges(cutEdges);
+        for (Region<N> region : regions) {
+            overlay.addEdges(region.shortcuts());
+        }
+        checkRep();
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (regions != null && overlay != null && regionOf != null) : "null field";
+        assert (overlay.size() == regionOf.size()) : "overlay nodes differ from boundary";
+    }
+
+    /**
+     * Gets the overlay graph the router searches between regions.
+     *
+     * @return the boundary nodes with the cut edges and shortcuts. It must not be modified.
+     */
+    public Graph<N, Double> overlay() {
+        return overlay;
+    }
+
+    /**
+     * Finds a least-cost path between two nodes of the graph.
+     *
+     * @spec.requires start and end to not be null && start is in region startRegion &&
+     *                end is in region endRegion
+     * @param start node the path starts at.
+     * @param startRegion index of start's region.
+     * @param end node the path ends at.
+     * @param endRegion index of end's region.
+     * @return the edges of a least-cost path from start to end in order, an empty list if
+     *         start equals end, or null if end cannot be reached from start.
+     */
+    public List<Graph.Edge<N, Double>> find(N start, int startRegion, N end, int endRegion) {
+        Region<N> first = regions.get(startRegion);
+        Region<N> last = regions.get(endRegion);
+
+        // a path that never leaves the region
+        List<Graph.Edge<N, Double>> direct = null;
+        double directCost = Double.POSITIVE_INFINITY;
+        if (startRegion == endRegion) {
+            direct = first.path(start, end);
+            if (direct != null) {
+                directCost = cost(direct);
+            }
+        }
+
+        ShortestPaths.Route<N> across = ShortestPaths.find(overlay, first.costsFrom(start),
+                last.costsTo(end));
+        if (across == null || across.cost >= directCost) {
+            return direct;
+        }
+
+        List<Graph.Edge<N, Double>> path = new ArrayList<>(first.path(start, across.start));
+        for (Graph.Edge<N, Double> e : across.edges) {
+            int r = regionOf.get(e.from);
+            if (r == regionOf.get(e.to)) {
+                path.addAll(regions.get(r).path(e.from, e.to));
+            } else {
+                path.add(e);
+            }
+        }
+        path.addAll(last.path(across.end, end));
+        return Collections.unmodifiableList(path);
+    }
+
+    private static <N> double cost(List<Graph.Edge<N, Double>> path) {
+        double c = 0;
+        for (Graph.Edge<N, Double> e : path) {
+            c += e.getLabel();
+        }
+        return c;
+    }
+}
@@ -0,0 +1,422 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <b>ProfileGraph</b> is an immutable compact copy of a {@link Graph} with non-negative
+ * labels that can be searched under several named cost profiles, such as shortest distance,
+ * no stairs, or wheelchair accessible.
+ *
+ * <p>All profiles share one topology in compressed sparse row form: the edges leaving node i
+ * are edges offsets[i] to offsets[i + 1] - 1, each stored as the index of its destination
+ * and its label. A profile adds only what differs from the labels: a bitset of the edges it
+ * may not use, one bit per edge, and, if any usable edge costs other than its label, an
+ * array of float costs. A profile that only blocks edges takes an eighth of a byte per edge.
+ *
+ * <p>Every ProfileGraph has the {@link #SHORTEST} profile, which costs each edge its label.
+ * {@link #withProfile} gives a new ProfileGraph with one more profile that shares the
+ * topology and the other profiles with this one.
+ *
+ * @param <N> type of node in the graph
+ */
+public class ProfileGraph<N> {
+
+    // Abstraction Function:
+    // node i is nodes[i], and index.get(nodes[i]) == i. The edges leaving node i are edges
+    // offsets[i] to offsets[i + 1] - 1; edge e goes to node targets[e] and has the label
+    // labels[e]. Profile p = profiles.get(name) may use edge e unless p.blocked.get(e), at a
+    // cost of p.costs[e], or labels[e] if p.costs is null.
+    //
+    // Representation Invariant:
+    // no field is null && offsets.length == nodes.length + 1 && offsets never decreases &&
+    // targets.length == labels.length == offsets[nodes.length] &&
+    // every target is a node index && profiles contains SHORTEST &&
+    // every profile's costs is null or has one entry per edge, all >= 0
+
+    /**
+     * Name of the profile that costs every edge its label and blocks none.
+     */
+    public static final String SHORTEST = "shortest";
+
+    private final Object[] nodes;
+    private final Map<N, Integer> index;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] labels;
+    private final Map<String, Profile> profiles;
+
+    private ProfileGraph(Object[] nodes, Map<N, Integer> index, int[] offsets, int[] targets,
+                         double[] labels, Map<String, Profile> profiles) {
+        this.nodes = nodes;
+        this.index = index;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.labels = labels;
+        this.profiles = profiles;
+        checkRep();
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (offsets.length == nodes.length + 1) : "wrong number of offsets";
+        assert (targets.length == labels.length) : "edge arrays differ in length";
+        assert (profiles.containsKey(SHORTEST)) : "no shortest profile";
+    }
+
+    /**
+     * Makes a compact copy of a graph with only the SHORTEST profile.
+     *
+     * @spec.requires graph to not be null && every label in graph is >= 0
+     * @param graph graph to copy; it is not changed, and later changes to it are not seen.
+     * @param <N> type of node in the graph
+     * @return the copy.
+     */
+    public static <N> ProfileGraph<N> of(Graph<N, Double> graph) {
+        int n = graph.size();
+        Object[] nodes = new Object[n];
+        Map<N, Integer> index = new HashMap<>((int) (n / 0.75f) + 1);
+        int edges = 0;
+        for (N node : graph.getNodes()) {
+            nodes[index.size()] = node;
+            index.put(node, index.size());
+            edges += graph.getNeighbors(node).size();
+        }
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[edges];
+        double[] labels = new double[edges];
+        int e = 0;
+        for (int i = 0; i < n; i++) {
+            offsets[i] = e;
+            N node = cast(nodes[i]);
+            for (Graph.Edge<N, Double> edge : graph.getNeighbors(node)) {
+                targets[e] = index.get(edge.to);
+                labels[e] = edge.getLabel();
+                e++;
+            }
+        }
+        offsets[n] = e;
+        Map<String, Profile> profiles = new LinkedHashMap<>();
+        profiles.put(SHORTEST, new Profile(new BitSet(), null));
+        return new ProfileGraph<>(nodes, index, offsets, targets, labels,
+                Collections.unmodifiableMap(profiles));
+    }
+
+    /**
+     * Adds a profile whose edge costs are given by a weight function, evaluated once for
+     * every edge now.
+     *
+     * @spec.requires name and weight to not be null
+     * @param name name of the new profile; a profile of that name is replaced.
+     * @param weight cost of each edge under the profile, called with an edge labeled as in
+     *               the original graph; Double.POSITIVE_INFINITY blocks the edge.
+     * @return a ProfileGraph with the profiles of this one plus the new one.
+     */
+    public ProfileGraph<N> withProfile(String name, EdgeWeight<N, Double> weight) {
+        BitSet blocked = new BitSet(targets.length);
+        float[] costs = null;
+        for (int i = 0; i < nodes.length; i++) {
+            N from = cast(nodes[i]);
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                double w = weight.weight(new Graph.Edge<>(from, cast(nodes[targets[e]]),
+                        labels[e]));
+                if (w == Double.POSITIVE_INFINITY) {
+                    blocked.set(e);
+                } else if ((float) w != (float) labels[e] || costs != null) {
+                    if (costs == null) {
+                        // costs only differ from here on; the edges before cost their labels
+                        costs = new float[targets.length];
+                        for (int before = 0; before < e; before++) {
+                            costs[before] = (float) labels[before];
+                        }
+                    }
+                    costs[e] = (float) w;
+                }
+            }
+        }
+        Map<String, Profile> more = new LinkedHashMap<>(profiles);
+        more.put(name, new Profile(blocked, costs));
+        return new ProfileGraph<>(nodes, index, offsets, targets, labels,
+                Collections.unmodifiableMap(more));
+    }
+
+    /**
+     * Gets the names of the profiles.
+     *
+     * @return the profile names, SHORTEST first and then in the order they were added.
+     */
+    public Set<String> profiles() {
+        return profiles.keySet();
+    }
+
+    /**
+     * Asks whether there is a profile of a name.
+     *
+     * @param name a profile name, or null.
+     * @return whether a profile has that name.
+     */
+    public boolean hasProfile(String name) {
+        return name != null && profiles.containsKey(name);
+    }
+
+    /**
+     * Gets the number of nodes.
+     *
+     * @return number of nodes in the graph.
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Gets the number of edges.
+     *
+     * @return number of edges in the graph.
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Estimates the heap taken by the shared topology, not counting the nodes themselves.
+     *
+     * @return approximate bytes of the node index and the edge arrays.
+     */
+    public long topologyBytes() {
+        // a HashMap entry with its boxed index is about 48 bytes, plus the node array slot
+        return 52L * nodes.length + 4L * offsets.length + 12L * targets.length;
+    }
+
+    /**
+     * Estimates the heap a profile adds to the topology.
+     *
+     * @spec.requires hasProfile(name)
+     * @param name name of the profile.
+     * @return approximate bytes of the profile's blocked edges and costs.
+     */
+    public long profileBytes(String name) {
+        Profile p = profiles.get(name);
+        return p.blocked.size() / 8 + (p.costs == null ? 0 : 4L * p.costs.length);
+    }
+
+    /**
+     * Estimates the heap taken by the topology and every profile together.
+     *
+     * @return approximate bytes of topologyBytes() and every profile's profileBytes().
+     */
+    public long memoryBytes() {
+        long bytes = topologyBytes();
+        for (String name : profiles.keySet()) {
+            bytes += profileBytes(name);
+        }
+        return bytes;
+    }
+
+    /**
+     * Finds a least-cost path between two nodes under a profile, with Dijkstra's algorithm
+     * over the arrays.
+     *
+     * @spec.requires profile, start and end to not be null && hasProfile(profile)
+     * @param profile name of the profile whose costs and blocked edges to use.
+     * @param start node the path starts at.
+     * @param end node the path ends at.
+     * @return the edges of a least-cost path from start to end in order, each labeled as in
+     *         the original graph; an empty list if start equals end, or null if end cannot
+     *         be reached under the profile or either node is not in the graph.
+     */
+    public List<Graph.Edge<N, Double>> find(String profile, N start, N end) {
+        Profile p = profiles.get(profile);
+        Integer s = index.get(start);
+        Integer t = index.get(end);
+        if (s == null || t == null) {
+            return null;
+        }
+        double[] cost = new double[nodes.length];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        int[] via = new int[nodes.length];
+        Heap active = new Heap();
+        cost[s] = 0;
+        via[s] = -1;
+        active.add(0, s);
+        boolean found = false;
+        while (!active.isEmpty()) {
+            double c = active.minCost();
+            int v = active.removeMin();
+            if (c > cost[v]) {
+                // a stale entry for a node already reached more cheaply
+                continue;
+            }
+            if (v == t) {
+                found = true;
+                break;
+            }
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if (p.blocked.get(e)) {
+                    continue;
+                }
+                double next = c + (p.costs == null ? labels[e] : p.costs[e]);
+                int w = targets[e];
+                if (next < cost[w]) {
+                    cost[w] = next;
+                    via[w] = e;
+                    active.add(next, w);
+                }
+            }
+        }
+        if (!found) {
+            return null;
+        }
+        // each edge index leads back to its source through the offsets
+        List<Graph.Edge<N, Double>> path = new ArrayList<>();
+        for (int v = t; via[v] >= 0; ) {
+            int e = via[v];
+            int from = source(e);
+            path.add(new Graph.Edge<>(cast(nodes[from]), cast(nodes[v]), labels[e]));
+            v = from;
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Gets a profile's costs as a weight function over the original graph, for searches
+     * that take one, such as {@link AlternativeRoutes}. Each call looks the edge up among
+     * the edges leaving its source.
+     *
+     * @spec.requires hasProfile(profile)
+     * @param profile name of the profile.
+     * @return a weight giving each edge of the original graph its cost under the profile,
+     *         and Double.POSITIVE_INFINITY for blocked edges and edges not in this graph.
+     */
+    public EdgeWeight<N, Double> weight(String profile) {
+        Profile p = profiles.get(profile);
+        return edge -> {
+            Integer from = index.get(edge.from);
+            Integer to = index.get(edge.to);
+            if (from == null || to == null) {
+                return Double.POSITIVE_INFINITY;
+            }
+            for (int e = offsets[from]; e < offsets[from + 1]; e++) {
+                if (targets[e] == to && labels[e] == edge.getLabel()) {
+                    if (p.blocked.get(e)) {
+                        return Double.POSITIVE_INFINITY;
+                    }
+                    return p.costs == null ? labels[e] : p.costs[e];
+                }
+            }
+            return Double.POSITIVE_INFINITY;
+        };
+    }
+
+    /**
+     * Finds the node an edge leaves from, by binary search of the offsets.
+     */
+    private int source(int edge) {
+        int lo = 0;
+        int hi = nodes.length - 1;
+        // the last node whose first edge is at or before edge
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid] <= edge) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        // nodes without edges share an offset with the next node, so step past them
+        while (offsets[lo + 1] <= edge) {
+            lo++;
+        }
+        return lo;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <N> N cast(Object node) {
+        return (N) node;
+    }
+
+    /**
+     * What a profile adds to the shared topology.
+     */
+    private static class Profile {
+        final BitSet blocked;
+        final float[] costs;
+
+        Profile(BitSet blocked, float[] costs) {
+            this.blocked = blocked;
+            this.costs = costs;
+        }
+    }
+
+    /**
+     * A binary min-heap of nodes keyed by cost in parallel primitive arrays, allowing
+     * duplicate entries for a node.
+     */
+    private static class Heap {
+        private double[] costs = new double[64];
+        private int[] values = new int[64];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        double minCost() {
+            return costs[0];
+        }
+
+        void add(double cost, int value) {
+            if (size == costs.length) {
+                costs = Arrays.copyOf(costs, 2 * size);
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (costs[parent] <= cost) {
+                    break;
+                }
+                costs[i] = costs[parent];
+                values[i] = values[parent];
+                i = parent;
+            }
+            costs[i] = cost;
+            values[i] = value;
+        }
+
+        int removeMin() {
+            int min = values[0];
+            size--;
+            double cost = costs[size];
+            int value = values[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && costs[child + 1] < costs[child]) {
+                    child++;
+                }
+                if (costs[child] >= cost) {
+                    break;
+                }
+                costs[i] = costs[child];
+                values[i] = values[child];
+                i = child;
+            }
+            costs[i] = cost;
+            values[i] = value;
+            return min;
+        }
+    }
+}
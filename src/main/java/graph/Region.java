@@ -0,0 +1,59 @@
+package graph;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <b>Region</b> answers searches that stay inside one region of a {@link Partition}, for a
+ * {@link PartitionedRouter} that stitches them into routes across regions. A region may be
+ * held in this process, as a {@link LocalRegion}, or by another process.
+ *
+ * @param <N> type of node in the graph
+ */
+public interface Region<N> {
+
+    /**
+     * Gets the nodes of this region that have edges to or from other regions.
+     *
+     * @return the region's boundary nodes.
+     */
+    Set<N> boundary();
+
+    /**
+     * Finds the least cost within this region from a node to each boundary node.
+     *
+     * @spec.requires node to be in this region
+     * @param node node to measure from.
+     * @return a map from each boundary node reachable from node to its least cost.
+     */
+    Map<N, Double> costsFrom(N node);
+
+    /**
+     * Finds the least cost within this region from each boundary node to a node.
+     *
+     * @spec.requires node to be in this region
+     * @param node node to measure to.
+     * @return a map from each boundary node that can reach node to its least cost.
+     */
+    Map<N, Double> costsTo(N node);
+
+    /**
+     * Finds a least-cost path that stays inside this region.
+     *
+     * @spec.requires from and to to be in this region
+     * @param from node the path starts at.
+     * @param to node the path ends at.
+     * @return the edges of the path in order, empty if from equals to, or null if there is
+     *         no path inside this region.
+     */
+    List<Graph.Edge<N, Double>> path(N from, N to);
+
+    /**
+     * Gets the least cost inside this region between every pair of boundary nodes.
+     *
+     * @return an edge from each boundary node to each other boundary node it can reach inside
+     *         this region, labeled with the least cost.
+     */
+    List<Graph.Edge<N, Double>> shortcuts();
+}
@@ -0,0 +1,295 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * <b>ShortestPaths</b> finds least-cost paths in a {@link Graph} whose edge labels are
+ * non-negative costs, with Dijkstra's algorithm. A search can also take its costs from an
+ * {@link EdgeWeight} instead of the labels.
+ */
+public class ShortestPaths {
+
+    private ShortestPaths() {
+    }
+
+    /**
+     * Finds a least-cost path between two nodes.
+     *
+     * @spec.requires graph, start and end to not be null && every label in graph is >= 0
+     * @param graph graph to search, with each edge's label as its cost.
+     * @param start node the path starts at.
+     * @param end node the path ends at.
+     * @param <N> type of node in the graph
+     * @return the edges of a least-cost path from start to end in order, an empty list if
+     *         start equals end, or null if end cannot be reached or either node is not in
+     *         the graph.
+     */
+    public static <N> List<Graph.Edge<N, Double>> find(Graph<N, Double> graph, N start, N end) {
+        return find(graph, start, end, EdgeWeight.labels());
+    }
+
+    /**
+     * Finds a least-cost path between two nodes, with costs given by a weight function
+     * instead of the edge labels. Edges the function makes infinitely costly are never used.
+     *
+     * @spec.requires graph, start, end and weight to not be null
+     * @param graph graph to search.
+     * @param start node the path starts at.
+     * @param end node the path ends at.
+     * @param weight gives the cost of each edge as it is relaxed.
+     * @param <N> type of node in the graph
+     * @param <E> type of edge label in the graph
+     * @return the edges of a least-cost path from start to end in order, an empty list if
+     *         start equals end, or null if end cannot be reached or either node is not in
+     *         the graph.
+     */
+    public static <N, E> List<Graph.Edge<N, E>> find(Graph<N, E> graph, N start, N end,
+                                                     EdgeWeight<N, E> weight) {
+        if (!graph.containsNode(start) || !graph.containsNode(end)) {
+            return null;
+        }
+        Map<N, Double> cost = new HashMap<>();
+        Map<N, Graph.Edge<N, E>> via = new HashMap<>();
+        Set<N> finished = new HashSet<>();
+        PriorityQueue<Entry<N>> active = new PriorityQueue<>();
+        cost.put(start, 0.0);
+        active.add(new Entry<>(start, 0.0));
+        while (!active.isEmpty()) {
+            Entry<N> min = active.remove();
+            if (!finished.add(min.node)) {
+                // a stale entry for a node already reached more cheaply
+                continue;
+            }
+            if (min.node.equals(end)) {
+                return pathTo(end, via);
+            }
+            for (Graph.Edge<N, E> e : graph.getNeighbors(min.node)) {
+                double c = min.cost + weight.weight(e);
+                if (c == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                Double known = cost.get(e.to);
+                if (known == null || c < known) {
+                    cost.put(e.to, c);
+                    via.put(e.to, e);
+                    active.add(new Entry<>(e.to, c));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the cheapest way from any of several starts to any of several ends, where
+     * beginning at a start and finishing at an end each have their own extra cost.
+     *
+     * @spec.requires graph, starts and ends to not be null && every label in graph and every
+     *                value in starts and ends is >= 0
+     * @param graph graph to search, with each edge's label as its cost.
+     * @param starts the nodes a path may begin at, each with the cost of beginning there.
+     * @param ends the nodes a path may finish at, each with the cost of finishing there.
+     * @param <N> type of node in the graph
+     * @return the route minimizing starts.get(start) + path cost + ends.get(end), or null if
+     *         no end can be reached from any start.
+     */
+    public static <N> Route<N> find(Graph<N, Double> graph, Map<N, Double> starts,
+                                    Map<N, Double> ends) {
+        Map<N, Double> cost = new HashMap<>();
+        Map<N, Graph.Edge<N, Double>> via = new HashMap<>();
+        Set<N> finished = new HashSet<>();
+        PriorityQueue<Entry<N>> active = new PriorityQueue<>();
+        for (Map.Entry<N, Double> s : starts.entrySet()) {
+            if (graph.containsNode(s.getKey())) {
+                cost.merge(s.getKey(), s.getValue(), Math::min);
+                active.add(new Entry<>(s.getKey(), s.getValue()));
+            }
+        }
+        N bestEnd = null;
+        double best = Double.POSITIVE_INFINITY;
+        while (!active.isEmpty() && active.peek().cost < best) {
+            Entry<N> min = active.remove();
+            if (!finished.add(min.node)) {
+                continue;
+            }
+            Double finish = ends.get(min.node);
+            if (finish != null && min.cost + finish < best) {
+                best = min.cost + finish;
+                bestEnd = min.node;
+            }
+            for (Graph.Edge<N, Double> e : graph.getNeighbors(min.node)) {
+                double c = min.cost + e.getLabel();
+                Double known = cost.get(e.to);
+                if (known == null || c < known) {
+                    cost.put(e.to, c);
+                    via.put(e.to, e);
+                    active.add(new Entry<>(e.to, c));
+                }
+            }
+        }
+        if (bestEnd == null) {
+            return null;
+        }
+        List<Graph.Edge<N, Double>> edges = pathTo(bestEnd, via);
+        N start = edges.isEmpty() ? bestEnd : edges.get(0).from;
+        return new Route<>(start, bestEnd, best, edges);
+    }
+
+    /**
+     * Finds the least cost from a node to each of some targets.
+     *
+     * @spec.requires graph, start and targets to not be null && every label in graph is >= 0
+     * @param graph graph to search, with each edge's label as its cost.
+     * @param start node to measure from.
+     * @param targets nodes to measure to; the search stops once all are reached.
+     * @param <N> type of node in the graph
+     * @return a map from each target reachable from start to its least cost.
+     */
+    public static <N> Map<N, Double> costs(Graph<N, Double> graph, N start,
+                                           Collection<? extends N> targets) {
+        Map<N, Double> found = new HashMap<>();
+        if (!graph.containsNode(start)) {
+            return found;
+        }
+        Set<N> remaining = new HashSet<>(targets);
+        Map<N, Double> cost = new HashMap<>();
+        Set<N> finished = new HashSet<>();
+        PriorityQueue<Entry<N>> active = new PriorityQueue<>();
+        cost.put(start, 0.0);
+        active.add(new Entry<>(start, 0.0));
+        while (!active.isEmpty() && !remaining.isEmpty()) {
+            Entry<N> min = active.remove();
+            if (!finished.add(min.node)) {
+                continue;
+            }
+            if (remaining.remove(min.node)) {
+                found.put(min.node, min.cost);
+            }
+            for (Graph.Edge<N, Double> e : graph.getNeighbors(min.node)) {
+                double c = min.cost + e.getLabel();
+                Double known = cost.get(e.to);
+                if (known == null || c < known) {
+                    cost.put(e.to, c);
+                    active.add(new Entry<>(e.to, c));
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds every node within a cost budget of a start, with a single search that stops at
+     * the budget instead of one search per destination.
+     *
+     * @spec.requires graph and start to not be null && every label in graph is >= 0
+     * @param graph graph to search, with each edge's label as its cost.
+     * @param start node to measure from.
+     * @param budget greatest cost a node may be reached at.
+     * @param <N> type of node in the graph
+     * @return a map from each node reachable from start at a cost of at most budget to its
+     *         least cost, iterating in order of cost from start itself at 0; empty if start is
+     *         not in the graph or budget is negative or not a number.
+     */
+    public static <N> Map<N, Double> within(Graph<N, Double> graph, N start, double budget) {
+        Map<N, Double> found = new LinkedHashMap<>();
+        if (!graph.containsNode(start) || !(budget >= 0)) {
+            return found;
+        }
+        Map<N, Double> cost = new HashMap<>();
+        PriorityQueue<Entry<N>> active = new PriorityQueue<>();
+        cost.put(start, 0.0);
+        active.add(new Entry<>(start, 0.0));
+        while (!active.isEmpty()) {
+            Entry<N> min = active.remove();
+            if (found.containsKey(min.node)) {
+                continue;
+            }
+            found.put(min.node, min.cost);
+            for (Graph.Edge<N, Double> e : graph.getNeighbors(min.node)) {
+                double c = min.cost + e.getLabel();
+                if (c > budget) {
+                    // over budget, so never worth queueing
+                    continue;
+                }
+                Double known = cost.get(e.to);
+                if (known == null || c < known) {
+                    cost.put(e.to, c);
+                    active.add(new Entry<>(e.to, c));
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Follows the recorded edges back from a node to the start.
+     */
+    private static <N, E> List<Graph.Edge<N, E>> pathTo(N end, Map<N, Graph.Edge<N, E>> via) {
+        List<Graph.Edge<N, E>> path = new ArrayList<>();
+        for (Graph.Edge<N, E> e = via.get(end); e != null; e = via.get(e.from)) {
+            path.add(e);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * <b>Route</b> is a path found between one of several starts and one of several ends.
+     *
+     * @param <N> type of node in the graph
+     */
+    public static class Route<N> {
+        /**
+         * Node the route begins at.
+         */
+        public final N start;
+
+        /**
+         * Node the route finishes at.
+         */
+        public final N end;
+
+        /**
+         * Total cost, including the costs of beginning at start and finishing at end.
+         */
+        public final double cost;
+
+        /**
+         * Edges from start to end in order; empty if start is end.
+         */
+        public final List<Graph.Edge<N, Double>> edges;
+
+        Route(N start, N end, double cost, List<Graph.Edge<N, Double>> edges) {
+            this.start = start;
+            this.end = end;
+            this.cost = cost;
+            this.edges = Collections.unmodifiableList(edges);
+        }
+    }
+
+    /**
+     * A node waiting in the queue with the cost it was reached at.
+     */
+    private static class Entry<N> implements Comparable<Entry<N>> {
+        final N node;
+        final double cost;
+
+        Entry(N node, double cost) {
+            this.node = node;
+            this.cost = cost;
+        }
+
+        @Override
+        public int compareTo(Entry<N> other) {
+            return Double.compare(cost, other.cost);
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package graph;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * <b>SyntheticGraph</b> is a seeded, randomly generated road-like network for stress and
+ * scaling tests: nodes have x/y coordinates and every road is a pair of one-way edges
+ * whose label is the straight-line distance between its ends.
+ *
+ * <p>The same topology, size and seed always give the same graph. Nodes and edges are kept in
+ * primitive arrays, so graphs with tens of millions of edges can be generated before they are
+ * turned into a {@link Graph} with {@link #toGraph(NodeFactory)} or written out as a
+ * GraphTestDriver script with {@link #writeScript(Writer, String)} or an edge list for its
+ * LoadGraph command with {@link #writeEdgeList(Writer)}.
+ */
+public class SyntheticGraph {
+
+    /**
+     * Shape of the generated network.
+     */
+    public enum Topology {
+        /**
+         * A jittered street grid: each node is joined to its right and lower neighbors.
+         */
+        GRID,
+        /**
+         * Random points joined to every other point within a fixed radius.
+         */
+        GEOMETRIC,
+        /**
+         * Dense clusters of points, like the buildings of a campus, joined inside each
+         * cluster by radius and to the next cluster by a single road.
+         */
+        CLUSTERED
+    }
+
+    /**
+     * Makes the node object for a generated node.
+     *
+     * @param <N> type of node to make
+     */
+    @FunctionalInterface
+    public interface NodeFactory<N> {
+        /**
+         * Makes a node.
+         *
+         * @param index index of the node, from 0 to nodeCount() - 1.
+         * @param x x coordinate of the node.
+         * @param y y coordinate of the node.
+         * @return the node; distinct indexes must give distinct nodes.
+         */
+        N make(int index, double x, double y);
+    }
+
+    // Abstraction Function:
+    // node i is at (xs[i], ys[i]) for 0 <= i < nodeCount. Edge j goes from node from[j]
+    // to node to[j] with the label weight[j], for 0 <= j < edgeCount.
+    //
+    // Representation Invariant:
+    // xs.length == ys.length == nodeCount &&
+    // from, to and weight have the same length >= edgeCount &&
+    // 0 <= from[j], to[j] < nodeCount && from[j] != to[j] && weight[j] >= 0
+
+    /**
+     * Average distance between neighboring nodes.
+     */
+    private static final double SPACING = 10;
+
+    /**
+     * Radius used to join points in GEOMETRIC and CLUSTERED, chosen so that a point has
+     * about six neighbors on average: pi * r^2 = 6 * SPACING^2.
+     */
+    private static final double RADIUS = SPACING * Math.sqrt(6 / Math.PI);
+
+    private final double[] xs;
+    private final double[] ys;
+    private int[] from;
+    private int[] to;
+    private double[] weight;
+    private int edgeCount;
+
+    private SyntheticGraph(int nodes, int expectedEdges) {
+        xs = new double[nodes];
+        ys = new double[nodes];
+        from = new int[Math.max(16, expectedEdges)];
+        to = new int[from.length];
+        weight = new double[from.length];
+    }
+
+    /**
+     * Generates a network.
+     *
+     * @spec.requires topology to not be null && nodes > 0
+     * @param topology shape of the network.
+     * @param nodes number of nodes; the network has about 4 (GRID), 6 (GEOMETRIC) or 9
+     *              (CLUSTERED) edges per node.
+     * @param seed seed for the random choices.
+     * @return the generated network.
+     */
+    public static SyntheticGraph generate(Topology topology, int nodes, long seed) {
+        Random random = new Random(seed);
+        SyntheticGraph g;
+        switch (topology) {
+            case GRID:
+                g = new SyntheticGraph(nodes, 4 * nodes);
+                g.grid(random);
+                break;
+            case GEOMETRIC:
+                g = new SyntheticGraph(nodes, 6 * nodes);
+                g.scatter(random, 1);
+                g.joinWithinRadius();
+                break;
+            default:
+                g = new SyntheticGraph(nodes, 6 * nodes);
+                int clusters = Math.max(1, nodes / 500);
+                g.scatter(random, clusters);
+                g.joinWithinRadius();
+                g.bridgeClusters(clusters);
+                break;
+        }
+        g.checkRep();
+        return g;
+    }
+
+    /**
+     * Throws an exception if the representation invariant is violated.
+     */
+    private void checkRep() {
+        assert (xs.length == ys.length) : "coordinate arrays differ in length";
+        assert (from.length == to.length && from.length == weight.length) : "edge arrays differ";
+        assert (edgeCount <= from.length) : "edge count too large";
+    }
+
+    /**
+     * Gets the number of nodes.
+     *
+     * @return number of nodes.
+     */
+    public int nodeCount() {
+        return xs.length;
+    }
+
+    /**
+     * Gets the number of one-way edges.
+     *
+     * @return number of edges.
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Gets the x coordinate of a node.
+     *
+     * @spec.requires 0 <= node < nodeCount()
+     * @param node index of the node.
+     * @return x coordinate of the node.
+     */
+    public double x(int node) {
+        return xs[node];
+    }
+
+    /**
+     * Gets the y coordinate of a node.
+     *
+     * @spec.requires 0 <= node < nodeCount()
+     * @param node index of the node.
+     * @return y coordinate of the node.
+     */
+    public double y(int node) {
+        return ys[node];
+    }
+
+    /**
+     * Gets the node an edge starts at.
+     *
+     * @spec.requires 0 <= edge < edgeCount()
+     * @param edge index of the edge.
+     * @return index of the edge's parent node.
+     */
+    public int from(int edge) {
+        return from[edge];
+    }
+
+    /**
+     * Gets the node an edge ends at.
+     *
+     * @spec.requires 0 <= edge < edgeCount()
+     * @param edge index of the edge.
+     * @return index of the edge's child node.
+     */
+    public int to(int edge) {
+        return to[edge];
+    }
+
+    /**
+     * Gets the weight of an edge, the distance between its ends.
+     *
+     * @spec.requires 0 <= edge < edgeCount()
+     * @param edge index of the edge.
+     * @return weight of the edge.
+     */
+    public double weight(int edge) {
+        return weight[edge];
+    }
+
+    /**
+     * Builds a Graph of this network, with the edge weights as labels.
+     *
+     * @spec.requires factory to not be null
+     * @param factory makes the node object for each generated node.
+     * @param <N> type of node in the graph
+     * @return a new graph holding every node and edge of this network.
+     */
+    public <N> Graph<N, Double> toGraph(NodeFactory<N> factory) {
+        @SuppressWarnings("unchecked")
+        N[] nodes = (N[]) new Object[nodeCount()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = factory.make(i, xs[i], ys[i]);
+        }
+        Graph<N, Double> graph = new Graph<>(nodes.length);
+        graph.addNodes(Arrays.asList(nodes));
+        for (int j = 0; j < edgeCount; j++) {
+            graph.addEdge(new Graph.Edge<>(nodes[from[j]], nodes[to[j]], weight[j]));
+        }
+        return graph;
+    }
+
+    /**
+     * Writes this network as a GraphTestDriver script that creates it: one CreateGraph,
+     * then an AddNode for every node named "n" followed by its index, then an AddEdge for
+     * every edge with its weight as the label.
+     *
+     * @spec.requires out and graphName to not be null
+     * @param out where the script is written.
+     * @param graphName name of the graph in the script.
+     * @throws IOException if out cannot be written.
+     */
+    public void writeScript(Writer out, String graphName) throws IOException {
+        out.write("CreateGraph " + graphName + "\n");
+        for (int i = 0; i < nodeCount(); i++) {
+            out.write("AddNode " + graphName + " n" + i + "\n");
+        }
+        for (int j = 0; j < edgeCount; j++) {
+            out.write("AddEdge " + graphName + " n" + from[j] + " n" + to[j] + " "
+                    + weight[j] + "\n");
+        }
+    }
+
+    /**
+     * Writes this network as an edge list that the GraphTestDriver LoadGraph command reads:
+     * one line per node with its name, "n" followed by its index, then one line per edge
+     * with the parent name, child name and weight.
+     *
+     * @spec.requires out to not be null
+     * @param out where the edge list is written.
+     * @throws IOException if out cannot be written.
+     */
+    public void writeEdgeList(Writer out) throws IOException {
+        for (int i = 0; i < nodeCount(); i++) {
+            out.write("n" + i + "\n");
+        }
+        for (int j = 0; j < edgeCount; j++) {
+            out.write("n" + from[j] + " n" + to[j] + " " + weight[j] + "\n");
+        }
+    }
+
+    /**
+     * Lays the nodes out on a jittered square grid and joins each to its right and lower
+     * neighbors in both directions.
+     */
+    private void grid(Random random) {
+        int side = (int) Math.ceil(Math.sqrt(nodeCount()));
+        for (int i = 0; i < nodeCount(); i++) {
+            xs[i] = (i % side) * SPACING + (random.nextDouble() - 0.5) * SPACING / 4;
+            ys[i] = (i / side) * SPACING + (random.nextDouble() - 0.5) * SPACING / 4;
+        }
+        for (int i = 0; i < nodeCount(); i++) {
+            if (i % side + 1 < side && i + 1 < nodeCount()) {
+                addRoad(i, i + 1);
+            }
+            if (i + side < nodeCount()) {
+                addRoad(i, i + side);
+            }
+        }
+    }
+
+    /**
+     * Scatters the nodes over a square with the same density as the grid. With one
+     * cluster the points are uniform; with more, node i belongs to cluster i % clusters
+     * and is placed with a normal spread around that cluster's center.
+     */
+    private void scatter(Random random, int clusters) {
+        double side = Math.sqrt(nodeCount()) * SPACING;
+        if (clusters == 1) {
+            for (int i = 0; i < nodeCount(); i++) {
+                xs[i] = random.nextDouble() * side;
+                ys[i] = random.nextDouble() * side;
+            }
+            return;
+        }
+        double[] cx = new double[clusters];
+        double[] cy = new double[clusters];
+        for (int c = 0; c < clusters; c++) {
+            cx[c] = random.nextDouble() * side;
+            cy[c] = random.nextDouble() * side;
+        }
+        // spread so that a cluster's points have the same density as the uniform case
+        double spread = Math.sqrt((double) nodeCount() / clusters / (2 * Math.PI)) * SPACING;
+        for (int i = 0; i < nodeCount(); i++) {
+            int c = i % clusters;
+            xs[i] = cx[c] + random.nextGaussian() * spread;
+            ys[i] = cy[c] + random.nextGaussian() * spread;
+        }
+    }
+
+    /**
+     * Joins every pair of nodes closer than RADIUS, finding candidates through a bucket
+     * grid with cells RADIUS wide so the work stays linear in the number of nodes.
+     */
+    private void joinWithinRadius() {
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < nodeCount(); i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        int cols = (int) ((maxX - minX) / RADIUS) + 1;
+        int rows = (int) ((maxY - minY) / RADIUS) + 1;
+        long cellCount = (long) cols * rows;
+        if (cellCount > 4L * nodeCount() + 16) {
+            throw new IllegalStateException("points are too spread out to bucket");
+        }
+        // counting sort of the nodes by cell
+        int[] start = new int[(int) cellCount + 1];
+        int[] cellOf = new int[nodeCount()];
+        for (int i = 0; i < nodeCount(); i++) {
+            int cx = (int) ((xs[i] - minX) / RADIUS);
+            int cy = (int) ((ys[i] - minY) / RADIUS);
+            cellOf[i] = cy * cols + cx;
+            start[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cellCount; c++) {
+            start[c + 1] += start[c];
+        }
+        int[] sorted = new int[nodeCount()];
+        int[] fill = Arrays.copyOf(start, start.length);
+        for (int i = 0; i < nodeCount(); i++) {
+            sorted[fill[cellOf[i]]++] = i;
+        }
+
+        double r2 = RADIUS * RADIUS;
+        for (int i = 0; i < nodeCount(); i++) {
+            int cx = cellOf[i] % cols;
+            int cy = cellOf[i] / cols;
+            for (int ny = Math.max(0, cy - 1); ny <= Math.min(rows - 1, cy + 1); ny++) {
+                for (int nx = Math.max(0, cx - 1); nx <= Math.min(cols - 1, cx + 1); nx++) {
+                    int cell = ny * cols + nx;
+                    for (int k = start[cell]; k < start[cell + 1]; k++) {
+                        int j = sorted[k];
+                        // each pair once, as a road in both directions
+                        if (j > i) {
+                            double dx = xs[i] - xs[j];
+                            double dy = ys[i] - ys[j];
+                            if (dx * dx + dy * dy <= r2) {
+                                addRoad(i, j);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Joins cluster c to cluster c + 1 with a road between their first nodes, so that the
+     * clusters form one chain.
+     */
+    private void bridgeClusters(int clusters) {
+        for (int c = 0; c + 1 < clusters && c + 1 < nodeCount(); c++) {
+            addRoad(c, c + 1);
+        }
+    }
+
+    /**
+     * Adds a road as two one-way edges weighted by the distance between the nodes.
+     */
+    private void addRoad(int a, int b) {
+        double d = Math.hypot(xs[a] - xs[b], ys[a] - ys[b]);
+        addEdge(a, b, d);
+        addEdge(b, a, d);
+    }
+
+    private void addEdge(int a, int b, double w) {
+        if (edgeCount == from.length) {
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8, 2L * from.length);
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+        }
+        from[edgeCount] = a;
+        to[edgeCount] = b;
+        weight[edgeCount] = w;
+        edgeCount++;
+    }
+}
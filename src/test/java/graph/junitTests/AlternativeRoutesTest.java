@@ -0,0 +1,205 @@
+package graph.junitTests;
+
+import graph.AlternativeRoutes;
+import graph.EdgeWeight;
+import graph.Graph;
+import graph.ShortestPaths;
+import graph.SyntheticGraph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * AlternativeRoutes class.
+ */
+public class AlternativeRoutesTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    /**
+     * Three ways from s to t: s-a-t costs 2, s-b-t costs 3, s-c-t costs 5, plus a shortcut
+     * a -> b so that s-a-b-t costs 3.5, and an island z.
+     */
+    private static Graph<String, Double> ladder() {
+        Graph<String, Double> g = new Graph<>();
+        for (String n : new String[] {"s", "a", "b", "c", "t", "z"}) {
+            g.addNode(n);
+        }
+        g.addEdge(new Graph.Edge<>("s", "a", 1.0));
+        g.addEdge(new Graph.Edge<>("a", "t", 1.0));
+        g.addEdge(new Graph.Edge<>("s", "b", 1.5));
+        g.addEdge(new Graph.Edge<>("b", "t", 1.5));
+        g.addEdge(new Graph.Edge<>("s", "c", 2.5));
+        g.addEdge(new Graph.Edge<>("c", "t", 2.5));
+        g.addEdge(new Graph.Edge<>("a", "b", 1.0));
+        return g;
+    }
+
+    /**
+     * s -> a -> t costs 2, s -> a -> d -> t costs 2.2 and shares s -> a with it, and
+     * s -> b -> t costs 2.4 and shares nothing.
+     */
+    private static Graph<String, Double> fork() {
+        Graph<String, Double> g = new Graph<>();
+        for (String n : new String[] {"s", "a", "b", "d", "t"}) {
+            g.addNode(n);
+        }
+        g.addEdge(new Graph.Edge<>("s", "a", 1.0));
+        g.addEdge(new Graph.Edge<>("a", "t", 1.0));
+        g.addEdge(new Graph.Edge<>("a", "d", 0.6));
+        g.addEdge(new Graph.Edge<>("d", "t", 0.6));
+        g.addEdge(new Graph.Edge<>("s", "b", 1.2));
+        g.addEdge(new Graph.Edge<>("b", "t", 1.2));
+        return g;
+    }
+
+    private static <N> double cost(List<Graph.Edge<N, Double>> path) {
+        double c = 0;
+        for (Graph.Edge<N, Double> e : path) {
+            c += e.getLabel();
+        }
+        return c;
+    }
+
+    private static <N> void assertLoopless(N start, N end, List<Graph.Edge<N, Double>> path) {
+        Set<N> visited = new HashSet<>();
+        visited.add(start);
+        N at = start;
+        for (Graph.Edge<N, Double> e : path) {
+            assertEquals(at, e.from);
+            assertTrue("revisits " + e.to, visited.add(e.to));
+            at = e.to;
+        }
+        assertEquals(end, at);
+    }
+
+    @Test
+    public void testKShortestInOrder() {
+        AlternativeRoutes<String, Double> routes = new AlternativeRoutes<>(ladder());
+        List<List<Graph.Edge<String, Double>>> found =
+                routes.kShortest("s", "t", 5, EdgeWeight.labels());
+        assertEquals(4, found.size());
+        assertEquals(2.0, cost(found.get(0)), 0);
+        assertEquals(3.0, cost(found.get(1)), 0);
+        assertEquals(3.5, cost(found.get(2)), 0);
+        assertEquals(5.0, cost(found.get(3)), 0);
+        for (List<Graph.Edge<String, Double>> path : found) {
+            assertLoopless("s", "t", path);
+        }
+    }
+
+    @Test
+    public void testEdgesWithEqualHashCodes() {
+        int[][] edges = {{0, 2, 2}, {0, 4, 1}, {0, 7, 1}, {1, 5, 2}, {3, 4, 3}, {3, 5, 5},
+                {3, 2, 1}, {3, 5, 2}, {4, 3, 1}, {5, 4, 3}, {5, 0, 1}, {6, 2, 1}, {6, 2, 3},
+                {6, 7, 5}, {7, 0, 4}};
+        Graph<Integer, Double> g = new Graph<>();
+        for (int i = 0; i < 8; i++) {
+            g.addNode(i);
+        }
+        for (int[] e : edges) {
+            g.addEdge(new Graph.Edge<>(e[0], e[1], (double) e[2]));
+        }
+        // 5 -> 0 and 4 -> 3 hash alike, so blocking one must not block the other
+        assertEquals(new Graph.Edge<>(5, 0, 1.0).hashCode(),
+                new Graph.Edge<>(4, 3, 1.0).hashCode());
+        assertNotEquals(new Graph.Edge<>(5, 0, 1.0), new Graph.Edge<>(4, 3, 1.0));
+        List<List<Graph.Edge<Integer, Double>>> found =
+                new AlternativeRoutes<>(g).kShortest(1, 2, 3, EdgeWeight.labels());
+        assertEquals(3, found.size());
+        assertEquals(5.0, cost(found.get(0)), 0);
+        assertEquals(6.0, cost(found.get(1)), 0);
+        assertEquals(7.0, cost(found.get(2)), 0);
+        assertEquals(4, found.get(2).size());
+    }
+
+    @Test
+    public void testSimilarityCutoff() {
+        AlternativeRoutes<String, Double> routes = new AlternativeRoutes<>(fork());
+        // s -> a -> d -> t runs 1 of its 2.2 along the shortest route
+        List<List<Graph.Edge<String, Double>>> found =
+                routes.find("s", "t", 3, 0.5, EdgeWeight.labels());
+        assertEquals(3, found.size());
+        assertEquals(2.2, cost(found.get(1)), 1e-9);
+        found = routes.find("s", "t", 3, 0.3, EdgeWeight.labels());
+        assertEquals(2, found.size());
+        assertEquals(2.0, cost(found.get(0)), 0);
+        assertEquals(2.4, cost(found.get(1)), 1e-9);
+    }
+
+    @Test
+    public void testStretchLimit() {
+        // s -> c -> t costs 5, more than half again the shortest route's 2
+        AlternativeRoutes<String, Double> routes = new AlternativeRoutes<>(ladder());
+        List<List<Graph.Edge<String, Double>>> found =
+                routes.find("s", "t", 4, 0, EdgeWeight.labels());
+        assertEquals(2, found.size());
+        assertEquals(3.0, cost(found.get(1)), 0);
+    }
+
+    @Test
+    public void testFewerRoutesThanAsked() {
+        AlternativeRoutes<String, Double> routes = new AlternativeRoutes<>(ladder());
+        assertEquals(1, routes.find("a", "b", 3, 1.0, EdgeWeight.labels()).size());
+        assertTrue(routes.find("t", "s", 3, 1.0, EdgeWeight.labels()).isEmpty());
+        assertTrue(routes.find("s", "z", 3, 1.0, EdgeWeight.labels()).isEmpty());
+        assertTrue(routes.find("s", "nowhere", 3, 1.0, EdgeWeight.labels()).isEmpty());
+        List<List<Graph.Edge<String, Double>>> same =
+                routes.find("s", "s", 3, 1.0, EdgeWeight.labels());
+        assertEquals(1, same.size());
+        assertTrue(same.get(0).isEmpty());
+    }
+
+    @Test
+    public void testWeightFunction() {
+        // closing a -> t makes the shortest route go through b
+        AlternativeRoutes<String, Double> routes = new AlternativeRoutes<>(ladder());
+        List<List<Graph.Edge<String, Double>>> found = routes.find("s", "t", 1, 1.0,
+                e -> e.from.equals("a") && e.to.equals("t") ? Double.POSITIVE_INFINITY
+                        : e.getLabel());
+        assertEquals(3.0, cost(found.get(0)), 0);
+    }
+
+    @Test
+    public void testFirstRouteIsShortest() {
+        SyntheticGraph s = SyntheticGraph.generate(SyntheticGraph.Topology.GEOMETRIC, 3000, 9);
+        Graph<Integer, Double> g = s.toGraph((i, x, y) -> i);
+        AlternativeRoutes<Integer, Double> routes = new AlternativeRoutes<>(g);
+        Random random = new Random(9);
+        for (int i = 0; i < 10; i++) {
+            int a = random.nextInt(s.nodeCount());
+            int b = random.nextInt(s.nodeCount());
+            List<Graph.Edge<Integer, Double>> shortest = ShortestPaths.find(g, a, b);
+            List<List<Graph.Edge<Integer, Double>>> found =
+                    routes.find(a, b, 3, 0.6, EdgeWeight.labels());
+            if (shortest == null) {
+                assertTrue(found.isEmpty());
+                continue;
+            }
+            assertEquals(cost(shortest), cost(found.get(0)), 1e-9);
+            double previous = 0;
+            for (List<Graph.Edge<Integer, Double>> path : found) {
+                assertLoopless(a, b, path);
+                assertTrue(cost(path) >= previous);
+                assertTrue(cost(path) <= AlternativeRoutes.MAX_STRETCH * cost(shortest) + 1e-9);
+                previous = cost(path);
+            }
+            List<List<Graph.Edge<Integer, Double>>> cheapest =
+                    routes.kShortest(a, b, 3, EdgeWeight.labels());
+            assertEquals(cost(shortest), cost(cheapest.get(0)), 1e-9);
+            for (int j = 1; j < cheapest.size(); j++) {
+                assertLoopless(a, b, cheapest.get(j));
+                assertTrue(cost(cheapest.get(j)) >= cost(cheapest.get(j - 1)));
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package graph.junitTests;
+
+import graph.Components;
+import graph.Graph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * Components class.
+ */
+public class ComponentsTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private static void edge(Graph<String, Double> g, String from, String to) {
+        g.addEdge(new Graph.Edge<>(from, to, 1.0));
+    }
+
+    /**
+     * Builds the cycle a -> b -> c -> a, a one-way edge c -> d into the cycle d <-> e,
+     * and a node z with no edges.
+     */
+    private static Graph<String, Double> oneWay() {
+        Graph<String, Double> g = new Graph<>();
+        g.addNodes(Arrays.asList("a", "b", "c", "d", "e", "z"));
+        edge(g, "a", "b");
+        edge(g, "b", "c");
+        edge(g, "c", "a");
+        edge(g, "c", "d");
+        edge(g, "d", "e");
+        edge(g, "e", "d");
+        return g;
+    }
+
+    @Test
+    public void testComponents() {
+        Components<String> c = Components.of(oneWay());
+        assertEquals(3, c.componentCount());
+        assertEquals(c.component("a"), c.component("b"));
+        assertEquals(c.component("a"), c.component("c"));
+        assertEquals(c.component("d"), c.component("e"));
+        assertNotEquals(c.component("a"), c.component("d"));
+        assertEquals(3, c.size(c.component("a")));
+        assertEquals(2, c.size(c.component("d")));
+        assertEquals(1, c.size(c.component("z")));
+        assertEquals(new HashSet<>(Arrays.asList("d", "e")),
+                new HashSet<>(c.members(c.component("d"))));
+        assertEquals(c.component("a"), c.largest());
+        assertEquals(Arrays.asList(c.component("d")), c.successors(c.component("a")));
+        assertEquals(-1, c.component("missing"));
+    }
+
+    @Test
+    public void testCanReach() {
+        Components<String> c = Components.of(oneWay());
+        assertTrue(c.canReach("a", "c"));
+        assertTrue(c.canReach("c", "a"));
+        assertTrue(c.canReach("a", "e"));
+        assertFalse(c.canReach("e", "a"));
+        assertFalse(c.canReach("a", "z"));
+        assertTrue(c.canReach("z", "z"));
+        assertFalse(c.canReach("a", "missing"));
+    }
+
+    @Test
+    public void testEmpty() {
+        Components<String> c = Components.of(new Graph<String, Double>());
+        assertEquals(0, c.componentCount());
+        assertEquals(-1, c.largest());
+    }
+
+    @Test
+    public void testRefreshAfterChange() {
+        Graph<String, Double> g = oneWay();
+        Components<String> c = Components.of(g);
+        assertSame(c, c.refresh(g));
+        g.addEdge(new Graph.Edge<>("a", "b", 1.0));
+        assertTrue("an edge already there is not a change", c.isCurrent(g));
+
+        edge(g, "e", "a");
+        assertFalse(c.isCurrent(g));
+        Components<String> refreshed = c.refresh(g);
+        assertNotSame(c, refreshed);
+        assertTrue(refreshed.canReach("e", "a"));
+        assertEquals(2, refreshed.componentCount());
+    }
+
+    @Test
+    public void testLongChainDoesNotOverflow() {
+        // deep enough that a recursive search would run out of stack
+        int n = 200000;
+        Graph<Integer, Double> g = new Graph<>(n);
+        for (int i = 0; i < n; i++) {
+            g.addNode(i);
+        }
+        for (int i = 0; i + 1 < n; i++) {
+            g.addEdge(new Graph.Edge<>(i, i + 1, 1.0));
+        }
+        Components<Integer> c = Components.of(g);
+        assertEquals(n, c.componentCount());
+        assertTrue(c.canReach(0, n - 1));
+        assertFalse(c.canReach(n - 1, 0));
+
+        // closing the chain into a ring makes it one component
+        g.addEdge(new Graph.Edge<>(n - 1, 0, 1.0));
+        c = c.refresh(g);
+        assertEquals(1, c.componentCount());
+        assertTrue(c.canReach(n - 1, 0));
+    }
+
+    /**
+     * Checks every pair on random sparse graphs against a breadth-first search, with and
+     * without the stored closure.
+     */
+    @Test
+    public void testMatchesSearch() {
+        Random random = new Random(331);
+        for (int trial = 0; trial < 20; trial++) {
+            int n = 60;
+            Graph<Integer, Double> g = new Graph<>();
+            for (int i = 0; i < n; i++) {
+                g.addNode(i);
+            }
+            for (int e = 0; e < 80; e++) {
+                g.addEdge(new Graph.Edge<>(random.nextInt(n), random.nextInt(n), 1.0));
+            }
+            Components<Integer> c = Components.of(g);
+            for (int a = 0; a < n; a++) {
+                Set<Integer> reached = reachable(g, a);
+                for (int b = 0; b < n; b++) {
+                    assertEquals(a + " to " + b, reached.contains(b), c.canReach(a, b));
+                    assertEquals(reached.contains(b) && reachable(g, b).contains(a),
+                            c.component(a) == c.component(b));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testManyComponentsWithoutClosure() {
+        // more singleton components than the closure is kept for
+        int n = Components.MAX_CLOSURE_COMPONENTS + 100;
+        Graph<Integer, Double> g = new Graph<>(n);
+        for (int i = 0; i < n; i++) {
+            g.addNode(i);
+        }
+        for (int i = 0; i + 1 < n; i += 2) {
+            g.addEdge(new Graph.Edge<>(i, i + 1, 1.0));
+        }
+        g.addEdge(new Graph.Edge<>(1, 4, 1.0));
+        Components<Integer> c = Components.of(g);
+        assertEquals(n, c.componentCount());
+        assertTrue(c.canReach(0, 5));
+        assertFalse(c.canReach(5, 0));
+        assertFalse(c.canReach(0, 3));
+        assertFalse(c.canReach(2, 7));
+    }
+
+    private static Set<Integer> reachable(Graph<Integer, Double> g, int from) {
+        Set<Integer> seen = new HashSet<>();
+        Deque<Integer> pending = new ArrayDeque<>();
+        seen.add(from);
+        pending.add(from);
+        while (!pending.isEmpty()) {
+            for (Graph.Edge<Integer, Double> e : g.getNeighbors(pending.remove())) {
+                if (seen.add(e.to)) {
+                    pending.add(e.to);
+                }
+            }
+        }
+        return seen;
+    }
+}
@@ -0,0 +1,131 @@
+package graph.junitTests;
+
+import graph.Graph;
+import graph.GraphExport;
+import graph.GraphJournal;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * GraphExport class.
+ */
+public class GraphExportTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    /**
+     * Builds a -1-> b -2-> c, a -3-> c and a node d without edges.
+     */
+    private static Graph<String, Double> triangle() {
+        Graph<String, Double> g = new Graph<>();
+        g.addNodes(Arrays.asList("a", "b", "c", "d"));
+        g.addEdge(new Graph.Edge<>("a", "b", 1.0));
+        g.addEdge(new Graph.Edge<>("b", "c", 2.0));
+        g.addEdge(new Graph.Edge<>("a", "c", 3.0));
+        return g;
+    }
+
+    private static byte[] binary(Graph<String, Double> g) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GraphExport.writeBinary(g, GraphJournal.Codec.strings(), GraphJournal.Codec.doubles(),
+                Channels.newChannel(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static Graph<String, Double> read(byte[] bytes) throws IOException {
+        return GraphExport.readBinary(GraphJournal.Codec.strings(), GraphJournal.Codec.doubles(),
+                Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    public void testDot() throws IOException {
+        StringBuilder out = new StringBuilder();
+        GraphExport.writeDot(triangle(), out);
+        String dot = out.toString();
+        assertTrue(dot.startsWith("digraph {\n"));
+        assertTrue(dot.endsWith("}\n"));
+        assertTrue(dot.contains("  \"d\";\n"));
+        assertTrue(dot.contains("  \"a\" -> \"b\" [label=\"1.0\"];\n"));
+        assertTrue(dot.contains("  \"b\" -> \"c\" [label=\"2.0\"];\n"));
+        assertTrue(dot.contains("  \"a\" -> \"c\" [label=\"3.0\"];\n"));
+        assertEquals(9, dot.split("\n").length);
+    }
+
+    @Test
+    public void testDotEscapesQuotes() throws IOException {
+        Graph<String, String> g = new Graph<>();
+        g.addNodes(Arrays.asList("say \"hi\"", "back\\slash"));
+        g.addEdge(new Graph.Edge<>("say \"hi\"", "back\\slash", "two\nlines"));
+        StringBuilder out = new StringBuilder();
+        GraphExport.writeDot(g, out);
+        assertTrue(out.toString().contains(
+                "  \"say \\\"hi\\\"\" -> \"back\\\\slash\" [label=\"two\\nlines\"];\n"));
+    }
+
+    @Test
+    public void testGraphMLParses() throws Exception {
+        Graph<String, String> g = new Graph<>();
+        g.addNodes(Arrays.asList("<a>", "b&c"));
+        g.addEdge(new Graph.Edge<>("<a>", "b&c", "\"quoted\""));
+        StringBuilder out = new StringBuilder();
+        GraphExport.writeGraphML(g, out);
+
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(
+                new ByteArrayInputStream(out.toString().getBytes(StandardCharsets.UTF_8)));
+        assertEquals("graphml", doc.getDocumentElement().getTagName());
+        assertEquals(2, doc.getElementsByTagName("node").getLength());
+        NodeList edges = doc.getElementsByTagName("edge");
+        assertEquals(1, edges.getLength());
+        Element edge = (Element) edges.item(0);
+        assertEquals("<a>", edge.getAttribute("source"));
+        assertEquals("b&c", edge.getAttribute("target"));
+        assertEquals("\"quoted\"", edge.getTextContent());
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws IOException {
+        Graph<String, Double> g = read(binary(triangle()));
+        assertEquals(4, g.size());
+        assertTrue(g.containsNode("d"));
+        assertTrue(g.getNeighbors("d").isEmpty());
+        assertTrue(g.containsEdge(new Graph.Edge<>("a", "b", 1.0)));
+        assertTrue(g.containsEdge(new Graph.Edge<>("b", "c", 2.0)));
+        assertTrue(g.containsEdge(new Graph.Edge<>("a", "c", 3.0)));
+        assertEquals(2, g.getNeighbors("a").size());
+    }
+
+    @Test
+    public void testBinaryEmpty() throws IOException {
+        assertTrue(read(binary(new Graph<>())).isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void testBinaryBadMagic() throws IOException {
+        byte[] bytes = binary(triangle());
+        bytes[0] ^= 1;
+        read(bytes);
+    }
+
+    @Test(expected = EOFException.class)
+    public void testBinaryTruncated() throws IOException {
+        byte[] bytes = binary(triangle());
+        read(Arrays.copyOf(bytes, bytes.length - 3));
+    }
+}
@@ -0,0 +1,226 @@
+package graph.junitTests;
+
+import graph.Graph;
+import graph.GraphJournal;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * GraphJournal class.
+ */
+public class GraphJournalTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private GraphJournal<String, Double> open(Path dir, long checkpointEvery) throws IOException {
+        return GraphJournal.open(dir, GraphJournal.Codec.strings(),
+                GraphJournal.Codec.doubles(), checkpointEvery);
+    }
+
+    /**
+     * Adds a -1-> b -2-> c and a -3-> c.
+     */
+    private static void triangle(GraphJournal<String, Double> j) throws IOException {
+        j.addNode("a");
+        j.addNodes(Arrays.asList("b", "c"));
+        j.addEdge(new Graph.Edge<>("a", "b", 1.0));
+        j.addEdges(Arrays.asList(new Graph.Edge<>("b", "c", 2.0),
+                new Graph.Edge<>("a", "c", 3.0)));
+    }
+
+    private static void assertTriangle(Graph<String, Double> g) {
+        assertEquals(3, g.size());
+        assertTrue(g.containsEdge(new Graph.Edge<>("a", "b", 1.0)));
+        assertTrue(g.containsEdge(new Graph.Edge<>("b", "c", 2.0)));
+        assertTrue(g.containsEdge(new Graph.Edge<>("a", "c", 3.0)));
+        assertEquals(2, g.getNeighbors("a").size());
+    }
+
+    @Test
+    public void testEmptyDirectory() throws IOException {
+        try (GraphJournal<String, Double> j = open(folder.getRoot().toPath(), 0)) {
+            assertTrue(j.graph().isEmpty());
+            assertEquals(0, j.records());
+        }
+    }
+
+    @Test
+    public void testReplaysJournal() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        try (GraphJournal<String, Double> j = open(dir, 0)) {
+            triangle(j);
+            assertTriangle(j.graph());
+            assertEquals(6, j.records());
+        }
+        try (GraphJournal<String, Double> j = open(dir, 0)) {
+            assertTriangle(j.graph());
+            assertEquals(6, j.records());
+        }
+    }
+
+    @Test
+    public void testCheckpointThenTail() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        try (GraphJournal<String, Double> j = open(dir, 0)) {
+            triangle(j);
+            j.checkpoint();
+            assertEquals(0, j.records());
+            j.addNode("d");
+            j.addEdge(new Graph.Edge<>("c", "d", 4.0));
+        }
+        try (GraphJournal<String, Double> j = open(dir, 0)) {
+            // only the changes after the checkpoint are replayed
+            assertEquals(2, j.records());
+            assertEquals(4, j.graph().size());
+            assertTrue(j.graph().containsEdge(new Graph.Edge<>("c", "d", 4.0)));
+            assertTrue(j.graph().containsEdge(new Graph.Edge<>("a", "c", 3.0)));
+        }
+    }
+
+    @Test
+    public void testAutomaticCheckpoint() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        try (GraphJournal<String, Double> j = open(dir, 6)) {
+            triangle(j);
+            // the sixth change reached the limit and was folded into a checkpoint
+            assertEquals(0, j.records());
+            j.addNode("d");
+            assertEquals(1, j.records());
+        }
+        assertTrue(Files.exists(dir.resolve(GraphJournal.CHECKPOINT_FILE)));
+        try (GraphJournal<String, Double> j = open(dir, 6)) {
+            assertEquals(1, j.records());
+            assertEquals(4, j.graph().size());
+        }
+    }
+
+    @Test
+    public void testClearReplayed() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        try (GraphJournal<String, Double> j = open(dir, 0)) {
+            triangle(j);
+            j.checkpoint();
+            j.clear();
+            j.addNode("z");
+        }
+        try (GraphJournal<String, Double> j = open(dir, 0)) {
+            assertEquals(1, j.graph().size());
+            assertTrue(j.graph().containsNode("z"));
+        }
+    }
+
+    @Test
+    public void testTornRecordDropped() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        Path journal = dir.resolve(GraphJournal.JOURNAL_FILE);
+        try (GraphJournal<String, Double> j = open(dir, 0)) {
+            triangle(j);
+        }
+        // cut the last edge short, as a crash in the middle of writing it would
+        long length = Files.size(journal);
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(length - 3);
+        }
+        try (GraphJournal<String, Double> j = open(dir, 0)) {
+            assertEquals(5, j.records());
+            assertFalse(j.graph().containsEdge(new Graph.Edge<>("a", "c", 3.0)));
+            // the journal carries on from the last whole record
+            j.addEdge(new Graph.Edge<>("c", "a", 5.0));
+        }
+        try (GraphJournal<String, Double> j = open(dir, 0)) {
+            assertEquals(6, j.records());
+            assertTrue(j.graph().containsEdge(new Graph.Edge<>("c", "a", 5.0)));
+        }
+    }
+
+    @Test
+    public void testFailedChangeWritesNothing() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        // writeUTF cannot encode a string this long, so the batch fails after its first node
+        char[] huge = new char[70000];
+        Arrays.fill(huge, 'x');
+        try (GraphJournal<String, Double> j = open(dir, 0)) {
+            try {
+                j.addNodes(Arrays.asList("phantom", new String(huge)));
+                fail("expected the codec to fail");
+            } catch (IOException e) {
+                // expected
+            }
+            j.addNode("real");
+            assertEquals(1, j.graph().size());
+        }
+        try (GraphJournal<String, Double> j = open(dir, 0)) {
+            assertEquals(1, j.records());
+            assertEquals(1, j.graph().size());
+            assertTrue(j.graph().containsNode("real"));
+            assertFalse(j.graph().containsNode("phantom"));
+        }
+    }
+
+    @Test
+    public void testStaleJournalIgnored() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        Path journal = dir.resolve(GraphJournal.JOURNAL_FILE);
+        Path saved = folder.getRoot().toPath().resolveSibling(
+                folder.getRoot().getName() + "-journal");
+        try (GraphJournal<String, Double> j = open(dir, 0)) {
+            j.addNode("a");
+            j.addEdge(new Graph.Edge<>("a", "a", 1.0));
+            j.sync();
+            Files.copy(journal, saved);
+            j.checkpoint();
+        }
+        // as if the process died after the checkpoint but before the journal was replaced
+        Files.copy(saved, journal, StandardCopyOption.REPLACE_EXISTING);
+        Files.delete(saved);
+        try (GraphJournal<String, Double> j = open(dir, 0)) {
+            assertEquals(0, j.records());
+            assertEquals(1, j.graph().size());
+            assertEquals(1, j.graph().getNeighbors("a").size());
+        }
+    }
+
+    @Test
+    public void testIntegerNodes() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        try (GraphJournal<Integer, Double> j = GraphJournal.open(dir,
+                GraphJournal.Codec.ints(), GraphJournal.Codec.doubles(), 0)) {
+            for (int i = 0; i < 100; i++) {
+                j.addNode(i);
+            }
+            for (int i = 1; i < 100; i++) {
+                j.addEdge(new Graph.Edge<>(i - 1, i, i * 0.5));
+            }
+            j.checkpoint();
+        }
+        try (GraphJournal<Integer, Double> j = GraphJournal.open(dir,
+                GraphJournal.Codec.ints(), GraphJournal.Codec.doubles(), 0)) {
+            assertEquals(100, j.graph().size());
+            assertTrue(j.graph().containsEdge(new Graph.Edge<>(41, 42, 21.0)));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotAJournal() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        Files.write(dir.resolve(GraphJournal.CHECKPOINT_FILE), new byte[] {1, 2, 3, 4, 5});
+        open(dir, 0);
+    }
+}
@@ -1,10 +1,15 @@
 package graph.junitTests;
 
 import graph.Graph;
+import graph.MemoryStats;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.Timeout;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 
@@ -259,4 +264,91 @@ public class GraphTest {
         Graph<Character, Integer> g = new Graph<>();
         assertFalse(g.containsEdge(new Graph.Edge<>(('w'),('a'), 3)));
     }
+
+    @Test
+    public void testAddNodesBulk() {
+        Graph<Integer, String> g = new Graph<>(3);
+        g.addNodes(Arrays.asList(1, 2, 3, 2));
+        assertEquals(3, g.size());
+        g.addNodes(Arrays.asList(3, 4));
+        assertEquals(4, g.size());
+    }
+
+    @Test
+    public void testAddEdgesBulk() {
+        Graph<String, String> g = smallGraph();
+        List<Graph.Edge<String, String>> edges = new ArrayList<>();
+        edges.add(new Graph.Edge<>(("node1"), ("node2"), "a"));
+        edges.add(new Graph.Edge<>(("node2"), ("node1"), "b"));
+        edges.add(new Graph.Edge<>(("node1"), ("node2"), "a"));
+        edges.add(new Graph.Edge<>(("node1"), ("node3"), "c")); // node3 is not in the graph
+        assertEquals(2, g.addEdges(edges));
+        assertEquals(0, g.addEdges(edges));
+
+        assertTrue(g.containsEdge(new Graph.Edge<>(("node1"), ("node2"), "a")));
+        assertTrue(g.containsEdge(new Graph.Edge<>(("node2"), ("node1"), "b")));
+        assertFalse(g.containsEdge(new Graph.Edge<>(("node1"), ("node3"), "c")));
+        assertEquals(1, g.getNeighbors("node1").size());
+    }
+
+    @Test
+    public void testMemoryStatsCounts() {
+        Graph<Integer, Double> g = new Graph<>();
+        for (int i = 0; i < 6; i++) {
+            g.addNode(i);
+        }
+        // out-degrees 0, 1, 2, 3, 5 and 0
+        for (int to = 1; to <= 5; to++) {
+            g.addEdge(new Graph.Edge<>(4, to % 6, (double) to));
+        }
+        g.addEdge(new Graph.Edge<>(1, 2, 1.0));
+        g.addEdge(new Graph.Edge<>(2, 3, 1.0));
+        g.addEdge(new Graph.Edge<>(2, 1, 1.0));
+        g.addEdge(new Graph.Edge<>(3, 0, 1.0));
+        g.addEdge(new Graph.Edge<>(3, 1, 1.0));
+        g.addEdge(new Graph.Edge<>(3, 2, 1.0));
+
+        MemoryStats stats = g.memoryStats();
+        assertEquals(6, stats.nodes);
+        assertEquals(11, stats.edges);
+        assertEquals(5, stats.maxDegree);
+        // buckets: 0 | 1 | 2-3 | 4-7
+        assertArrayEquals(new long[] {2, 1, 2, 1}, stats.degreeHistogram);
+        assertEquals(stats.nodeMapBytes + stats.edgeSetBytes + stats.edgeBytes
+                + stats.nodeBytes + stats.labelBytes, stats.totalBytes);
+        assertTrue(stats.compactBytes < stats.totalBytes);
+        assertEquals(stats.totalBytes - stats.compactBytes, stats.compactSavingsBytes);
+    }
+
+    @Test
+    public void testMemoryStatsEmpty() {
+        MemoryStats stats = new Graph<String, String>().memoryStats();
+        assertEquals(0, stats.nodes);
+        assertEquals(0, stats.edges);
+        assertEquals(0, stats.degreeHistogram.length);
+        assertEquals(0, stats.bytesPerEdge, 0);
+    }
+
+    @Test
+    public void testMemoryStatsGrowWithGraph() {
+        Graph<String, String> small = smallGraph();
+        small.addEdge(new Graph.Edge<>(("node1"), ("node2"), "a"));
+        Graph<String, String> bigger = smallGraph();
+        bigger.addEdge(new Graph.Edge<>(("node1"), ("node2"), "a"));
+        bigger.addEdge(new Graph.Edge<>(("node2"), ("node1"), "a much longer label"));
+        assertTrue(bigger.memoryStats().labelBytes > small.memoryStats().labelBytes);
+        assertTrue(bigger.memoryStats().totalBytes > small.memoryStats().totalBytes);
+    }
+
+    @Test
+    public void testMemoryEstimates() {
+        // 16 byte array header, padded to 8 bytes
+        assertEquals(16, MemoryStats.arrayBytes(0, 4));
+        assertEquals(32, MemoryStats.arrayBytes(3, 4));
+        assertEquals(40, MemoryStats.arrayBytes(3, 8));
+        // each entry adds 32 bytes until the table has to grow
+        assertEquals(MemoryStats.hashMapBytes(0) + 32, MemoryStats.hashMapBytes(1));
+        assertTrue(MemoryStats.hashMapBytes(13) - MemoryStats.hashMapBytes(12) > 32);
+        assertTrue(MemoryStats.objectBytes("a much longer label") > MemoryStats.objectBytes("a"));
+    }
 }
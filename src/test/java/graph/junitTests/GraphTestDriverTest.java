@@ -0,0 +1,72 @@
+package graph.junitTests;
+
+import graph.SyntheticGraph;
+import graph.scriptTestRunner.GraphTestDriver;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * GraphTestDriver commands whose output cannot be checked by an .expected file.
+ */
+public class GraphTestDriverTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String run(String script) throws IOException {
+        StringWriter out = new StringWriter();
+        new GraphTestDriver(new StringReader(script), out).runTests();
+        return out.toString();
+    }
+
+    @Test
+    public void testTimeReportsCommandAndElapsed() throws IOException {
+        String[] lines = run("Time CreateGraph g\nTime AddNode g n1\n").split("\\R");
+        assertEquals(4, lines.length);
+        assertEquals("created graph g", lines[0]);
+        assertTrue(lines[1], lines[1].matches("time for CreateGraph: \\d+\\.\\d{3} ms"));
+        assertEquals("added node n1 to g", lines[2]);
+        assertTrue(lines[3], lines[3].matches("time for AddNode: \\d+\\.\\d{3} ms"));
+    }
+
+    @Test
+    public void testTimeWithoutCommand() throws IOException {
+        assertTrue(run("Time\n").startsWith("Exception while running command: Time"));
+    }
+
+    @Test
+    public void testLoadGraphFromFile() throws IOException {
+        SyntheticGraph generated = SyntheticGraph.generate(SyntheticGraph.Topology.GRID, 2500, 1);
+        File file = folder.newFile();
+        try (Writer w = new FileWriter(file)) {
+            generated.writeEdgeList(w);
+        }
+        String out = run("Time LoadGraph g " + file.getPath() + "\nListChildren g n0\n");
+        String[] lines = out.split("\\R");
+        assertEquals("loaded graph g with 2500 nodes and " + generated.edgeCount()
+                + " edges from " + file.getPath(), lines[0]);
+        assertTrue(lines[1], lines[1].startsWith("time for LoadGraph: "));
+        assertTrue(lines[2], lines[2].startsWith("the children of n0 in g are: n"));
+    }
+
+    @Test
+    public void testLoadGraphMissingFile() throws IOException {
+        assertTrue(run("LoadGraph g no/such/file.txt\n")
+                .startsWith("Exception while running command: LoadGraph g no/such/file.txt"));
+    }
+}
@@ -0,0 +1,115 @@
+package graph.junitTests;
+
+import graph.KdTree;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * KdTree class.
+ */
+public class KdTreeTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private static List<double[]> randomPoints(int n, long seed) {
+        Random random = new Random(seed);
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            points.add(new double[] {random.nextDouble() * 1000, random.nextDouble() * 1000});
+        }
+        return points;
+    }
+
+    private static KdTree<double[]> tree(List<double[]> points) {
+        return new KdTree<>(points, p -> p[0], p -> p[1]);
+    }
+
+    private static double distance(double[] p, double x, double y) {
+        return Math.hypot(p[0] - x, p[1] - y);
+    }
+
+    @Test
+    public void testEmpty() {
+        KdTree<double[]> t = tree(Collections.emptyList());
+        assertEquals(0, t.size());
+        assertNull(t.nearest(1, 2));
+        assertTrue(t.withinRadius(1, 2, 100).isEmpty());
+    }
+
+    @Test
+    public void testMemoryBytes() {
+        long small = tree(randomPoints(100, 5)).memoryBytes();
+        long big = tree(randomPoints(1000, 5)).memoryBytes();
+        // a reference and two doubles per point
+        assertTrue(big - small >= 900 * 20);
+    }
+
+    @Test
+    public void testSinglePoint() {
+        double[] p = {3, 4};
+        KdTree<double[]> t = tree(Collections.singletonList(p));
+        assertSame(p, t.nearest(100, -100));
+        assertEquals(1, t.withinRadius(0, 0, 5).size());
+        assertTrue(t.withinRadius(0, 0, 4.9).isEmpty());
+    }
+
+    @Test
+    public void testNearestMatchesLinearScan() {
+        List<double[]> points = randomPoints(5000, 1);
+        KdTree<double[]> t = tree(points);
+        Random random = new Random(2);
+        for (int q = 0; q < 1000; q++) {
+            double x = random.nextDouble() * 1200 - 100;
+            double y = random.nextDouble() * 1200 - 100;
+            double best = Double.POSITIVE_INFINITY;
+            for (double[] p : points) {
+                best = Math.min(best, distance(p, x, y));
+            }
+            assertEquals(best, distance(t.nearest(x, y), x, y), 0);
+        }
+    }
+
+    @Test
+    public void testWithinRadiusMatchesLinearScan() {
+        List<double[]> points = randomPoints(3000, 3);
+        KdTree<double[]> t = tree(points);
+        Random random = new Random(4);
+        for (int q = 0; q < 200; q++) {
+            double x = random.nextDouble() * 1000;
+            double y = random.nextDouble() * 1000;
+            double r = random.nextDouble() * 60;
+            HashSet<double[]> expected = new HashSet<>();
+            for (double[] p : points) {
+                if (distance(p, x, y) <= r) {
+                    expected.add(p);
+                }
+            }
+            List<double[]> found = t.withinRadius(x, y, r);
+            assertEquals(expected.size(), found.size());
+            assertEquals(expected, new HashSet<>(found));
+        }
+    }
+
+    @Test
+    public void testManyEqualCoordinates() {
+        // a column of points all sharing x, and many exact duplicates
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            points.add(new double[] {5, i % 100});
+        }
+        KdTree<double[]> t = tree(points);
+        assertEquals(42, t.nearest(7, 42.2)[1], 0);
+        assertEquals(600, t.withinRadius(5, 50, 1).size());
+    }
+}
@@ -0,0 +1,89 @@
+package graph.junitTests;
+
+import graph.Graph;
+import graph.Partition;
+import graph.SyntheticGraph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * Partition class.
+ */
+public class PartitionTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private static final SyntheticGraph GRID =
+            SyntheticGraph.generate(SyntheticGraph.Topology.GRID, 2500, 3);
+
+    private static Partition<Integer> bisect(int regions) {
+        Graph<Integer, Double> g = GRID.toGraph((i, x, y) -> i);
+        return Partition.bisect(g, GRID::x, GRID::y, regions);
+    }
+
+    @Test
+    public void testEveryNodeInOneRegion() {
+        Partition<Integer> p = bisect(6);
+        assertEquals(6, p.regionCount());
+        int nodes = 0;
+        for (int r = 0; r < p.regionCount(); r++) {
+            for (Integer n : p.region(r).getNodes()) {
+                assertEquals(r, p.regionOf(n));
+            }
+            nodes += p.region(r).size();
+        }
+        assertEquals(GRID.nodeCount(), nodes);
+        assertEquals(-1, p.regionOf(-5));
+    }
+
+    @Test
+    public void testRegionsBalanced() {
+        Partition<Integer> p = bisect(6);
+        for (int r = 0; r < p.regionCount(); r++) {
+            int size = p.region(r).size();
+            assertTrue("region " + r + " has " + size, size >= 416 && size <= 417);
+        }
+    }
+
+    @Test
+    public void testEveryEdgeInRegionOrCut() {
+        Partition<Integer> p = bisect(4);
+        int edges = p.cutEdges().size();
+        for (int r = 0; r < p.regionCount(); r++) {
+            for (Integer n : p.region(r).getNodes()) {
+                edges += p.region(r).getNeighbors(n).size();
+            }
+        }
+        assertEquals(GRID.edgeCount(), edges);
+        for (Graph.Edge<Integer, Double> e : p.cutEdges()) {
+            assertNotEquals(p.regionOf(e.from), p.regionOf(e.to));
+            assertTrue(p.boundary(p.regionOf(e.from)).contains(e.from));
+            assertTrue(p.boundary(p.regionOf(e.to)).contains(e.to));
+        }
+    }
+
+    @Test
+    public void testFewBoundaryNodes() {
+        // a 50 x 50 grid cut into quarters has straight cuts, so only the rows and columns
+        // along them are on a boundary
+        Partition<Integer> p = bisect(4);
+        int boundary = 0;
+        for (int r = 0; r < p.regionCount(); r++) {
+            boundary += p.boundary(r).size();
+        }
+        assertTrue("boundary " + boundary, boundary <= 4 * 50);
+    }
+
+    @Test
+    public void testOneRegion() {
+        Partition<Integer> p = bisect(1);
+        assertEquals(GRID.nodeCount(), p.region(0).size());
+        assertTrue(p.cutEdges().isEmpty());
+        assertTrue(p.boundary(0).isEmpty());
+    }
+}
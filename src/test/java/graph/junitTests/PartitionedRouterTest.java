@@ -0,0 +1,118 @@
+package graph.junitTests;
+
+import graph.Graph;
+import graph.LocalRegion;
+import graph.Partition;
+import graph.PartitionedRouter;
+import graph.ShortestPaths;
+import graph.SyntheticGraph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * PartitionedRouter and LocalRegion classes.
+ */
+public class PartitionedRouterTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private static double cost(List<Graph.Edge<Integer, Double>> path) {
+        double c = 0;
+        for (Graph.Edge<Integer, Double> e : path) {
+            c += e.getLabel();
+        }
+        return c;
+    }
+
+    /**
+     * Routes random pairs through the partitioned router and checks each route is connected
+     * and costs the same as searching the whole graph.
+     */
+    private static void assertSameAsWholeGraph(SyntheticGraph s, int regions, long seed) {
+        Graph<Integer, Double> g = s.toGraph((i, x, y) -> i);
+        Partition<Integer> p = Partition.bisect(g, s::x, s::y, regions);
+        PartitionedRouter<Integer> router =
+                new PartitionedRouter<>(LocalRegion.of(p), p.cutEdges());
+        Random random = new Random(seed);
+        for (int i = 0; i < 40; i++) {
+            int a = random.nextInt(s.nodeCount());
+            int b = random.nextInt(s.nodeCount());
+            List<Graph.Edge<Integer, Double>> whole = ShortestPaths.find(g, a, b);
+            List<Graph.Edge<Integer, Double>> split =
+                    router.find(a, p.regionOf(a), b, p.regionOf(b));
+            if (whole == null) {
+                assertNull(split);
+                continue;
+            }
+            assertNotNull(a + " to " + b, split);
+            assertEquals(a + " to " + b, cost(whole), cost(split), 1e-9);
+            Integer at = a;
+            for (Graph.Edge<Integer, Double> e : split) {
+                assertEquals(at, e.from);
+                assertTrue(g.getNeighbors(e.from).contains(e));
+                at = e.to;
+            }
+            assertEquals((Integer) b, at);
+        }
+    }
+
+    @Test
+    public void testGridMatchesWholeGraph() {
+        assertSameAsWholeGraph(SyntheticGraph.generate(SyntheticGraph.Topology.GRID, 1600, 5),
+                8, 1);
+    }
+
+    @Test
+    public void testGeometricMatchesWholeGraph() {
+        assertSameAsWholeGraph(
+                SyntheticGraph.generate(SyntheticGraph.Topology.GEOMETRIC, 1600, 6), 5, 2);
+    }
+
+    @Test
+    public void testClusteredMatchesWholeGraph() {
+        assertSameAsWholeGraph(
+                SyntheticGraph.generate(SyntheticGraph.Topology.CLUSTERED, 1600, 7), 4, 3);
+    }
+
+    @Test
+    public void testDetourThroughAnotherRegion() {
+        // a and b share region 0 but are only joined through c in region 1
+        Graph<String, Double> left = new Graph<>();
+        left.addNode("a");
+        left.addNode("b");
+        Graph<String, Double> right = new Graph<>();
+        right.addNode("c");
+        List<Graph.Edge<String, Double>> cut = Arrays.asList(
+                new Graph.Edge<>("a", "c", 1.0), new Graph.Edge<>("c", "b", 2.0));
+        PartitionedRouter<String> router = new PartitionedRouter<>(Arrays.asList(
+                new LocalRegion<>(left, new HashSet<>(Arrays.asList("a", "b"))),
+                new LocalRegion<>(right, new HashSet<>(Arrays.asList("c")))), cut);
+        assertEquals(cut, router.find("a", 0, "b", 0));
+        assertNull(router.find("b", 0, "a", 0));
+        assertTrue(router.find("a", 0, "a", 0).isEmpty());
+    }
+
+    @Test
+    public void testOverlayHoldsOnlyBoundary() {
+        SyntheticGraph s = SyntheticGraph.generate(SyntheticGraph.Topology.GRID, 2500, 8);
+        Partition<Integer> p = Partition.bisect(s.toGraph((i, x, y) -> i), s::x, s::y, 4);
+        PartitionedRouter<Integer> router =
+                new PartitionedRouter<>(LocalRegion.of(p), p.cutEdges());
+        int boundary = 0;
+        for (int r = 0; r < p.regionCount(); r++) {
+            boundary += p.boundary(r).size();
+        }
+        assertEquals(boundary, router.overlay().size());
+        assertTrue(router.overlay().size() < s.nodeCount() / 5);
+    }
+}
@@ -0,0 +1,154 @@
+package graph.junitTests;
+
+import graph.EdgeWeight;
+import graph.Graph;
+import graph.ProfileGraph;
+import graph.ShortestPaths;
+import graph.SyntheticGraph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * ProfileGraph class.
+ */
+public class ProfileGraphTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    /**
+     * Builds s -1-> a -1-> t, where a -> t is a flight of stairs, and the longer way
+     * s -2-> b -2-> t, plus a node z with no edges.
+     */
+    private static Graph<String, Double> stairs() {
+        Graph<String, Double> g = new Graph<>();
+        g.addNodes(Arrays.asList("s", "a", "b", "t", "z"));
+        g.addEdge(new Graph.Edge<>("s", "a", 1.0));
+        g.addEdge(new Graph.Edge<>("a", "t", 1.0));
+        g.addEdge(new Graph.Edge<>("s", "b", 2.0));
+        g.addEdge(new Graph.Edge<>("b", "t", 2.0));
+        return g;
+    }
+
+    private static final EdgeWeight<String, Double> NO_STAIRS =
+            e -> e.from.equals("a") && e.to.equals("t") ? Double.POSITIVE_INFINITY
+                    : e.getLabel();
+
+    private static double cost(List<Graph.Edge<String, Double>> path) {
+        double c = 0;
+        for (Graph.Edge<String, Double> e : path) {
+            c += e.getLabel();
+        }
+        return c;
+    }
+
+    @Test
+    public void testShortestProfile() {
+        ProfileGraph<String> g = ProfileGraph.of(stairs());
+        assertEquals(Collections.singleton(ProfileGraph.SHORTEST), g.profiles());
+        assertEquals(5, g.size());
+        assertEquals(4, g.edgeCount());
+        List<Graph.Edge<String, Double>> path = g.find(ProfileGraph.SHORTEST, "s", "t");
+        assertEquals(Arrays.asList(new Graph.Edge<>("s", "a", 1.0),
+                new Graph.Edge<>("a", "t", 1.0)), path);
+    }
+
+    @Test
+    public void testBlockedProfile() {
+        ProfileGraph<String> g = ProfileGraph.of(stairs()).withProfile("no-stairs", NO_STAIRS);
+        List<Graph.Edge<String, Double>> path = g.find("no-stairs", "s", "t");
+        assertEquals(Arrays.asList(new Graph.Edge<>("s", "b", 2.0),
+                new Graph.Edge<>("b", "t", 2.0)), path);
+        assertNull(g.find("no-stairs", "a", "t"));
+        // the other profile is untouched
+        assertEquals(2.0, cost(g.find(ProfileGraph.SHORTEST, "s", "t")), 1e-9);
+        assertTrue("blocking alone keeps no costs",
+                g.profileBytes("no-stairs") < 4L * g.edgeCount());
+    }
+
+    @Test
+    public void testCostProfile() {
+        // makes s -> a ten times as costly, so the way through b is cheaper
+        ProfileGraph<String> g = ProfileGraph.of(stairs()).withProfile("slow",
+                e -> e.from.equals("s") && e.to.equals("a") ? 10 * e.getLabel() : e.getLabel());
+        List<Graph.Edge<String, Double>> path = g.find("slow", "s", "t");
+        assertEquals("b", path.get(0).to);
+        assertEquals("labels stay the original distances", 4.0, cost(path), 1e-9);
+        assertTrue(g.hasProfile("slow"));
+        assertFalse(g.hasProfile("fast"));
+        assertFalse(g.hasProfile(null));
+    }
+
+    @Test
+    public void testNoPath() {
+        ProfileGraph<String> g = ProfileGraph.of(stairs());
+        assertNull(g.find(ProfileGraph.SHORTEST, "t", "s"));
+        assertNull(g.find(ProfileGraph.SHORTEST, "s", "z"));
+        assertNull(g.find(ProfileGraph.SHORTEST, "s", "missing"));
+        assertEquals(Collections.emptyList(), g.find(ProfileGraph.SHORTEST, "z", "z"));
+    }
+
+    @Test
+    public void testWeight() {
+        ProfileGraph<String> g = ProfileGraph.of(stairs()).withProfile("no-stairs", NO_STAIRS);
+        EdgeWeight<String, Double> w = g.weight("no-stairs");
+        assertEquals(Double.POSITIVE_INFINITY, w.weight(new Graph.Edge<>("a", "t", 1.0)), 0);
+        assertEquals(2.0, w.weight(new Graph.Edge<>("s", "b", 2.0)), 0);
+        assertEquals(Double.POSITIVE_INFINITY, w.weight(new Graph.Edge<>("s", "t", 1.0)), 0);
+        assertEquals(1.0, g.weight(ProfileGraph.SHORTEST).weight(
+                new Graph.Edge<>("a", "t", 1.0)), 0);
+    }
+
+    /**
+     * Checks profiles against ShortestPaths with the same weight function on synthetic
+     * graphs, which have nodes with no edges.
+     */
+    @Test
+    public void testMatchesShortestPaths() {
+        Graph<Integer, Double> graph = SyntheticGraph.generate(
+                SyntheticGraph.Topology.CLUSTERED, 2000, 331).toGraph((i, x, y) -> i);
+        EdgeWeight<Integer, Double> oddUphill = e -> e.to % 7 == 0 ? Double.POSITIVE_INFINITY
+                : e.to % 2 == 1 ? 3 * e.getLabel() : e.getLabel();
+        ProfileGraph<Integer> g = ProfileGraph.of(graph).withProfile("hilly", oddUphill);
+        Random random = new Random(331);
+        for (int q = 0; q < 200; q++) {
+            int s = random.nextInt(2000);
+            int t = random.nextInt(2000);
+            List<Graph.Edge<Integer, Double>> expected = ShortestPaths.find(graph, s, t);
+            List<Graph.Edge<Integer, Double>> actual = g.find(ProfileGraph.SHORTEST, s, t);
+            assertEquals(expected == null, actual == null);
+            if (expected != null) {
+                assertEquals(total(expected, EdgeWeight.labels()),
+                        total(actual, EdgeWeight.labels()), 1e-6);
+            }
+            expected = ShortestPaths.find(graph, s, t, oddUphill);
+            actual = g.find("hilly", s, t);
+            assertEquals(expected == null, actual == null);
+            if (expected != null) {
+                // costs are kept as floats, so allow for their rounding
+                assertEquals(total(expected, oddUphill), total(actual, oddUphill), 1e-3);
+                for (Graph.Edge<Integer, Double> e : actual) {
+                    assertTrue(graph.containsEdge(e));
+                }
+            }
+        }
+    }
+
+    private static double total(List<Graph.Edge<Integer, Double>> path,
+                                EdgeWeight<Integer, Double> weight) {
+        double c = 0;
+        for (Graph.Edge<Integer, Double> e : path) {
+            c += weight.weight(e);
+        }
+        return c;
+    }
+}
@@ -0,0 +1,156 @@
+package graph.junitTests;
+
+import graph.EdgeWeight;
+import graph.Graph;
+import graph.ShortestPaths;
+import graph.SyntheticGraph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * ShortestPaths class.
+ */
+public class ShortestPathsTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    /**
+     * a -1-> b -1-> c -1-> d, a -5-> d, a -2-> c, and e on its own.
+     */
+    private static Graph<String, Double> diamond() {
+        Graph<String, Double> g = new Graph<>();
+        for (String n : new String[] {"a", "b", "c", "d", "e"}) {
+            g.addNode(n);
+        }
+        g.addEdge(new Graph.Edge<>("a", "b", 1.0));
+        g.addEdge(new Graph.Edge<>("b", "c", 1.0));
+        g.addEdge(new Graph.Edge<>("c", "d", 1.0));
+        g.addEdge(new Graph.Edge<>("a", "d", 5.0));
+        g.addEdge(new Graph.Edge<>("a", "c", 2.5));
+        return g;
+    }
+
+    private static double cost(List<Graph.Edge<String, Double>> path) {
+        double c = 0;
+        for (Graph.Edge<String, Double> e : path) {
+            c += e.getLabel();
+        }
+        return c;
+    }
+
+    @Test
+    public void testCheapestOfSeveralRoutes() {
+        List<Graph.Edge<String, Double>> path = ShortestPaths.find(diamond(), "a", "d");
+        assertEquals(3, path.size());
+        assertEquals("a", path.get(0).from);
+        assertEquals("b", path.get(0).to);
+        assertEquals("d", path.get(2).to);
+        assertEquals(3.0, cost(path), 0);
+    }
+
+    @Test
+    public void testStartIsEnd() {
+        assertTrue(ShortestPaths.find(diamond(), "c", "c").isEmpty());
+    }
+
+    @Test
+    public void testUnreachable() {
+        assertNull(ShortestPaths.find(diamond(), "d", "a"));
+        assertNull(ShortestPaths.find(diamond(), "a", "e"));
+        assertNull(ShortestPaths.find(diamond(), "a", "z"));
+    }
+
+    @Test
+    public void testGridDistance() {
+        // on a grid every road costs at least its straight-line length, and the path
+        // between opposite corners is connected end to end
+        SyntheticGraph s = SyntheticGraph.generate(SyntheticGraph.Topology.GRID, 2500, 11);
+        Graph<Integer, Double> g = s.toGraph((i, x, y) -> i);
+        List<Graph.Edge<Integer, Double>> path = ShortestPaths.find(g, 0, 2499);
+        assertEquals(98, path.size());
+        Integer at = 0;
+        double cost = 0;
+        for (Graph.Edge<Integer, Double> e : path) {
+            assertEquals(at, e.from);
+            at = e.to;
+            cost += e.getLabel();
+        }
+        assertEquals(Integer.valueOf(2499), at);
+        assertTrue(cost >= Math.hypot(s.x(2499) - s.x(0), s.y(2499) - s.y(0)));
+    }
+
+    @Test
+    public void testWeightFunctionChangesRoute() {
+        // making b costly sends the route through the a -> c shortcut instead
+        List<Graph.Edge<String, Double>> path = ShortestPaths.find(diamond(), "a", "d",
+                e -> e.to.equals("b") ? 10 : e.getLabel());
+        assertEquals(2, path.size());
+        assertEquals("c", path.get(0).to);
+        assertEquals(3.5, cost(path), 0);
+    }
+
+    @Test
+    public void testInfiniteWeightBlocksEdge() {
+        List<Graph.Edge<String, Double>> path = ShortestPaths.find(diamond(), "a", "d",
+                e -> e.from.equals("a") && !e.to.equals("d") ? Double.POSITIVE_INFINITY
+                        : e.getLabel());
+        assertEquals(1, path.size());
+        assertNull(ShortestPaths.find(diamond(), "a", "d", e -> Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void testLabelWeightsMatchDefault() {
+        SyntheticGraph s = SyntheticGraph.generate(SyntheticGraph.Topology.GEOMETRIC, 2000, 12);
+        Graph<Integer, Double> g = s.toGraph((i, x, y) -> i);
+        for (int end = 100; end < 2000; end += 300) {
+            assertEquals(ShortestPaths.find(g, 0, end),
+                    ShortestPaths.find(g, 0, end, EdgeWeight.labels()));
+        }
+    }
+
+    @Test
+    public void testWithinBudget() {
+        Map<String, Double> found = ShortestPaths.within(diamond(), "a", 2.5);
+        assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<>(found.keySet()));
+        assertEquals(0.0, found.get("a"), 0);
+        assertEquals(2.0, found.get("c"), 0);
+        assertEquals(4, ShortestPaths.within(diamond(), "a", 3.0).size());
+        assertEquals(1, ShortestPaths.within(diamond(), "a", 0.0).size());
+    }
+
+    @Test
+    public void testWithinNoStart() {
+        assertTrue(ShortestPaths.within(diamond(), "z", 10.0).isEmpty());
+        assertTrue(ShortestPaths.within(diamond(), "a", -1.0).isEmpty());
+        assertEquals(Collections.singletonMap("e", 0.0),
+                ShortestPaths.within(diamond(), "e", 10.0));
+    }
+
+    @Test
+    public void testWithinMatchesSearches() {
+        SyntheticGraph s = SyntheticGraph.generate(SyntheticGraph.Topology.GEOMETRIC, 2000, 12);
+        Graph<Integer, Double> g = s.toGraph((i, x, y) -> i);
+        Map<Integer, Double> found = ShortestPaths.within(g, 0, 120.0);
+        Map<Integer, Double> all = ShortestPaths.costs(g, 0, g.getNodes());
+        double last = 0;
+        for (Map.Entry<Integer, Double> e : found.entrySet()) {
+            assertTrue(e.getValue() >= last);
+            last = e.getValue();
+            assertEquals(all.get(e.getKey()), e.getValue(), 1e-9);
+        }
+        for (Map.Entry<Integer, Double> e : all.entrySet()) {
+            assertEquals(e.getValue() <= 120.0, found.containsKey(e.getKey()));
+        }
+    }
+}
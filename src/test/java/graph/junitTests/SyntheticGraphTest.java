@@ -0,0 +1,100 @@
+package graph.junitTests;
+
+import graph.Graph;
+import graph.SyntheticGraph;
+import graph.scriptTestRunner.GraphTestDriver;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of the
+ * SyntheticGraph class.
+ */
+public class SyntheticGraphTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    @Test
+    public void testSameSeedSameGraph() {
+        for (SyntheticGraph.Topology t : SyntheticGraph.Topology.values()) {
+            SyntheticGraph a = SyntheticGraph.generate(t, 2000, 7);
+            SyntheticGraph b = SyntheticGraph.generate(t, 2000, 7);
+            assertEquals(a.edgeCount(), b.edgeCount());
+            for (int i = 0; i < a.nodeCount(); i++) {
+                assertEquals(a.x(i), b.x(i), 0);
+                assertEquals(a.y(i), b.y(i), 0);
+            }
+            for (int j = 0; j < a.edgeCount(); j++) {
+                assertEquals(a.from(j), b.from(j));
+                assertEquals(a.to(j), b.to(j));
+            }
+        }
+    }
+
+    @Test
+    public void testGridShape() {
+        // a 10 x 10 grid has 2 * 10 * 9 roads, each two edges
+        SyntheticGraph g = SyntheticGraph.generate(SyntheticGraph.Topology.GRID, 100, 1);
+        assertEquals(100, g.nodeCount());
+        assertEquals(360, g.edgeCount());
+    }
+
+    @Test
+    public void testEdgesAreRoads() {
+        for (SyntheticGraph.Topology t : SyntheticGraph.Topology.values()) {
+            SyntheticGraph g = SyntheticGraph.generate(t, 5000, 3);
+            Set<Long> edges = new HashSet<>();
+            for (int j = 0; j < g.edgeCount(); j++) {
+                assertNotEquals(g.from(j), g.to(j));
+                double d = Math.hypot(g.x(g.from(j)) - g.x(g.to(j)),
+                        g.y(g.from(j)) - g.y(g.to(j)));
+                assertEquals(d, g.weight(j), 1e-9);
+                edges.add((long) g.from(j) * g.nodeCount() + g.to(j));
+            }
+            for (int j = 0; j < g.edgeCount(); j++) {
+                assertTrue(edges.contains((long) g.to(j) * g.nodeCount() + g.from(j)));
+            }
+            // road-like: a handful of edges per node
+            double perNode = g.edgeCount() / (double) g.nodeCount();
+            assertTrue(t + " has " + perNode + " edges per node", perNode > 2 && perNode < 10);
+        }
+    }
+
+    @Test
+    public void testToGraph() {
+        SyntheticGraph g = SyntheticGraph.generate(SyntheticGraph.Topology.GEOMETRIC, 1000, 5);
+        Graph<Integer, Double> graph = g.toGraph((i, x, y) -> i);
+        assertEquals(1000, graph.getNodes().size());
+        int edges = 0;
+        for (Integer n : graph.getNodes()) {
+            edges += graph.getNeighbors(n).size();
+        }
+        assertEquals(g.edgeCount(), edges);
+        assertTrue(graph.containsEdge(new Graph.Edge<>(g.from(0), g.to(0), g.weight(0))));
+    }
+
+    @Test
+    public void testWriteScript() throws IOException {
+        SyntheticGraph g = SyntheticGraph.generate(SyntheticGraph.Topology.CLUSTERED, 300, 9);
+        StringWriter script = new StringWriter();
+        g.writeScript(script, "g");
+        StringWriter out = new StringWriter();
+        new GraphTestDriver(new StringReader(script.toString()), out).runTests();
+        String[] lines = out.toString().split("\\R");
+        assertEquals(1 + g.nodeCount() + g.edgeCount(), lines.length);
+        assertEquals("created graph g", lines[0]);
+        assertEquals("added node n0 to g", lines[1]);
+        assertEquals("added edge " + g.weight(0) + " from n" + g.from(0) + " to n" + g.to(0)
+                + " in g", lines[1 + g.nodeCount()]);
+    }
+}